@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -14,10 +15,19 @@ import org.apache.commons.logging.LogFactory;
 import org.markysoft.vani.core.annotation.JavaScript;
 import org.markysoft.vani.core.annotation.JavaScriptDependency;
 import org.markysoft.vani.core.annotation.JsTypeHandler;
+import org.markysoft.vani.core.javascript.JavaScriptBatch;
+import org.markysoft.vani.core.javascript.JavaScriptException;
+import org.markysoft.vani.core.javascript.JavaScriptFunctionRegistry;
+import org.markysoft.vani.core.javascript.JavaScriptInjectionPlan;
 import org.markysoft.vani.core.javascript.JavaScriptLoader;
+import org.markysoft.vani.core.javascript.JavaScriptReferenceScope;
 import org.markysoft.vani.core.javascript.JavaScriptSource;
 import org.markysoft.vani.core.javascript.TypeHandler;
+import org.markysoft.vani.core.javascript.VaniUtils;
+import org.markysoft.vani.core.javascript.XhrTracking;
+import org.markysoft.vani.core.locating.LookupScope;
 import org.markysoft.vani.core.locating.factory.JavaScriptProxyFactory;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.reflections.Reflections;
@@ -40,6 +50,10 @@ import org.springframework.util.StringUtils;
  *
  */
 public class VaniContext {
+	protected static final String REFERENCE_LIMIT = "\nwindow.vani.refs.setLimit(%d);";
+	protected static final String DOM_GENERATION = "\nwindow.vani.dom.enable();";
+	protected static final String XHR_TRACKING_CAPACITY = "\nwindow.vani.xhrTracking.setCapacity(%d);";
+	protected static final String XHR_IDLE_EXCLUSIONS = "\nwindow.vani.xhrTracking.setIdleExclusions([%s]);";
 	private final Log logger = LogFactory.getLog(getClass());
 	private Reflections reflections;
 	private Environment environment;
@@ -54,6 +68,20 @@ public class VaniContext {
 	private String firefoxDriverXpi;
 	@Value("${vani.firefoxDriver.binary:}")
 	private String firefoxBinary;
+	@Value("${vani.javascript.functionRegistry:false}")
+	private boolean functionRegistryEnabled;
+	@Value("${vani.javascript.referenceLimit:10000}")
+	private int referenceLimit;
+	@Value("${vani.javascript.xhrTrackingCapacity:1000}")
+	private int xhrTrackingCapacity;
+	@Value("${vani.javascript.xhrIdleExclusions:}")
+	private String[] xhrIdleExclusions;
+	@Value("${vani.wait.browserEngine:false}")
+	private boolean browserWaitEnabled;
+	@Value("${vani.wait.pageIdleQuietMillis:300}")
+	private long pageIdleQuietMillis;
+	@Value("${vani.locator.validateCache:false}")
+	private boolean cacheValidationEnabled;
 
 	public Reflections getReflections() {
 		return reflections;
@@ -83,6 +111,73 @@ public class VaniContext {
 		this.configurableBeanFactory = configurableBeanFactory;
 	}
 
+	public boolean isFunctionRegistryEnabled() {
+		return functionRegistryEnabled;
+	}
+
+	public void setFunctionRegistryEnabled(boolean functionRegistryEnabled) {
+		this.functionRegistryEnabled = functionRegistryEnabled;
+	}
+
+	public int getReferenceLimit() {
+		return referenceLimit;
+	}
+
+	public void setReferenceLimit(int referenceLimit) {
+		this.referenceLimit = referenceLimit;
+	}
+
+	public int getXhrTrackingCapacity() {
+		return xhrTrackingCapacity;
+	}
+
+	public void setXhrTrackingCapacity(int xhrTrackingCapacity) {
+		this.xhrTrackingCapacity = xhrTrackingCapacity;
+	}
+
+	public String[] getXhrIdleExclusions() {
+		return xhrIdleExclusions;
+	}
+
+	public void setXhrIdleExclusions(String[] xhrIdleExclusions) {
+		this.xhrIdleExclusions = xhrIdleExclusions;
+	}
+
+	/**
+	 * @return returns true if waits are evaluated by the
+	 *         {@link org.markysoft.vani.core.javascript.WaitEngine} of the
+	 *         browser ({@code vani.wait.browserEngine}). It's disabled by
+	 *         default, because it changes the script timeout of the driver.
+	 */
+	public boolean isBrowserWaitEnabled() {
+		return browserWaitEnabled;
+	}
+
+	public void setBrowserWaitEnabled(boolean browserWaitEnabled) {
+		this.browserWaitEnabled = browserWaitEnabled;
+	}
+
+	public long getPageIdleQuietMillis() {
+		return pageIdleQuietMillis;
+	}
+
+	public void setPageIdleQuietMillis(long pageIdleQuietMillis) {
+		this.pageIdleQuietMillis = pageIdleQuietMillis;
+	}
+
+	/**
+	 * @return returns true if cached elements of locators are validated by
+	 *         the generation of the document (see
+	 *         {@link org.markysoft.vani.core.javascript.DomGeneration}).
+	 */
+	public boolean isCacheValidationEnabled() {
+		return cacheValidationEnabled;
+	}
+
+	public void setCacheValidationEnabled(boolean cacheValidationEnabled) {
+		this.cacheValidationEnabled = cacheValidationEnabled;
+	}
+
 	/**
 	 * method to check whether at least one profile of provided profile
 	 * annotation is active.
@@ -146,6 +241,17 @@ public class VaniContext {
 	 * and plugins will also be assigned.
 	 * </p>
 	 * <p>
+	 * When all sources are wired, the {@link JavaScriptInjectionPlan} of each
+	 * js-interface is resolved once, so the dependency graph must not be
+	 * walked for each call.
+	 * </p>
+	 * <p>
+	 * If the property {@code vani.javascript.functionRegistry} is true, the
+	 * bound functions of all js-interfaces are compiled by a
+	 * {@link JavaScriptFunctionRegistry} before, so each call only sends a
+	 * stub invoking the registered function.
+	 * </p>
+	 * <p>
 	 * For each js-interface, a proxy will be created and registered as
 	 * singelton spring bean. The registered bean name is equal to uncapitalized
 	 * class name.
@@ -167,6 +273,8 @@ public class VaniContext {
 				JavaScript jsAnnotation = jsClass.getDeclaredAnnotation(JavaScript.class);
 				jsSourceMap.put(jsClass, jsLoader.load(jsAnnotation, jsClass, this));
 			}
+			configureReferenceStore(jsSourceMap.get(VaniUtils.class));
+			configureXhrTracking(jsSourceMap.get(XhrTracking.class));
 
 			for (Class<?> jsClass : jsSourceMap.keySet()) {
 				JavaScriptSource<?> jsSource = jsSourceMap.get(jsClass);
@@ -190,6 +298,19 @@ public class VaniContext {
 						}
 					}
 				}
+			}
+
+			if (functionRegistryEnabled) {
+				JavaScriptFunctionRegistry functionRegistry = new JavaScriptFunctionRegistry();
+				for (JavaScriptSource<?> jsSource : jsSourceMap.values()) {
+					jsSource.setFunctionRegistry(functionRegistry);
+					functionRegistry.register(jsSource);
+				}
+			}
+
+			for (Class<?> jsClass : jsSourceMap.keySet()) {
+				JavaScriptSource<?> jsSource = jsSourceMap.get(jsClass);
+				jsSource.setInjectionPlan(JavaScriptInjectionPlan.create(jsSource));
 
 				Object jsProxy = jsProxyFactory.createProxy(jsSource);
 				configurableBeanFactory.registerSingleton(StringUtils.uncapitalize(jsClass.getSimpleName()), jsProxy);
@@ -200,6 +321,68 @@ public class VaniContext {
 		initJsTypeHandler();
 	}
 
+	/**
+	 * This method appends the configured limit of the in-page reference store
+	 * (see {@code vani.javascript.referenceLimit}) to the source of
+	 * {@link VaniUtils}. If the validation of cached elements is enabled (see
+	 * {@code vani.locator.validateCache}), the observation of the generation of
+	 * the document is also enabled. Else no generation is maintained by the
+	 * page.
+	 * 
+	 * @param vaniUtilsSource
+	 *            loaded source of {@link VaniUtils} or {@code NULL} if not
+	 *            available
+	 * @throws IllegalArgumentException
+	 *             will be thrown, if the limit is not greater than 0
+	 */
+	protected void configureReferenceStore(JavaScriptSource<?> vaniUtilsSource) {
+		if (referenceLimit <= 0) {
+			throw new IllegalArgumentException(
+					"vani.javascript.referenceLimit must be greater than 0, but was " + referenceLimit);
+		}
+		appendSource(vaniUtilsSource, String.format(REFERENCE_LIMIT, referenceLimit));
+		if (cacheValidationEnabled) {
+			appendSource(vaniUtilsSource, DOM_GENERATION);
+		}
+	}
+
+	/**
+	 * This method appends the configured capacity of the request buffer (see
+	 * {@code vani.javascript.xhrTrackingCapacity}) and the url patterns of
+	 * requests, which are not counted as in flight (see
+	 * {@code vani.javascript.xhrIdleExclusions}), to the source of
+	 * {@link XhrTracking}.
+	 * 
+	 * @param xhrTrackingSource
+	 *            loaded source of {@link XhrTracking} or {@code NULL} if not
+	 *            available
+	 * @throws IllegalArgumentException
+	 *             will be thrown, if the capacity is not greater than 0
+	 */
+	protected void configureXhrTracking(JavaScriptSource<?> xhrTrackingSource) {
+		if (xhrTrackingCapacity <= 0) {
+			throw new IllegalArgumentException(
+					"vani.javascript.xhrTrackingCapacity must be greater than 0, but was " + xhrTrackingCapacity);
+		}
+		appendSource(xhrTrackingSource, String.format(XHR_TRACKING_CAPACITY, xhrTrackingCapacity));
+		if (xhrIdleExclusions != null && xhrIdleExclusions.length > 0) {
+			StringBuilder patterns = new StringBuilder();
+			for (String exclusion : xhrIdleExclusions) {
+				if (patterns.length() > 0) {
+					patterns.append(",");
+				}
+				patterns.append("'").append(exclusion.trim().replace("\\", "\\\\").replace("'", "\\'")).append("'");
+			}
+			appendSource(xhrTrackingSource, String.format(XHR_IDLE_EXCLUSIONS, patterns));
+		}
+	}
+
+	private void appendSource(JavaScriptSource<?> jsSource, String source) {
+		if (jsSource != null && jsSource.getSource() != null) {
+			jsSource.setSource(jsSource.getSource() + source);
+		}
+	}
+
 	/**
 	 * This method will look for all classes annotated with
 	 * {@link JsTypeHandler} and instantiates and registers found classes to
@@ -277,6 +460,104 @@ public class VaniContext {
 		return typeHandlerRegistry.get(targetType);
 	}
 
+	/**
+	 * This method collects all calls of js-interface methods done by provided
+	 * recorder and executes them in a single script, so only one round trip to
+	 * the browser is needed. For example:
+	 * 
+	 * <pre>
+	 * <code>
+	 * vaniContext.batch(webDriver, b -&gt; {
+	 * 	text = b.call(() -&gt; element.text());
+	 * 	href = b.call(() -&gt; element.attr("href"));
+	 * });
+	 * String linkText = text.join();
+	 * </code>
+	 * </pre>
+	 * 
+	 * @param webDriver
+	 *            driver, which is used by all recorded calls
+	 * @param recorder
+	 *            consumer recording the calls (see
+	 *            {@link JavaScriptBatch#call(java.util.function.Supplier)})
+	 * @throws JavaScriptException
+	 *             will be thrown, if the batch script failed
+	 * @see JavaScriptBatch
+	 */
+	public void batch(WebDriver webDriver, Consumer<JavaScriptBatch> recorder) throws JavaScriptException {
+		JavaScriptBatch batch = new JavaScriptBatch((JavascriptExecutor) webDriver);
+		batch.start();
+		try {
+			recorder.accept(batch);
+		} finally {
+			batch.stop();
+		}
+		batch.execute();
+	}
+
+	/**
+	 * This method runs the provided action within a new
+	 * {@link JavaScriptReferenceScope}. All in-page objects referenced during
+	 * the action (e.g. the jquery objects of returned {@link
+	 * org.markysoft.vani.core.locating.JQueryElement}s) are released
+	 * afterwards, even if the action failed. So long running crawls don't
+	 * leak memory in the browser.
+	 * 
+	 * @param webDriver
+	 *            driver, which holds the references
+	 * @param action
+	 * @see JavaScriptReferenceScope
+	 */
+	public void referenceScope(WebDriver webDriver, Runnable action) {
+		JavaScriptReferenceScope scope = new JavaScriptReferenceScope();
+		scope.open();
+		try {
+			action.run();
+		} finally {
+			List<String> references = scope.close();
+			if (!references.isEmpty()) {
+				try {
+					releaseReferences(webDriver, references);
+				} catch (RuntimeException ex) {
+					logger.warn("cannot release references of scope: " + ex.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * This method runs the provided action within a new {@link LookupScope}.
+	 * Fields without {@link org.openqa.selenium.support.CacheLookup} are only
+	 * located once during the action, following accesses reuse the located
+	 * element. The elements are dropped afterwards, even if the action failed.
+	 * 
+	 * @param action
+	 * @see LookupScope
+	 */
+	public void lookupScope(Runnable action) {
+		LookupScope scope = new LookupScope();
+		scope.open();
+		try {
+			action.run();
+		} finally {
+			scope.close();
+		}
+	}
+
+	/**
+	 * This method releases the provided references in the browser.
+	 * 
+	 * @param webDriver
+	 *            driver, which holds the references
+	 * @param references
+	 *            values of
+	 *            {@link org.markysoft.vani.core.javascript.GlobalReferenceHolder#getReference()}
+	 * @return returns the count of released references.
+	 */
+	public long releaseReferences(WebDriver webDriver, List<String> references) {
+		return appContext.getBean(VaniUtils.class).releaseReferences(references, webDriver);
+	}
+
 	@PreDestroy
 	public void shutdownWebDrivers() {
 		Map<String, WebDriver> webDrivers = appContext.getBeansOfType(WebDriver.class);
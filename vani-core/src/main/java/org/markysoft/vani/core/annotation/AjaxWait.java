@@ -11,7 +11,8 @@ import java.lang.annotation.Target;
  * before each access on field causing locating. If you use the cache feature,
  * it will only be executed at first access.
  * <p>
- * Ajax-wait means, that all jquery ajax-calls must be finished.
+ * Ajax-wait means, that all ajax-calls (jquery, {@code XMLHttpRequest} and
+ * {@code fetch}) must be finished.
  * </p>
  * 
  * @author Thomas
@@ -10,6 +10,16 @@ import java.lang.annotation.Target;
  * This annotation declare a content wait on class-level, which is executed
  * before each access on field causing locating. If you use the cache feature,
  * it will only be executed at first access.
+ * <p>
+ * By default, the condition is polled by java in the interval of
+ * {@link #pollingTime()}. If {@code vani.wait.browserEngine} is enabled, the
+ * default condition {@code hasMatches()} and the other conditions supported
+ * by the browser (see
+ * {@link org.markysoft.vani.core.wait.WaitBuilder#untilInBrowser(long, long, org.openqa.selenium.WebDriver)})
+ * are evaluated by the browser, which observes the changes of the document.
+ * So the wait returns as soon as a matching element is added and not after
+ * the next polling.
+ * </p>
  * 
  * @author Thomas
  *
@@ -20,8 +20,11 @@ import java.lang.annotation.Target;
  * </code>
  * </pre>
  * <p>
- * For each call of method of associated js-interface, the detection script will
- * be executed.
+ * The detection script will be executed before the first call of a method of
+ * associated js-interface in each document. Further calls in the same document
+ * will skip it, because the injected source is marked by a token in the page.
+ * The detection scripts of the js-interface and all its dependencies and
+ * plugins are evaluated together in a single script execution.
  * </p>
  * 
  * @author Thomas
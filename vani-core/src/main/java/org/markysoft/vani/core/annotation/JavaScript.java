@@ -51,10 +51,11 @@ import org.openqa.selenium.JavascriptExecutor;
  * </pre>
  * <p>
  * <h3>Injection Process</h3> At context startup, all javascript sources will be
- * loaded. The injection into the page will be done before each method call of
- * the js-interface. If you don't want that, you have to declare a detection
- * script (see {@link DetectionScript}). This will be executed to check whether
- * the source must be injected or not.
+ * loaded. The injection into the page will be done before the first method
+ * call of the js-interface in each document. If the source could already be
+ * available in the page, you have to declare a detection script (see
+ * {@link DetectionScript}). This will be executed to check whether the source
+ * must be injected or not.
  * </p>
  * <p>
  * After the execution in the browser (see {@link JavascriptExecutor} for more
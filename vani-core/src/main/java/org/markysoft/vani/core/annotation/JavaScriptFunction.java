@@ -30,4 +30,14 @@ public @interface JavaScriptFunction {
 	 * ignored.</i>
 	 */
 	String value() default "";
+
+	/**
+	 * If true, the bound function is executed asynchronously (see
+	 * {@link org.openqa.selenium.JavascriptExecutor#executeAsyncScript(String, Object...)}).
+	 * The function receives the callback as last argument and must call it
+	 * with its result. Asynchronous functions are not recorded by a
+	 * {@link org.markysoft.vani.core.javascript.JavaScriptBatch}, they are
+	 * always executed immediately.
+	 */
+	boolean async() default false;
 }
@@ -7,11 +7,14 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * After the annotated method is executed, {@code vani} checks whether a
- * xhr-request made by jquery for provided url is finished. For that, XHR
- * tracking must be enabled by injecting jquery javascript (done during first
- * jquery locating), because {@code vani} will register a listener and track all
- * xhr-requests in a page cache.
+ * After the annotated method is executed, {@code vani} waits until a
+ * xhr-request (made by jquery, {@code XMLHttpRequest} or {@code fetch}) for
+ * provided url is finished. Requests are recorded in a page cache as soon as
+ * the XHR tracking is injected by a previous wait or tracking call of the page.
+ * The wait considers the requests started after the method was called and, if
+ * {@code vani.wait.browserEngine} is enabled, the page reports the completion
+ * of the matching request after its handlers are executed, so no polling is
+ * necessary.
  * 
  * @author Thomas
  *
@@ -9,6 +9,20 @@ import org.openqa.selenium.WebElement;
  * {@link Predicate}
  */
 public class Is {
+	/**
+	 * {@link #displayed(Object)} as predicate. If it is used for a wait
+	 * condition, the check can be evaluated by the browser (see
+	 * {@link org.markysoft.vani.core.wait.WaitBuilder}).
+	 */
+	public static final Predicate<Object> DISPLAYED = Is::displayed;
+	/**
+	 * {@link #selected(Object)} as predicate (see {@link #DISPLAYED}).
+	 */
+	public static final Predicate<Object> SELECTED = Is::selected;
+	/**
+	 * {@link #enabled(Object)} as predicate (see {@link #DISPLAYED}).
+	 */
+	public static final Predicate<Object> ENABLED = Is::enabled;
 
 	/**
 	 * This method will check whether provided {@link WebElement} is displayed.
@@ -0,0 +1,61 @@
+package org.markysoft.vani.core.javascript;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * This class holds the latest known generation of the document per
+ * {@link WebDriver}. The generation changes when nodes are added or removed or
+ * the browser navigates to another page. It's not fetched by a separate call,
+ * but reported by the jquery calls, which locate elements anyway (see
+ * {@link JQueryTypeHandler}). So a change of the document is noticed with the
+ * next jquery call after it.
+ *
+ * @author Thomas
+ * @see org.markysoft.vani.core.locating.BaseElementLocator
+ */
+public class DomGeneration {
+	private static final Map<WebDriver, String> GENERATIONS = new WeakHashMap<>();
+	private static long resetCount;
+
+	private DomGeneration() {
+	}
+
+	/**
+	 * @param webDriver
+	 * @return returns the latest known generation of the document of provided
+	 *         driver or {@code NULL} if none was reported yet.
+	 */
+	public static synchronized String get(WebDriver webDriver) {
+		return webDriver != null ? GENERATIONS.get(webDriver) : null;
+	}
+
+	/**
+	 * This method stores the generation reported by a script. Missing
+	 * generations (e.g. the changes cannot be observed) are ignored.
+	 *
+	 * @param webDriver
+	 * @param generation
+	 */
+	public static synchronized void update(WebDriver webDriver, String generation) {
+		if (webDriver != null && generation != null) {
+			GENERATIONS.put(webDriver, generation);
+		}
+	}
+
+	/**
+	 * This method replaces the known generation by a new one, which doesn't
+	 * match any generation of a document. It must be called after a
+	 * navigation, so elements located in the previous document are located
+	 * again.
+	 *
+	 * @param webDriver
+	 */
+	public static synchronized void reset(WebDriver webDriver) {
+		if (webDriver != null) {
+			GENERATIONS.put(webDriver, "reset:" + (++resetCount));
+		}
+	}
+}
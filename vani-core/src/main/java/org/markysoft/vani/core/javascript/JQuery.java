@@ -16,7 +16,8 @@ import org.openqa.selenium.WebElement;
 
 @JavaScriptDependency({ VaniUtils.class, XhrTracking.class })
 @JavaScript(source = "classpath:jquery-2.2.1.js")
-public interface JQuery extends JQueryRegexSelectorPlugin, JQueryObjectInterface {
+public interface JQuery
+		extends JQueryRegexSelectorPlugin, JQueryObjectInterface, JQueryPipelinePlugin, JQueryExtractPlugin {
 
 	@DetectionScript("typeof jQuery !== 'undefined'")
 	public boolean isAvailable();
@@ -67,8 +68,15 @@ public interface JQuery extends JQueryRegexSelectorPlugin, JQueryObjectInterface
 	@JavaScriptFunction
 	public String val(GlobalReferenceHolder ref, WebDriver webDriver);
 
+	/**
+	 * This method sets the value of every matched element. Like jquery, it
+	 * returns the jquery object itself, because the call function returns the
+	 * descriptor of each jquery object.
+	 * 
+	 * @return returns the matched elements wrapped by {@link JQueryElement}.
+	 */
 	@JavaScriptFunction
-	public String val(GlobalReferenceHolder ref, String value, WebDriver webDriver);
+	public JQueryElement val(GlobalReferenceHolder ref, String value, WebDriver webDriver);
 
 	@JavaScriptFunction
 	public String css(GlobalReferenceHolder ref, String name, WebDriver webDriver);
@@ -82,6 +90,17 @@ public interface JQuery extends JQueryRegexSelectorPlugin, JQueryObjectInterface
 	@JavaScriptFunction
 	public JQueryElement prev(GlobalReferenceHolder ref, String selector, WebDriver webDriver);
 
+	/**
+	 * This method removes the referenced jquery object from the in-page
+	 * reference store. The call function isn't used, but its first argument is
+	 * the reference of provided holder.
+	 * 
+	 * @return returns {@code 1} if the reference was released or {@code 0} if
+	 *         it was already released or evicted.
+	 */
+	@JavaScriptFunction("return window.vani.refs.release([arguments[0]]);")
+	public long release(GlobalReferenceHolder ref, WebDriver webDriver);
+
 	/**
 	 * Given a jQuery object that represents a set of DOM elements, the
 	 * {@code .last()} method constructs a new jQuery object from the last
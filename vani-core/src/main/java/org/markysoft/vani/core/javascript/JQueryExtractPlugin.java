@@ -0,0 +1,36 @@
+package org.markysoft.vani.core.javascript;
+
+import java.util.List;
+import java.util.Map;
+
+import org.markysoft.vani.core.annotation.JavaScript;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.markysoft.vani.core.locating.JQueryProjection;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * This plugin reads several properties of all matched elements in a single
+ * call.
+ * 
+ * @author Thomas
+ * @see JQueryProjection
+ */
+@JavaScript(source = "classpath:jquery-extract.js")
+public interface JQueryExtractPlugin {
+
+	/**
+	 * This method reads the provided columns of all elements matched by the
+	 * referenced jquery object.
+	 * 
+	 * @param ref
+	 *            referenced jquery object
+	 * @param columns
+	 *            columns to read (see {@link JQueryProjection#getColumns()})
+	 * @param webDriver
+	 * @return returns one map per matched element, which contains the column
+	 *         names and the read values.
+	 */
+	@JavaScriptFunction(name = "vaniExtract")
+	public List<Map<String, Object>> extract(GlobalReferenceHolder ref, List<List<String>> columns,
+			WebDriver webDriver);
+}
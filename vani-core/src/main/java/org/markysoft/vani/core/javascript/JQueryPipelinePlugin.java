@@ -0,0 +1,56 @@
+package org.markysoft.vani.core.javascript;
+
+import java.util.List;
+
+import org.markysoft.vani.core.annotation.JavaScript;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.markysoft.vani.core.locating.JQueryElement;
+import org.markysoft.vani.core.locating.JQueryPipeline;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * This plugin executes the traversal steps recorded by {@link JQueryPipeline}
+ * in a single call.
+ * 
+ * @author Thomas
+ * @see JQueryPipeline
+ */
+@JavaScript(source = "classpath:jquery-pipeline.js")
+public interface JQueryPipelinePlugin {
+
+	/**
+	 * This method applies the provided steps to the referenced jquery object
+	 * and returns the result of the terminal operation.
+	 * 
+	 * @param ref
+	 *            start of the pipeline or {@code NULL} for the whole document
+	 * @param steps
+	 *            list of steps, each one contains the jquery function name and
+	 *            the list of its arguments
+	 * @param terminal
+	 *            name of the jquery function returning the result or
+	 *            {@code length}
+	 * @param terminalArgs
+	 *            arguments of the terminal function
+	 * @param webDriver
+	 * @return returns the result of the terminal operation.
+	 */
+	@JavaScriptFunction(name = "vaniPipeline")
+	public <T> T pipeline(GlobalReferenceHolder ref, List<List<Object>> steps, String terminal,
+			List<Object> terminalArgs, WebDriver webDriver);
+
+	/**
+	 * This method applies the provided steps to the referenced jquery object
+	 * and returns the resulting jquery object.
+	 * 
+	 * @param ref
+	 *            start of the pipeline or {@code NULL} for the whole document
+	 * @param steps
+	 *            list of steps, each one contains the jquery function name and
+	 *            the list of its arguments
+	 * @param webDriver
+	 * @return returns the resulting jquery object.
+	 */
+	@JavaScriptFunction(name = "vaniPipeline")
+	public JQueryElement pipelineElement(GlobalReferenceHolder ref, List<List<Object>> steps, WebDriver webDriver);
+}
@@ -1,5 +1,7 @@
 package org.markysoft.vani.core.javascript;
 
+import java.util.Map;
+
 import org.markysoft.vani.core.annotation.JsTypeHandler;
 import org.markysoft.vani.core.locating.JQueryElement;
 import org.openqa.selenium.WebDriver;
@@ -11,21 +13,42 @@ import org.springframework.beans.factory.annotation.Autowired;
  * <p>
  * The js-interface {@link JQuery} returns {@link JQueryElement}, but the call
  * function for all jquery functions will cache the matching jquery object and
- * returns its cache reference. So this string must be wrapped by a new
- * {@link JQueryElement}.
+ * returns a descriptor containing its cache reference ({@code ref}),
+ * {@code selector} and {@code length}. So this descriptor must be wrapped by a
+ * new {@link JQueryElement}. A plain cache reference is also accepted, but
+ * then the selector and length will be fetched by separate calls.
+ * </p>
+ * <p>
+ * The descriptor also contains the {@code generation} of the document, which
+ * is stored as latest known generation of the driver (see
+ * {@link DomGeneration}).
+ * </p>
+ * <p>
+ * The reference of the created element is added to the open
+ * {@link JavaScriptReferenceScope} of current thread.
  * </p>
  * 
  * @author Thomas
  *
  */
 @JsTypeHandler
-public class JQueryTypeHandler implements TypeHandler<JQueryElement, String> {
+public class JQueryTypeHandler implements TypeHandler<JQueryElement, Object> {
 	@Autowired
 	private JQuery jQuery;
 
 	@Override
-	public JQueryElement get(String reference, WebDriver webDriver) {
-		JQueryElement result = new JQueryElement(jQuery, webDriver, reference);
+	public JQueryElement get(Object scriptResult, WebDriver webDriver) {
+		JQueryElement result;
+		if (scriptResult instanceof Map) {
+			Map<?, ?> descriptor = (Map<?, ?>) scriptResult;
+			Object length = descriptor.get("length");
+			result = new JQueryElement(jQuery, webDriver, (String) descriptor.get("ref"),
+					(String) descriptor.get("selector"), length != null ? ((Number) length).longValue() : 0);
+			DomGeneration.update(webDriver, (String) descriptor.get("generation"));
+		} else {
+			result = new JQueryElement(jQuery, webDriver, (String) scriptResult);
+		}
+		JavaScriptReferenceScope.track(result.getReference());
 		return result;
 	}
 
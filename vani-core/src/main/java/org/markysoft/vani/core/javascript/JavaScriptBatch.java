@@ -0,0 +1,345 @@
+package org.markysoft.vani.core.javascript;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.openqa.selenium.JavascriptExecutor;
+
+/**
+ * This class collects calls of js-interface methods and executes them in a
+ * single script. So reading a dozen values only costs one round trip to the
+ * browser instead of one per call. For example:
+ *
+ * <pre>
+ * <code>
+ * vaniContext.batch(webDriver, b -&gt; {
+ * 	text = b.call(() -&gt; element.text());
+ * 	href = b.call(() -&gt; element.attr("href"));
+ * 	visible = b.call(() -&gt; element.is(":visible"));
+ * });
+ * </code>
+ * </pre>
+ * <p>
+ * Each supplier provided to {@link #call(Supplier)} must invoke exactly one
+ * method of a js-interface. During recording, the js-interface proxies don't
+ * execute anything and return {@code NULL} or the default value of primitive
+ * return types. The returned futures are completed with the results, which are
+ * converted by the registered {@link TypeHandler}s, when the batch is executed.
+ * </p>
+ * <p>
+ * If a js-interface is not injected yet, the affected calls are sent again
+ * together with the required sources in a second script. The missing sources
+ * of all affected js-interfaces are injected once in dependency order, so a
+ * shared dependency like jQuery is not sent twice.
+ * </p>
+ *
+ * @author Thomas
+ * @see org.markysoft.vani.core.VaniContext#batch(org.openqa.selenium.WebDriver,
+ *      java.util.function.Consumer)
+ */
+public class JavaScriptBatch {
+	private static final ThreadLocal<JavaScriptBatch> CURRENT_BATCH = new ThreadLocal<>();
+	protected static final String BATCH_CALL = "(function(){%s}).apply(null,vaniBatchArgs[%d])";
+	private final Log logger = LogFactory.getLog(getClass());
+	private final JavascriptExecutor jsExecutor;
+	private final List<Invocation> invocations = new ArrayList<>();
+	private CompletableFuture<?> pendingFuture;
+
+	public JavaScriptBatch(JavascriptExecutor jsExecutor) {
+		this.jsExecutor = jsExecutor;
+	}
+
+	/**
+	 * @return returns the batch, which is recording in current thread, or
+	 *         {@code NULL} if there is none.
+	 */
+	public static JavaScriptBatch getCurrent() {
+		return CURRENT_BATCH.get();
+	}
+
+	/**
+	 * This method starts recording for current thread. All calls of
+	 * js-interface methods are collected by this batch until {@link #stop()}
+	 * is called.
+	 *
+	 * @throws JavaScriptException
+	 *             will be thrown, if there is already a recording batch
+	 */
+	public void start() throws JavaScriptException {
+		if (CURRENT_BATCH.get() != null) {
+			throw new JavaScriptException("Nested javascript batches are not supported!");
+		}
+		CURRENT_BATCH.set(this);
+	}
+
+	/**
+	 * This method stops recording for current thread.
+	 */
+	public void stop() {
+		CURRENT_BATCH.remove();
+	}
+
+	/**
+	 * This method records the js-interface call done by provided supplier.
+	 *
+	 * @param call
+	 *            supplier invoking exactly one method of a js-interface
+	 * @return returns future, which will be completed with the converted result
+	 *         when the batch is executed.
+	 * @throws JavaScriptException
+	 *             will be thrown, if the supplier didn't invoke a js-interface
+	 *             method
+	 */
+	public <T> CompletableFuture<T> call(Supplier<T> call) throws JavaScriptException {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		int count = invocations.size();
+		pendingFuture = result;
+		try {
+			call.get();
+		} finally {
+			pendingFuture = null;
+		}
+		if (invocations.size() == count) {
+			throw new JavaScriptException("Batched call has not invoked a method of a js-interface!");
+		}
+		return result;
+	}
+
+	/**
+	 * This method records the js-interface call done by provided runnable.
+	 *
+	 * @param call
+	 *            runnable invoking exactly one method of a js-interface
+	 * @return returns future, which will be completed when the batch is
+	 *         executed.
+	 * @see #call(Supplier)
+	 */
+	public CompletableFuture<Void> run(Runnable call) throws JavaScriptException {
+		return call(() -> {
+			call.run();
+			return null;
+		});
+	}
+
+	/**
+	 * This method is called by the js-interface proxies instead of executing
+	 * the bound function.
+	 *
+	 * @param executor
+	 *            executor of the called js-interface
+	 * @param methodName
+	 *            name of calling js-inteface method
+	 * @param callSource
+	 *            source calling the bound function (see
+	 *            {@link VaniJavaScriptExecutor#getInvocationSource(String, JavaScriptFunction)})
+	 * @param args
+	 *            arguments of bound function
+	 * @param resultHandler
+	 *            function converting the result (see {@link TypeHandler})
+	 * @param returnType
+	 *            return type of calling js-interface method
+	 * @return returns the default value of specified return type.
+	 * @throws JavaScriptException
+	 *             will be thrown, if the call isn't done within
+	 *             {@link #call(Supplier)} or if it is the second call of same
+	 *             supplier.
+	 */
+	@SuppressWarnings("unchecked")
+	public Object record(VaniJavaScriptExecutor executor, String methodName, String callSource, Object[] args,
+			Function<Object, ?> resultHandler, Class<?> returnType) throws JavaScriptException {
+		if (pendingFuture == null) {
+			throw new JavaScriptException("Method '" + methodName
+					+ "' of js-interface must be called within JavaScriptBatch.call(...) or is called twice!");
+		}
+		if (executor.getWrappedExecutor() != jsExecutor) {
+			throw new JavaScriptException(
+					"Method '" + methodName + "' of js-interface is called with a driver different from the batch!");
+		}
+		Invocation invocation = new Invocation();
+		invocation.executor = executor;
+		invocation.callSource = callSource;
+		invocation.args = args != null ? Arrays.asList(args) : new ArrayList<>();
+		invocation.resultHandler = resultHandler;
+		invocation.future = (CompletableFuture<Object>) pendingFuture;
+		invocations.add(invocation);
+		pendingFuture = null;
+		return getDefaultValue(returnType);
+	}
+
+	/**
+	 * This method sends all recorded calls as one script to the browser and
+	 * completes the futures. If a call fails, only its future will be
+	 * completed exceptionally.
+	 *
+	 * @throws JavaScriptException
+	 *             will be thrown, if the script execution failed. All
+	 *             uncompleted futures will be completed exceptionally.
+	 */
+	public void execute() throws JavaScriptException {
+		List<Invocation> pendingInvocations = invocations;
+		boolean injecting = false;
+		while (!pendingInvocations.isEmpty()) {
+			List<Invocation> missingInjections = new ArrayList<>();
+			List<?> results = null;
+			try {
+				results = executeInvocations(pendingInvocations, injecting);
+			} catch (RuntimeException ex) {
+				JavaScriptException failure = new JavaScriptException(
+						"Failed to execute javascript batch: " + ex.getMessage(), ex);
+				pendingInvocations.forEach(i -> i.future.completeExceptionally(failure));
+				throw failure;
+			}
+
+			for (int i = 0; i < pendingInvocations.size(); i++) {
+				Invocation invocation = pendingInvocations.get(i);
+				Object result = i < results.size() ? results.get(i) : null;
+				List<?> detections = injecting ? null : invocation.executor.getDetections(result);
+				if (detections != null) {
+					invocation.detections = detections;
+					missingInjections.add(invocation);
+				} else {
+					complete(invocation, result);
+				}
+			}
+			pendingInvocations = missingInjections;
+			injecting = true;
+		}
+		invocations.clear();
+	}
+
+	/**
+	 * This method builds the script containing all provided invocations and
+	 * executes it.
+	 *
+	 * @param pendingInvocations
+	 * @param injecting
+	 *            true if the sources of the js-interfaces must be injected
+	 * @return returns the results of all invocations
+	 */
+	protected List<?> executeInvocations(List<Invocation> pendingInvocations, boolean injecting) {
+		StringBuilder scriptBuilder = new StringBuilder("var vaniBatchArgs = arguments;");
+		if (injecting) {
+			scriptBuilder.append(prepareInjection(pendingInvocations));
+		}
+		scriptBuilder.append("return [");
+		Object[] args = new Object[pendingInvocations.size()];
+		for (int i = 0; i < pendingInvocations.size(); i++) {
+			Invocation invocation = pendingInvocations.get(i);
+			String source = invocation.callSource;
+			if (!injecting) {
+				source = invocation.executor.guardSource(VaniJavaScriptExecutor.INJECTION_GUARD, source);
+			}
+			if (i > 0) {
+				scriptBuilder.append(",");
+			}
+			scriptBuilder.append(String.format(BATCH_CALL, source, i));
+			args[i] = invocation.args;
+		}
+		scriptBuilder.append("];");
+
+		String script = scriptBuilder.toString();
+		try {
+			return (List<?>) jsExecutor.executeScript(script, args);
+		} catch (RuntimeException ex) {
+			logger.debug("execution failed for batch script:\n" + script);
+			throw ex;
+		}
+	}
+
+	/**
+	 * This method builds the source injecting the missing sources of all
+	 * provided invocations. The {@link JavaScriptInjectionPlan}s of the
+	 * js-interfaces are merged, so each source is contained only once and
+	 * still follows its dependencies. A source is skipped, if its detection
+	 * result is true (see {@link VaniJavaScriptExecutor#prepareSource(String, List)}).
+	 * After the sources, the function modules and the injection tokens of all
+	 * sources are set.
+	 *
+	 * @param pendingInvocations
+	 *            invocations, whose js-interfaces are not injected yet
+	 * @return returns the source code injecting the missing sources.
+	 */
+	protected String prepareInjection(List<Invocation> pendingInvocations) {
+		Set<JavaScriptInjectionPlan> plans = new LinkedHashSet<>();
+		Set<JavaScriptSource<?>> allSources = new LinkedHashSet<>();
+		Set<JavaScriptSource<?>> missingSources = new LinkedHashSet<>();
+		for (Invocation invocation : pendingInvocations) {
+			JavaScriptInjectionPlan plan = invocation.executor.getInjectionPlan();
+			if (plans.add(plan)) {
+				List<JavaScriptSource<?>> sources = plan.getSources();
+				for (int i = 0; i < sources.size(); i++) {
+					allSources.add(sources.get(i));
+					if (i >= invocation.detections.size() || !Boolean.TRUE.equals(invocation.detections.get(i))) {
+						missingSources.add(sources.get(i));
+					}
+				}
+			}
+		}
+
+		StringBuilder sourceBuilder = new StringBuilder();
+		for (JavaScriptSource<?> source : missingSources) {
+			sourceBuilder.append(source.getSource());
+			sourceBuilder.append("\n");
+		}
+		StringBuilder functionBuilder = new StringBuilder();
+		StringBuilder markBuilder = new StringBuilder();
+		for (JavaScriptSource<?> source : allSources) {
+			if (source.getFunctionRegistry() != null) {
+				functionBuilder.append(source.getFunctionRegistry().getModule(source));
+			}
+			markBuilder.append(String.format(JavaScriptInjectionPlan.INJECTION_MARK,
+					JavaScriptInjectionPlan.getInjectionKey(source)));
+		}
+		if (functionBuilder.length() > 0) {
+			sourceBuilder.append(JavaScriptFunctionRegistry.MODULE_INIT);
+			sourceBuilder.append(functionBuilder);
+		}
+		return sourceBuilder.append(markBuilder).toString();
+	}
+
+	private void complete(Invocation invocation, Object result) {
+		try {
+			invocation.future.complete(invocation.resultHandler.apply(invocation.executor.handleResult(result)));
+		} catch (Exception ex) {
+			invocation.future.completeExceptionally(ex);
+		}
+	}
+
+	/**
+	 * @param type
+	 * @return returns the default value of provided type, e.g. {@code 0} for
+	 *         {@code int} or {@code NULL} for objects.
+	 */
+	protected static Object getDefaultValue(Class<?> type) {
+		if (type == null || !type.isPrimitive() || type == void.class) {
+			return null;
+		}
+		return Array.get(Array.newInstance(type, 1), 0);
+	}
+
+	/**
+	 * @return returns the count of recorded calls, which are not executed yet.
+	 */
+	public int size() {
+		return invocations.size();
+	}
+
+	private static class Invocation {
+		private VaniJavaScriptExecutor executor;
+		private String callSource;
+		private List<Object> args;
+		private Function<Object, ?> resultHandler;
+		private CompletableFuture<Object> future;
+		private List<?> detections;
+	}
+}
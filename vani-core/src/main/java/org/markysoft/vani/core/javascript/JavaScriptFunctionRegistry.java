@@ -0,0 +1,104 @@
+package org.markysoft.vani.core.javascript;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+
+/**
+ * This class compiles the bound functions of js-interfaces into a module,
+ * which registers them under {@code window.vani.fn} in the page. Each function
+ * gets a global id, so an invocation only has to send a tiny stub like
+ * {@code return window.vani.fn.call(7,arguments);} instead of the complete
+ * call source (inclusive the custom call function).
+ * <p>
+ * The module of a {@link JavaScriptSource} is part of each bundle of its
+ * {@link JavaScriptInjectionPlan}. So it will be installed together with the
+ * injection tokens, even if the source itself was already available in the
+ * page.
+ * </p>
+ * <p>
+ * The registry is only used if the property
+ * {@code vani.javascript.functionRegistry} is set to true (see
+ * {@link org.markysoft.vani.core.VaniContext#registerJavaScripts()}).
+ * </p>
+ *
+ * @author Thomas
+ * @see VaniJavaScriptExecutor
+ */
+public class JavaScriptFunctionRegistry {
+	protected static final String MODULE_INIT = "window.vani = window.vani || {};window.vani.fn = window.vani.fn || {call:function(id,args){return this[id].apply(null,args);}};";
+	protected static final String FUNCTION_DECLARATION = "window.vani.fn[%d] = function(){%s};";
+	protected static final String FUNCTION_CALL = "return window.vani.fn.call(%d,arguments);";
+	private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	private final Map<String, String> calls = new ConcurrentHashMap<>();
+	private final Map<JavaScriptSource<?>, String> modules = new ConcurrentHashMap<>();
+
+	/**
+	 * This method compiles all methods of the js-interface of provided
+	 * {@link JavaScriptSource}, which are annotated with
+	 * {@link JavaScriptFunction}. Functions with identical source share the
+	 * same id.
+	 *
+	 * @param jsSource
+	 */
+	public void register(JavaScriptSource<?> jsSource) {
+		Set<String> declarations = new LinkedHashSet<>();
+		if (jsSource.getJsInterface() != null) {
+			VaniJavaScriptExecutor compiler = new VaniJavaScriptExecutor(null, jsSource);
+			for (Method method : jsSource.getJsInterface().getMethods()) {
+				JavaScriptFunction jsFunctionAnnotation = method.getDeclaredAnnotation(JavaScriptFunction.class);
+				if (jsFunctionAnnotation != null) {
+					String functionSource = compiler.getFunctionSource(method.getName(), jsFunctionAnnotation);
+					int id = getId(functionSource);
+					declarations.add(String.format(FUNCTION_DECLARATION, id, functionSource));
+				}
+			}
+		}
+
+		StringBuilder moduleBuilder = new StringBuilder();
+		for (String declaration : declarations) {
+			moduleBuilder.append(declaration);
+		}
+		modules.put(jsSource, moduleBuilder.toString());
+	}
+
+	private synchronized int getId(String functionSource) {
+		Integer id = ids.get(functionSource);
+		if (id == null) {
+			id = ids.size() + 1;
+			ids.put(functionSource, id);
+			calls.put(functionSource, String.format(FUNCTION_CALL, id));
+		}
+		return id;
+	}
+
+	/**
+	 * @param jsSource
+	 * @return returns the declarations of the registered functions of provided
+	 *         {@link JavaScriptSource} or an empty literal, if it was not
+	 *         registered.
+	 */
+	public String getModule(JavaScriptSource<?> jsSource) {
+		String result = modules.get(jsSource);
+		return result != null ? result : "";
+	}
+
+	/**
+	 * This method returns the stub calling the registered function with
+	 * provided source.
+	 *
+	 * @param functionSource
+	 *            source of the function (see
+	 *            {@link VaniJavaScriptExecutor#getFunctionSource(String, JavaScriptFunction)})
+	 * @return returns the stub or the provided source, if no function with this
+	 *         source is registered.
+	 */
+	public String getCallSource(String functionSource) {
+		String result = calls.get(functionSource);
+		return result != null ? result : functionSource;
+	}
+}
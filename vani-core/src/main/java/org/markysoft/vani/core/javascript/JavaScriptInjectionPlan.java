@@ -0,0 +1,236 @@
+package org.markysoft.vani.core.javascript;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.markysoft.vani.core.annotation.DetectionScript;
+import org.markysoft.vani.core.annotation.JavaScriptDependency;
+import org.springframework.util.StringUtils;
+
+/**
+ * This class holds the resolved injection order of a {@link JavaScriptSource}
+ * and the bundles, which are sent to the browser. It is created once per
+ * js-interface during context startup (see
+ * {@link org.markysoft.vani.core.VaniContext#registerJavaScripts()}), so the
+ * dependency graph must not be walked and the sources must not be concatenated
+ * for each call.
+ * <p>
+ * The order of the sources is:
+ * </p>
+ * <ul>
+ * <li><b>dependencies</b> (see {@link JavaScriptDependency}). If a dependency
+ * also declares a dependency or plugin it will be handled in same order.</li>
+ * <li><b>source of js-interface</b></li>
+ * <li><b>plugins</b></li>
+ * </ul>
+ * Each source is contained only once.
+ * <p>
+ * The plan also holds the detection probe, which evaluates the detection
+ * scripts (see {@link DetectionScript}) of all sources at once. So the browser
+ * must only be asked once, which sources are already available.
+ * </p>
+ * <p>
+ * If the sources are registered by a {@link JavaScriptFunctionRegistry}, the
+ * module declaring their functions is appended to each bundle.
+ * </p>
+ *
+ * @author Thomas
+ * @see VaniJavaScriptExecutor
+ */
+public class JavaScriptInjectionPlan {
+	protected static final String INJECTION_STATE = "vani.injected";
+	protected static final String INJECTION_MARK = "window['" + INJECTION_STATE + "'] = window['" + INJECTION_STATE
+			+ "'] || {};window['" + INJECTION_STATE + "']['%s'] = true;";
+	private final List<JavaScriptSource<?>> sources;
+	private final String marks;
+	private final String functions;
+	private final String bundle;
+	private final String detectionProbe;
+	private final Map<BitSet, String> partialBundles = new ConcurrentHashMap<>(4);
+
+	protected JavaScriptInjectionPlan(List<JavaScriptSource<?>> sources) {
+		this.sources = Collections.unmodifiableList(sources);
+
+		StringBuilder markBuilder = new StringBuilder();
+		StringBuilder functionBuilder = new StringBuilder();
+		StringBuilder bundleBuilder = new StringBuilder();
+		StringBuilder probeBuilder = new StringBuilder("[");
+		for (JavaScriptSource<?> source : sources) {
+			markBuilder.append(String.format(INJECTION_MARK, getInjectionKey(source)));
+			bundleBuilder.append(source.getSource());
+			bundleBuilder.append("\n");
+			if (probeBuilder.length() > 1) {
+				probeBuilder.append(",");
+			}
+			probeBuilder.append(getDetectionExpression(source));
+			if (source.getFunctionRegistry() != null) {
+				functionBuilder.append(source.getFunctionRegistry().getModule(source));
+			}
+		}
+		if (functionBuilder.length() > 0) {
+			functionBuilder.insert(0, JavaScriptFunctionRegistry.MODULE_INIT);
+		}
+		this.functions = functionBuilder.toString();
+		this.marks = markBuilder.toString();
+		bundleBuilder.append(functions);
+		bundleBuilder.append(marks);
+		this.bundle = bundleBuilder.toString();
+		this.detectionProbe = probeBuilder.append("]").toString();
+	}
+
+	/**
+	 * This method resolves the injection order for provided
+	 * {@link JavaScriptSource}.
+	 *
+	 * @param jsSource
+	 * @return returns the plan for specified source.
+	 * @throws JavaScriptException
+	 *             will be thrown, if the dependencies contain a cycle
+	 */
+	public static JavaScriptInjectionPlan create(JavaScriptSource<?> jsSource) throws JavaScriptException {
+		Set<JavaScriptSource<?>> orderedSources = new LinkedHashSet<>();
+		if (jsSource != null) {
+			visit(jsSource, orderedSources, new HashSet<JavaScriptSource<?>>());
+		}
+		return new JavaScriptInjectionPlan(new ArrayList<>(orderedSources));
+	}
+
+	private static void visit(JavaScriptSource<?> jsSource, Set<JavaScriptSource<?>> orderedSources,
+			Set<JavaScriptSource<?>> visitingSources) throws JavaScriptException {
+		if (orderedSources.contains(jsSource)) {
+			return;
+		}
+		if (!visitingSources.add(jsSource)) {
+			throw new JavaScriptException("Cyclic javascript dependency detected for '" + getInjectionKey(jsSource)
+					+ "': " + visitingSources);
+		}
+		for (JavaScriptSource<?> dependency : jsSource.getDependencies()) {
+			visit(dependency, orderedSources, visitingSources);
+		}
+		orderedSources.add(jsSource);
+		visitingSources.remove(jsSource);
+
+		for (JavaScriptSource<?> plugin : jsSource.getPlugins()) {
+			visit(plugin, orderedSources, visitingSources);
+		}
+	}
+
+	/**
+	 * This method returns the key of the injection token for provided
+	 * {@link JavaScriptSource}.
+	 *
+	 * @param jsSource
+	 * @return returns the class name of the js-interface or the name of the
+	 *         source if no interface is available.
+	 */
+	public static String getInjectionKey(JavaScriptSource<?> jsSource) {
+		Class<?> jsInterface = jsSource.getJsInterface();
+		return jsInterface != null ? jsInterface.getName() : jsSource.getName();
+	}
+
+	/**
+	 * This method builds the javascript expression evaluating the detection
+	 * script of provided {@link JavaScriptSource}. The script is wrapped by a
+	 * function, so it can be used as array element of the detection probe. If
+	 * {@link DetectionScript#autoReturn()} is true, the script will be wrapped
+	 * by {@code return}-statement.
+	 *
+	 * @param jsSource
+	 * @return returns the expression, which evaluates to true if the source is
+	 *         already available. If no detection script is declared,
+	 *         {@code false} will be returned, because the source must always
+	 *         be injected.
+	 */
+	public static String getDetectionExpression(JavaScriptSource<?> jsSource) {
+		String result = "false";
+		DetectionScript detectionAnnotation = jsSource.getDetectionScriptAnnotation();
+		if (detectionAnnotation != null && !StringUtils.isEmpty(detectionAnnotation.value())) {
+			if (detectionAnnotation.autoReturn()) {
+				result = String.format("(function(){return %s;})()", detectionAnnotation.value());
+			} else {
+				result = String.format("(function(){%s})()", detectionAnnotation.value());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return returns all sources in injection order.
+	 */
+	public List<JavaScriptSource<?>> getSources() {
+		return sources;
+	}
+
+	/**
+	 * @return returns the statements setting the injection tokens of all
+	 *         sources.
+	 */
+	public String getMarks() {
+		return marks;
+	}
+
+	/**
+	 * @return returns a javascript array literal containing the detection
+	 *         results of all sources in injection order (see
+	 *         {@link #getDetectionExpression(JavaScriptSource)}).
+	 */
+	public String getDetectionProbe() {
+		return detectionProbe;
+	}
+
+	/**
+	 * @return returns the module declaring the registered functions of all
+	 *         sources or an empty literal, if no sources are registered (see
+	 *         {@link JavaScriptFunctionRegistry}).
+	 */
+	public String getFunctions() {
+		return functions;
+	}
+
+	/**
+	 * @return returns the source code of all sources followed by the function
+	 *         module and the injection tokens.
+	 */
+	public String getBundle() {
+		return bundle;
+	}
+
+	/**
+	 * This method returns the bundle, which only contains the sources marked by
+	 * provided {@link BitSet}. The other ones are skipped, because they are
+	 * already available (see {@link DetectionScript}). The function module and
+	 * the injection tokens are set for all sources. Bundles are cached per
+	 * combination.
+	 *
+	 * @param injections
+	 *            indexes of sources (see {@link #getSources()}), which must be
+	 *            injected
+	 * @return returns the source code of the marked sources followed by the
+	 *         function module and the injection tokens.
+	 */
+	public String getBundle(BitSet injections) {
+		if (injections.cardinality() == sources.size()) {
+			return bundle;
+		}
+		String result = partialBundles.get(injections);
+		if (result == null) {
+			StringBuilder bundleBuilder = new StringBuilder();
+			for (int i = injections.nextSetBit(0); i >= 0 && i < sources.size(); i = injections.nextSetBit(i + 1)) {
+				bundleBuilder.append(sources.get(i).getSource());
+				bundleBuilder.append("\n");
+			}
+			bundleBuilder.append(functions);
+			bundleBuilder.append(marks);
+			result = bundleBuilder.toString();
+			partialBundles.put((BitSet) injections.clone(), result);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,86 @@
+package org.markysoft.vani.core.javascript;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class collects the references of in-page objects, which are created
+ * while the scope is open in current thread (see
+ * {@link GlobalReferenceHolder}). So they can be released together when the
+ * scope is closed, e.g. after a page of a crawl is processed:
+ *
+ * <pre>
+ * <code>
+ * vaniContext.referenceScope(webDriver, () -&gt; {
+ * 	JQueryElement links = jquery.find(null, "a", webDriver);
+ * 	...
+ * });
+ * </code>
+ * </pre>
+ * <p>
+ * Scopes can be nested. A reference is only collected by the innermost open
+ * scope.
+ * </p>
+ *
+ * @author Thomas
+ * @see org.markysoft.vani.core.VaniContext#referenceScope(org.openqa.selenium.WebDriver,
+ *      Runnable)
+ */
+public class JavaScriptReferenceScope {
+	private static final ThreadLocal<JavaScriptReferenceScope> CURRENT_SCOPE = new ThreadLocal<>();
+	private final List<String> references = new ArrayList<>();
+	private JavaScriptReferenceScope parent;
+
+	/**
+	 * @return returns the innermost open scope of current thread or
+	 *         {@code NULL} if there is none.
+	 */
+	public static JavaScriptReferenceScope getCurrent() {
+		return CURRENT_SCOPE.get();
+	}
+
+	/**
+	 * This method adds the provided reference to the innermost open scope of
+	 * current thread. If no scope is open, nothing happens.
+	 *
+	 * @param reference
+	 *            reference of an in-page object
+	 */
+	public static void track(String reference) {
+		JavaScriptReferenceScope scope = CURRENT_SCOPE.get();
+		if (scope != null && reference != null) {
+			scope.references.add(reference);
+		}
+	}
+
+	/**
+	 * This method opens the scope for current thread.
+	 */
+	public void open() {
+		parent = CURRENT_SCOPE.get();
+		CURRENT_SCOPE.set(this);
+	}
+
+	/**
+	 * This method closes the scope for current thread, so the outer scope
+	 * becomes current again.
+	 *
+	 * @return returns the collected references.
+	 */
+	public List<String> close() {
+		if (parent != null) {
+			CURRENT_SCOPE.set(parent);
+		} else {
+			CURRENT_SCOPE.remove();
+		}
+		parent = null;
+		return getReferences();
+	}
+
+	/**
+	 * @return returns the references collected by this scope.
+	 */
+	public List<String> getReferences() {
+		return references;
+	}
+}
@@ -13,6 +13,8 @@ public class JavaScriptSource<T> {
 	private List<JavaScriptSource<?>> plugins;
 	private DetectionScript detectionScriptAnnotation;
 	private JavaScriptCallFunction jsCallFunction;
+	private JavaScriptInjectionPlan injectionPlan;
+	private JavaScriptFunctionRegistry functionRegistry;
 
 	public JavaScriptSource() {
 	}
@@ -94,4 +96,20 @@ public class JavaScriptSource<T> {
 		}
 		return plugins;
 	}
+
+	public JavaScriptInjectionPlan getInjectionPlan() {
+		return injectionPlan;
+	}
+
+	public void setInjectionPlan(JavaScriptInjectionPlan injectionPlan) {
+		this.injectionPlan = injectionPlan;
+	}
+
+	public JavaScriptFunctionRegistry getFunctionRegistry() {
+		return functionRegistry;
+	}
+
+	public void setFunctionRegistry(JavaScriptFunctionRegistry functionRegistry) {
+		this.functionRegistry = functionRegistry;
+	}
 }
@@ -1,7 +1,7 @@
 package org.markysoft.vani.core.javascript;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.BitSet;
+import java.util.List;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -16,6 +16,13 @@ import org.springframework.util.StringUtils;
  * This class is a wrapper for the using {@link JavascriptExecutor}. It prepares
  * the source, which is sent to the browser. This means that all dependencies,
  * js-interface's sources and plugins are concatenated if it's necessary.
+ * <p>
+ * Each injected source is marked by a token in the current document (see
+ * {@link JavaScriptInjectionPlan#INJECTION_STATE}). A call is sent guarded by
+ * this token first, so the detection scripts and the injection are only
+ * executed when the token is missing. This happens the first time in each
+ * document, e.g. after navigation.
+ * </p>
  * 
  * @author Thomas
  * @see JavaScriptCallFunction
@@ -26,6 +33,15 @@ import org.springframework.util.StringUtils;
 public class VaniJavaScriptExecutor implements JavascriptExecutor {
 	protected static final String BOUND_CALL = "return %s.apply(%s,arguments);";
 	protected static final String CALL = "try{%s}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+	protected static final String ASYNC_CALL = "try{%s}catch(ex){console.log('Failed to execute injected script: '+ex);arguments[arguments.length - 1]('@JS-ERROR: '+ex);}";
+	/** key returned by guarded scripts if source is not injected yet */
+	protected static final String NOT_INJECTED = "@JS-NOT-INJECTED";
+	protected static final String INJECTION_GUARD = "if(!window['" + JavaScriptInjectionPlan.INJECTION_STATE
+			+ "'] || !window['" + JavaScriptInjectionPlan.INJECTION_STATE + "']['%s']){return ['" + NOT_INJECTED
+			+ "'].concat(%s);}";
+	protected static final String ASYNC_INJECTION_GUARD = "if(!window['" + JavaScriptInjectionPlan.INJECTION_STATE
+			+ "'] || !window['" + JavaScriptInjectionPlan.INJECTION_STATE
+			+ "']['%s']){arguments[arguments.length - 1](['" + NOT_INJECTED + "'].concat(%s));return;}";
 	protected final Log logger = LogFactory.getLog(getClass());
 	protected JavascriptExecutor jsExecutor;
 	protected JavaScriptSource<?> jsSource;
@@ -37,12 +53,22 @@ public class VaniJavaScriptExecutor implements JavascriptExecutor {
 
 	@Override
 	public Object executeScript(String script, Object... args) {
-		return doExecute(prepareSource(script), args);
+		Object result = doExecute(guardSource(INJECTION_GUARD, script), args);
+		List<?> detections = getDetections(result);
+		if (detections != null) {
+			result = doExecute(prepareSource(script, detections), args);
+		}
+		return result;
 	}
 
 	@Override
 	public Object executeAsyncScript(String script, Object... args) {
-		return doExecuteAsync(prepareSource(script), args);
+		Object result = doExecuteAsync(guardSource(ASYNC_INJECTION_GUARD, script), args);
+		List<?> detections = getDetections(result);
+		if (detections != null) {
+			result = doExecuteAsync(prepareSource(script, detections), args);
+		}
+		return result;
 	}
 
 	/**
@@ -88,32 +114,115 @@ public class VaniJavaScriptExecutor implements JavascriptExecutor {
 	 * @return One of Boolean, Long, String, List or WebElement or custom type.
 	 *         Or null.
 	 * @see {@link VaniJavaScriptExecutor#CALL} for wrapping call source
+	 * @see JavaScriptFunctionRegistry
 	 */
 	public Object execute(String methodName, JavaScriptFunction jsFunctionAnnotation, Object... args) {
+		return executeCall(methodName, getInvocationSource(methodName, jsFunctionAnnotation), args);
+	}
+
+	/**
+	 * This method executes the provided call source of a js-interface method.
+	 * The source of the js-interface is injected if necessary.
+	 * 
+	 * @param methodName
+	 *            name of calling js-inteface method
+	 * @param callSource
+	 *            source calling the bound function (see
+	 *            {@link #getInvocationSource(String, JavaScriptFunction)})
+	 * @param args
+	 *            The arguments to the script. May be empty
+	 * @return One of Boolean, Long, String, List or WebElement or custom type.
+	 *         Or null.
+	 * @see #execute(String, JavaScriptFunction, Object...)
+	 */
+	public Object executeCall(String methodName, String callSource, Object... args) {
 		try {
-			String callSource = "";
-			if (StringUtils.isEmpty(jsFunctionAnnotation.value())) {
-				String funcName = "";
-				if (StringUtils.isEmpty(jsFunctionAnnotation.name())) {
-					funcName = methodName;
-				} else {
-					funcName = jsFunctionAnnotation.name();
-				}
-				callSource = getCallSource(funcName);
-			} else {
-				callSource = jsFunctionAnnotation.value();
+			Object result = doExecute(guardSource(INJECTION_GUARD, callSource), args);
+			List<?> detections = getDetections(result);
+			if (detections != null) {
+				result = doExecute(prepareSource(callSource, detections), args);
 			}
+			return result;
+		} catch (Exception ex) {
+			throw new JavaScriptException("Exception occurred during executing script bound to method '" + methodName
+					+ "' of interface '" + jsSource.getJsInterface() + "': " + ex.getMessage(), ex);
+		}
+	}
 
-			callSource = String.format(CALL, callSource);
-
-			String source = prepareSource(callSource);
-			return doExecute(source, args);
+	/**
+	 * This method executes the provided call source of an asynchronous
+	 * js-interface method (see {@link JavaScriptFunction#async()}). The source
+	 * of the js-interface is injected if necessary.
+	 * 
+	 * @param methodName
+	 *            name of calling js-inteface method
+	 * @param callSource
+	 *            source calling the bound function (see
+	 *            {@link #getInvocationSource(String, JavaScriptFunction)})
+	 * @param args
+	 *            The arguments to the script. May be empty
+	 * @return returns the value provided to the callback.
+	 * @see #executeCall(String, String, Object...)
+	 */
+	public Object executeAsyncCall(String methodName, String callSource, Object... args) {
+		try {
+			return executeAsyncScript(callSource, args);
 		} catch (Exception ex) {
 			throw new JavaScriptException("Exception occurred during executing script bound to method '" + methodName
 					+ "' of interface '" + jsSource.getJsInterface() + "': " + ex.getMessage(), ex);
 		}
 	}
 
+	/**
+	 * This method builds the source, which is sent to the browser to call the
+	 * function bound to a method of js-interface. If the js-interface is
+	 * registered by a {@link JavaScriptFunctionRegistry}, only the stub calling
+	 * the registered function will be returned.
+	 * 
+	 * @param methodName
+	 *            name of calling js-inteface method
+	 * @param jsFunctionAnnotation
+	 *            annotation of calling js-interface method
+	 * @return returns the source calling the bound function.
+	 */
+	public String getInvocationSource(String methodName, JavaScriptFunction jsFunctionAnnotation) {
+		String result = getFunctionSource(methodName, jsFunctionAnnotation);
+		JavaScriptFunctionRegistry functionRegistry = jsSource.getFunctionRegistry();
+		if (functionRegistry != null) {
+			result = functionRegistry.getCallSource(result);
+		}
+		return result;
+	}
+
+	/**
+	 * This method builds the source of the function bound to a method of
+	 * js-interface. It's wrapped by {@link #CALL} or {@link #ASYNC_CALL} for
+	 * asynchronous functions.
+	 * 
+	 * @param methodName
+	 *            name of calling js-inteface method
+	 * @param jsFunctionAnnotation
+	 *            annotation of calling js-interface method
+	 * @return returns the source, which will be executed to call the bound
+	 *         function.
+	 * @see JavaScriptFunctionRegistry
+	 */
+	public String getFunctionSource(String methodName, JavaScriptFunction jsFunctionAnnotation) {
+		String callSource = "";
+		if (StringUtils.isEmpty(jsFunctionAnnotation.value())) {
+			String funcName = "";
+			if (StringUtils.isEmpty(jsFunctionAnnotation.name())) {
+				funcName = methodName;
+			} else {
+				funcName = jsFunctionAnnotation.name();
+			}
+			callSource = getCallSource(funcName);
+		} else {
+			callSource = jsFunctionAnnotation.value();
+		}
+		return String.format(jsFunctionAnnotation.async() ? ASYNC_CALL : CALL, callSource);
+	}
+
 	/**
 	 * This method builds the call source. This will be used to call a function
 	 * of the associated source of js-interface. If the js-interface declares no
@@ -209,99 +318,110 @@ public class VaniJavaScriptExecutor implements JavascriptExecutor {
 	}
 
 	/**
-	 * This method will prepare source code, which will be sent to browser. The
-	 * result also includes the code of the corresponding js-interface inclusive
-	 * all dependencies and plugins, but only if it's necessary.
+	 * This method prepends the provided guard to specified source. The guard
+	 * checks whether the injection token of current js-interface is set in the
+	 * document. If not, it returns an array starting with {@link #NOT_INJECTED}
+	 * followed by the results of the detection probe (see
+	 * {@link JavaScriptInjectionPlan#getDetectionProbe()}). So the detection
+	 * scripts of all sources are evaluated in same round trip.
 	 * 
+	 * @param guard
+	 *            {@link #INJECTION_GUARD} or {@link #ASYNC_INJECTION_GUARD}
 	 * @param source
 	 *            source of bound function
-	 * @return returns the source code, which will be sent to browser.
-	 * @throws JavaScriptException
-	 *             will be thrown if an error occurred during checking whether
-	 *             script must be injected.
-	 * @see {@link VaniJavaScriptExecutor#appendSource(StringBuilder, JavaScriptSource, Set)}
+	 * @return returns the guarded source code, which will be sent to browser.
 	 */
-	protected String prepareSource(String source) throws JavaScriptException {
+	protected String guardSource(String guard, String source) {
 		StringBuilder sourceBuilder = new StringBuilder();
-
-		appendSource(sourceBuilder, jsSource, new HashSet<JavaScriptSource<?>>());
+		sourceBuilder.append(String.format(guard, getInjectionKey(jsSource), getInjectionPlan().getDetectionProbe()));
 		if (!StringUtils.isEmpty(source)) {
 			sourceBuilder.append(source);
 		}
-
 		return sourceBuilder.toString();
 	}
 
 	/**
-	 * This method resolves the source code for specified
-	 * {@link JavaScriptSource} and set it to provided {@link StringBuilder}.The
-	 * {@code builder} will contains following things at the end in this order:
-	 * <ul>
-	 * <li><b>dependencies</b>, which are not already available (see
-	 * {@link DetectionScript}) or already appended to the {@code builder}. If a
-	 * dependency also declares a dependency or plugin it will be handled in
-	 * same order.</li>
-	 * <li><b>source of js-interface</b> If source is already available (see
-	 * {@link DetectionScript}), it will be skipped.</li>
-	 * <li><b>plugin</b>, which are not already appended to the {@code builder}.
-	 * </li>
-	 * </ul>
+	 * This method checks whether provided result was returned by the injection
+	 * guard (see {@link #guardSource(String, String)}).
 	 * 
-	 * @param builder
-	 * @param jsSource
-	 * @param processingSources
-	 * @throws JavaScriptException
-	 *             will be thrown, when an error occurred during checking
-	 *             whether script is already available.
+	 * @param result
+	 *            result of the guarded script
+	 * @return returns the detection results of all sources in injection order,
+	 *         if the source is not injected yet. Else {@code NULL} will be
+	 *         returned.
 	 */
-	protected void appendSource(StringBuilder builder, JavaScriptSource<?> jsSource,
-			Set<JavaScriptSource<?>> processingSources) throws JavaScriptException {
-		if (jsSource != null && !processingSources.contains(jsSource)) {
-			processingSources.add(jsSource);
-			for (JavaScriptSource<?> dependency : jsSource.getDependencies()) {
-				appendSource(builder, dependency, processingSources);
-			}
-			boolean mustInject = false;
-			try {
-				mustInject = mustInject(jsSource);
-			} catch (Exception ex) {
-				throw new JavaScriptException("Cannot execute detection script: " + ex.getMessage(), ex);
-			}
-			if (mustInject) {
-				builder.append(jsSource.getSource());
-				builder.append("\n");
+	protected List<?> getDetections(Object result) {
+		if (result instanceof List) {
+			List<?> resultList = (List<?>) result;
+			if (!resultList.isEmpty() && NOT_INJECTED.equals(resultList.get(0))) {
+				return resultList.subList(1, resultList.size());
 			}
+		}
+		return null;
+	}
 
-			for (JavaScriptSource<?> plugin : jsSource.getPlugins()) {
-				appendSource(builder, plugin, processingSources);
+	/**
+	 * This method will prepare source code, which will be sent to browser. The
+	 * result also includes the code of the corresponding js-interface inclusive
+	 * all dependencies and plugins, but only if it's necessary (see
+	 * {@link DetectionScript}). After the sources, the injection tokens of all
+	 * sources are set.
+	 * <p>
+	 * The order of the sources and the bundles are taken from the
+	 * {@link JavaScriptInjectionPlan} of the js-interface. A source will be
+	 * skipped, if its detection result is true.
+	 * </p>
+	 * 
+	 * @param source
+	 *            source of bound function
+	 * @param detections
+	 *            results of the detection probe in injection order (see
+	 *            {@link #getDetections(Object)})
+	 * @return returns the source code, which will be sent to browser.
+	 * @see JavaScriptInjectionPlan
+	 */
+	protected String prepareSource(String source, List<?> detections) {
+		JavaScriptInjectionPlan plan = getInjectionPlan();
+		int count = plan.getSources().size();
+		BitSet injections = new BitSet(count);
+		for (int i = 0; i < count; i++) {
+			if (i >= detections.size() || !Boolean.TRUE.equals(detections.get(i))) {
+				injections.set(i);
 			}
 		}
+
+		String bundle = plan.getBundle(injections);
+		return StringUtils.isEmpty(source) ? bundle : bundle + source;
 	}
 
 	/**
-	 * This method checks whether provided {@link JavaScriptSource} declares a
-	 * detection script. If there is a detection script, it will be executed and
-	 * its return value will be inverted and returned.
+	 * This method returns the {@link JavaScriptInjectionPlan} of current
+	 * js-interface. If the source has no plan yet (e.g. it was not registered
+	 * by {@link org.markysoft.vani.core.VaniContext}), it will be created.
 	 * 
-	 * @param jsSource
-	 * @return returns true, if no detection script is available or the declared
-	 *         detection script returns false, else false will be returned
+	 * @return returns the plan of current {@link JavaScriptSource}
 	 */
-	protected boolean mustInject(JavaScriptSource<?> jsSource) {
-		boolean result = true;
-		DetectionScript detectionAnnotation = jsSource.getDetectionScriptAnnotation();
-		if (detectionAnnotation != null) {
-			String detectionScript = detectionAnnotation.value();
-			if (!StringUtils.isEmpty(detectionScript)) {
-				String statementPrefix = detectionAnnotation.autoReturn() ? "return " : "";
-				String statementPostfix = detectionAnnotation.autoReturn() ? ";" : "";
-				result = !((Boolean) doExecute(
-						String.format("%s%s%s", statementPrefix, detectionScript, statementPostfix)));
-			}
+	protected JavaScriptInjectionPlan getInjectionPlan() {
+		JavaScriptInjectionPlan result = jsSource.getInjectionPlan();
+		if (result == null) {
+			result = JavaScriptInjectionPlan.create(jsSource);
+			jsSource.setInjectionPlan(result);
 		}
 		return result;
 	}
 
+	/**
+	 * This method returns the key of the injection token for provided
+	 * {@link JavaScriptSource}.
+	 * 
+	 * @param jsSource
+	 * @return returns the class name of the js-interface or the name of the
+	 *         source if no interface is available.
+	 */
+	protected String getInjectionKey(JavaScriptSource<?> jsSource) {
+		return JavaScriptInjectionPlan.getInjectionKey(jsSource);
+	}
+
 	public JavascriptExecutor getWrappedExecutor() {
 		return jsExecutor;
 	}
@@ -1,5 +1,7 @@
 package org.markysoft.vani.core.javascript;
 
+import java.util.List;
+
 import org.markysoft.vani.core.annotation.DetectionScript;
 import org.markysoft.vani.core.annotation.JavaScript;
 import org.markysoft.vani.core.annotation.JavaScriptFunction;
@@ -10,7 +12,7 @@ public interface VaniUtils {
 	@JavaScriptFunction(name = "window.vani.uuid4")
 	String uuid4();
 
-	@DetectionScript("window.vani !== undefined")
+	@DetectionScript("window.vani !== undefined && window.vani.uuid4 !== undefined && window.vani.refs !== undefined && window.vani.dom !== undefined")
 	public boolean isAvailable();
 
 	/**
@@ -32,4 +34,49 @@ public interface VaniUtils {
 	 */
 	@JavaScriptFunction("window[arguments[0]]=arguments[1]")
 	<T> void set(String variableName, T value, WebDriver webDriver);
+
+	/**
+	 * This method removes the provided references from the in-page reference
+	 * store, so the referenced objects can be collected by the browser.
+	 * 
+	 * @param references
+	 *            values of {@link GlobalReferenceHolder#getReference()}
+	 * @param webDriver
+	 * @return returns the count of released references.
+	 */
+	@JavaScriptFunction(name = "window.vani.refs.release")
+	long releaseReferences(List<String> references, WebDriver webDriver);
+
+	/**
+	 * @param webDriver
+	 * @return returns the count of objects held by the in-page reference
+	 *         store.
+	 */
+	@JavaScriptFunction(name = "window.vani.refs.size")
+	long getReferenceCount(WebDriver webDriver);
+
+
+	/**
+	 * This method waits in the page until the marker of the previous document
+	 * is gone and the ready marker is set (see
+	 * {@link org.markysoft.vani.core.condition.Is#present(Object)}). If the
+	 * document is unloaded while waiting, the call fails and must be repeated
+	 * in the new document. The script timeout of the driver must be greater
+	 * than specified timeout.
+	 * 
+	 * @param previousMarker
+	 *            name of the variable marking the previous document
+	 * @param readyMarker
+	 *            name of the variable, which is set when the page is ready
+	 * @param timeoutInMillis
+	 *            maximum time to wait
+	 * @param intervalInMillis
+	 *            time between two checks
+	 * @param webDriver
+	 * @return returns true if the page is ready, else false when the timeout
+	 *         is exceeded.
+	 */
+	@JavaScriptFunction(name = "window.vani.awaitPageMarker", async = true)
+	boolean awaitPageMarker(String previousMarker, String readyMarker, long timeoutInMillis, long intervalInMillis,
+			WebDriver webDriver);
 }
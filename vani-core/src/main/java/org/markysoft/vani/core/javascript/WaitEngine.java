@@ -0,0 +1,78 @@
+package org.markysoft.vani.core.javascript;
+
+import java.util.List;
+import java.util.Map;
+
+import org.markysoft.vani.core.annotation.DetectionScript;
+import org.markysoft.vani.core.annotation.JavaScript;
+import org.markysoft.vani.core.annotation.JavaScriptDependency;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * This js-interface evaluates wait conditions in the page. The conditions are
+ * checked by the browser itself on each change of the document (observed by a
+ * {@code MutationObserver}) and in the provided interval. The call returns as
+ * soon as all of them are fulfilled, so a wait costs only one round trip
+ * instead of one per check.
+ * <p>
+ * Each condition is a map containing the target and the check:
+ * </p>
+ * <ul>
+ * <li><b>variable</b>: name of a global variable or</li>
+ * <li><b>ref</b>/<b>element</b>: referenced jquery object or element, the
+ * whole document is used if both are missing</li>
+ * <li><b>selector</b>: optional selector relative to the target element</li>
+ * <li><b>check</b>: {@code present}, {@code displayed}, {@code enabled},
+ * {@code selected}, {@code text} or {@code count}</li>
+ * <li><b>value</b>: expected text or minimum count</li>
+ * </ul>
+ * 
+ * @author Thomas
+ * @see org.markysoft.vani.core.wait.WaitBuilder
+ */
+@JavaScriptDependency(JQuery.class)
+@JavaScript(source = "classpath:vani-wait.js")
+public interface WaitEngine {
+
+	/**
+	 * This method waits in the page until all provided conditions are
+	 * fulfilled. The script timeout of the driver must be greater than
+	 * specified timeout.
+	 * 
+	 * @param conditions
+	 *            conditions, which must be fulfilled
+	 * @param timeout
+	 *            maximum time to wait (in millis)
+	 * @param interval
+	 *            time between two checks (in millis)
+	 * @param webDriver
+	 * @return returns true if the conditions are fulfilled, else false when the
+	 *         timeout is exceeded.
+	 */
+	@JavaScriptFunction(name = "window.vani.waitFor", async = true)
+	boolean waitFor(List<Map<String, Object>> conditions, long timeout, long interval, WebDriver webDriver);
+
+	/**
+	 * This method waits in the page until it is settled. This means the
+	 * document is loaded, no request is in flight (see {@link XhrTracking}),
+	 * no finite animation is running and the document was not changed for the
+	 * provided quiet time. The script timeout of the driver must be greater
+	 * than specified timeout.
+	 * 
+	 * @param quiet
+	 *            time without changes of the document (in millis)
+	 * @param timeout
+	 *            maximum time to wait (in millis)
+	 * @param interval
+	 *            time between two checks (in millis)
+	 * @param webDriver
+	 * @return returns the waited time in millis until the page was settled or
+	 *         {@code -1} if the timeout is exceeded.
+	 */
+	@JavaScriptFunction(name = "window.vani.waitForPageIdle", async = true)
+	long waitForPageIdle(long quiet, long timeout, long interval, WebDriver webDriver);
+
+	@DetectionScript("window.vani !== undefined && window.vani.waitFor !== undefined")
+	boolean isAvailable();
+}
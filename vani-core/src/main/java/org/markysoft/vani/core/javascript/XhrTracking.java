@@ -1,15 +1,121 @@
 package org.markysoft.vani.core.javascript;
 
+import java.util.List;
+import java.util.Map;
+
 import org.markysoft.vani.core.annotation.DetectionScript;
 import org.markysoft.vani.core.annotation.JavaScript;
 import org.markysoft.vani.core.annotation.JavaScriptFunction;
 import org.openqa.selenium.WebDriver;
 
+/**
+ * This js-interface tracks the requests of current page, which are started by
+ * {@code XMLHttpRequest} (including jquery ajax) or {@code fetch}. The requests
+ * are recorded in a ring buffer with configurable capacity (see
+ * {@code vani.javascript.xhrTrackingCapacity}), so only the latest requests
+ * are available.
+ * <p>
+ * Requests are only tracked after this js-interface is injected into current
+ * page. Earlier jquery requests are still considered by
+ * {@link #getActiveRequests(WebDriver)}. Jquery requests, which don't use
+ * {@code XMLHttpRequest} (jsonp and cross domain scripts), are tracked by the
+ * {@code ajaxSend} and {@code ajaxComplete} events of jquery. A {@code fetch}
+ * is completed when its body is read, not when the headers arrive.
+ * </p>
+ * <p>
+ * Requests, which never end (e.g. long polling or streaming), would keep the
+ * page busy until each wait for idle requests times out. Their url patterns
+ * can be excluded from the count of requests in flight by
+ * {@code vani.javascript.xhrIdleExclusions} (comma separated regular
+ * expressions). They are still recorded, so
+ * {@link org.markysoft.vani.core.annotation.Xhr} can wait for them.
+ * </p>
+ * 
+ * @author Thomas
+ *
+ */
 @JavaScript(source = "classpath:jquery-xhr-tracking.js")
 public interface XhrTracking {
 	@JavaScriptFunction(name = "window.vani.xhrTracking.hasRequestFor")
 	boolean hasRequestFor(String url, long startInMillis, WebDriver webDriver);
 
+	/**
+	 * This method returns the requests, which are started after the provided
+	 * sequence number and start time. So new requests can be fetched
+	 * incrementally by passing the highest sequence of the previous result.
+	 * 
+	 * @param sinceSequence
+	 *            sequence of last known request or {@code 0}. If the sequence
+	 *            is unknown by current page, it is ignored.
+	 * @param startInMillis
+	 *            only requests started after this timestamp are returned
+	 * @param webDriver
+	 * @return returns one map per request containing {@code sequence},
+	 *         {@code url}, {@code method}, {@code type} ({@code xhr},
+	 *         {@code fetch} or {@code script}), {@code timestamp},
+	 *         {@code completed} (timestamp of completion or {@code NULL} if in
+	 *         flight) and {@code excluded} (true if the request is not counted
+	 *         as in flight), ordered by sequence.
+	 */
+	@JavaScriptFunction(name = "window.vani.xhrTracking.getRequests")
+	List<Map<String, Object>> getRequests(long sinceSequence, long startInMillis, WebDriver webDriver);
+
+	/**
+	 * @param webDriver
+	 * @return returns the sequence of the latest recorded request or
+	 *         {@code 0}.
+	 */
+	@JavaScriptFunction(name = "window.vani.xhrTracking.getSequence")
+	long getSequence(WebDriver webDriver);
+
+	/**
+	 * @param webDriver
+	 * @return returns the count of requests in flight without the ones
+	 *         matching {@code vani.javascript.xhrIdleExclusions}.
+	 */
+	@JavaScriptFunction(name = "window.vani.xhrTracking.getActive")
+	long getActiveRequests(WebDriver webDriver);
+
+	/**
+	 * This method waits in the page until no request is in flight (see
+	 * {@link #getActiveRequests(WebDriver)}). The page is notified by the
+	 * tracking and by the {@code ajaxStop} event of jquery, so no round trip
+	 * per check is necessary. The script timeout of the driver must be greater
+	 * than specified timeout.
+	 * 
+	 * @param timeoutInMillis
+	 *            maximum time to wait
+	 * @param webDriver
+	 * @return returns the waited time in millis until the page was idle or
+	 *         {@code -1} if the timeout is exceeded.
+	 */
+	@JavaScriptFunction(name = "window.vani.xhrTracking.awaitIdle", async = true)
+	long awaitIdle(long timeoutInMillis, WebDriver webDriver);
+
+	/**
+	 * This method waits in the page until a matching request, which is started
+	 * after the provided sequence number and start time, is completed. The
+	 * call returns after the handlers of the page for the response are
+	 * executed. The script timeout of the driver must be greater than
+	 * specified timeout.
+	 * 
+	 * @param url
+	 *            url pattern of the request
+	 * @param sinceSequence
+	 *            sequence of last known request (see
+	 *            {@link #getSequence(WebDriver)})
+	 * @param startInMillis
+	 *            only requests started after this timestamp are considered
+	 * @param timeoutInMillis
+	 *            maximum time to wait
+	 * @param webDriver
+	 * @return returns true if a matching request is completed, else false when
+	 *         the timeout is exceeded.
+	 */
+	@JavaScriptFunction(name = "window.vani.xhrTracking.awaitCompletion", async = true)
+	boolean awaitCompletion(String url, long sinceSequence, long startInMillis, long timeoutInMillis,
+			WebDriver webDriver);
+
 	@DetectionScript("window.vani !== undefined && window.vani.xhrTracking !== undefined")
 	public boolean isAvailable();
 
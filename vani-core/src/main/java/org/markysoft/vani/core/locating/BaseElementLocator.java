@@ -7,6 +7,7 @@ import org.apache.commons.logging.LogFactory;
 import org.markysoft.vani.core.VaniContext;
 import org.markysoft.vani.core.annotation.AjaxWait;
 import org.markysoft.vani.core.annotation.ContentWait;
+import org.markysoft.vani.core.javascript.DomGeneration;
 import org.markysoft.vani.core.util.FieldTypeInfo;
 import org.markysoft.vani.core.util.VaniReflectionUtil;
 import org.markysoft.vani.core.wait.WaitUtil;
@@ -26,6 +27,12 @@ public abstract class BaseElementLocator<T> implements VaniElementLocator<T> {
 	protected VaniContext vaniContext;
 	protected WaitUtil waitUtil;
 	protected VaniReflectionUtil reflectionUtil;
+	/** generation of the document, when the cached elements were located */
+	protected String cacheGeneration;
+	protected ContentWait contentWait;
+	protected String contentWaitSelector;
+	protected String contentWaitCondition;
+	private boolean contentWaitResolved;
 
 	/**
 	 * Creates a new element locator.
@@ -52,18 +59,17 @@ public abstract class BaseElementLocator<T> implements VaniElementLocator<T> {
 	public abstract List<T> findElements();
 
 	/**
-	 * This method will execute configured content waits.
+	 * This method will execute configured content waits. The selector and
+	 * condition of the {@link ContentWait} are only resolved at first call.
 	 * 
 	 * @see ContentWait
 	 * @see AjaxWait
 	 */
 	protected void executeContentWait() {
-		ContentWait contentWait = fieldTypeInfo.getContentWait();
+		resolveContentWait();
 		if (contentWait != null) {
-			String selector = vaniContext.resolveExpression(contentWait.value());
-			String condition = vaniContext.resolveExpression(contentWait.condition());
-			waitUtil.element(selector, getRootElement()).spel(condition).until(contentWait.timeout(),
-					contentWait.pollingTime(), getWebDriver());
+			waitUtil.element(contentWaitSelector, getRootElement()).spel(contentWaitCondition)
+					.until(contentWait.timeout(), contentWait.pollingTime(), getWebDriver());
 		}
 		AjaxWait ajaxWait = fieldTypeInfo.getAjaxWait();
 		if (ajaxWait != null) {
@@ -71,6 +77,23 @@ public abstract class BaseElementLocator<T> implements VaniElementLocator<T> {
 		}
 	}
 
+	/**
+	 * This method looks up the {@link ContentWait} of the field and resolves
+	 * its selector and condition. It's only done once per locator, because
+	 * they don't change between the accesses of the field.
+	 */
+	protected void resolveContentWait() {
+		if (contentWaitResolved) {
+			return;
+		}
+		contentWait = fieldTypeInfo.getContentWait();
+		if (contentWait != null) {
+			contentWaitSelector = vaniContext.resolveExpression(contentWait.value());
+			contentWaitCondition = vaniContext.resolveExpression(contentWait.condition());
+		}
+		contentWaitResolved = true;
+	}
+
 	protected SearchContext getRootElement() {
 		return searchContext;
 	}
@@ -81,8 +104,9 @@ public abstract class BaseElementLocator<T> implements VaniElementLocator<T> {
 	 * <p>
 	 * If {@code searchContext} is a {@link WebDriver} instance, it will be
 	 * returned. If not it will check whether {@code searchContext} is an
-	 * instance of {@link RemoteWebElement} and use
-	 * {@link RemoteWebElement#getWrappedDriver()} to get it.
+	 * instance of {@link RemoteWebElement} or {@link JQueryElement} and use
+	 * {@link RemoteWebElement#getWrappedDriver()} or
+	 * {@link JQueryElement#getWebDriver()} to get it.
 	 * </p>
 	 * 
 	 * @return returns corresponding {@link WebDriver} instance if availabel or
@@ -93,19 +117,88 @@ public abstract class BaseElementLocator<T> implements VaniElementLocator<T> {
 			return (WebDriver) searchContext;
 		} else if (RemoteWebElement.class.isAssignableFrom(searchContext.getClass())) {
 			return ((RemoteWebElement) searchContext).getWrappedDriver();
+		} else if (searchContext instanceof JQueryElement) {
+			return ((JQueryElement) searchContext).getWebDriver();
 		}
 		return null;
 	}
 
+	/**
+	 * @return returns the element, which is located by this locator within
+	 *         the open {@link LookupScope}, or {@code NULL} if there is no
+	 *         scope or element.
+	 */
+	protected T getScopedElement() {
+		LookupScope scope = LookupScope.getCurrent();
+		return scope != null && !isBeanInvalidated() ? scope.get(this) : null;
+	}
+
+	/**
+	 * This method stores provided element in the open {@link LookupScope}, so
+	 * it's reused by the following accesses within the scope.
+	 * 
+	 * @param element
+	 */
+	protected void setScopedElement(T element) {
+		LookupScope scope = LookupScope.getCurrent();
+		if (scope != null) {
+			scope.put(this, element);
+		}
+	}
+
+	/**
+	 * @return returns the list of elements, which is located by this locator
+	 *         within the open {@link LookupScope}, or {@code NULL} if there is
+	 *         no scope or list.
+	 */
+	protected List<T> getScopedElements() {
+		LookupScope scope = LookupScope.getCurrent();
+		return scope != null && !isBeanInvalidated() ? scope.getList(this) : null;
+	}
+
+	/**
+	 * This method stores provided list of elements in the open
+	 * {@link LookupScope}, so it's reused by the following accesses within
+	 * the scope.
+	 * 
+	 * @param elements
+	 */
+	protected void setScopedElements(List<T> elements) {
+		LookupScope scope = LookupScope.getCurrent();
+		if (scope != null) {
+			scope.putList(this, elements);
+		}
+	}
+
 	/**
 	 * This method will check whether {@code invalidated}-flag is set on
-	 * corresponding bean instance.
+	 * corresponding bean instance. If the validation of the cache is enabled
+	 * ({@code vani.locator.validateCache}), it also checks whether the
+	 * document was changed since the cached elements were located. No script
+	 * is executed for it, but the latest generation of the document reported
+	 * by the jquery calls of the driver is compared (see
+	 * {@link DomGeneration}). So a change is noticed with the next jquery call
+	 * after it.
 	 * 
 	 * @return returns true if underlying bean instance is marked as
-	 *         {@code invalidated} or false if bean instance is not a
-	 *         {@link RegionObject} or marked as {@code invalidated}
+	 *         {@code invalidated} or the document was changed, else false
 	 */
 	protected boolean mustRelocateCachedElements() {
+		boolean result = isBeanInvalidated();
+		if (!result && vaniContext.isCacheValidationEnabled()) {
+			String generation = DomGeneration.get(getWebDriver());
+			result = generation != null && !generation.equals(cacheGeneration);
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return returns true if underlying bean instance is marked as
+	 *         {@code invalidated} or false if bean instance is not a
+	 *         {@link RegionObject} or not marked as {@code invalidated}
+	 */
+	protected boolean isBeanInvalidated() {
 		boolean result = false;
 		if (fieldTypeInfo.getBean() instanceof RegionObject) {
 			result = ((RegionObject) fieldTypeInfo.getBean()).isInvalidated();
@@ -113,4 +206,16 @@ public abstract class BaseElementLocator<T> implements VaniElementLocator<T> {
 
 		return result;
 	}
+
+	/**
+	 * This method must be called after elements are located, which will be
+	 * cached. It remembers the generation of the document, which is reported
+	 * together with the located elements, if the validation of the cache is
+	 * enabled. So no additional call is necessary.
+	 */
+	protected void rememberGeneration() {
+		if (vaniContext.isCacheValidationEnabled()) {
+			cacheGeneration = DomGeneration.get(getWebDriver());
+		}
+	}
 }
@@ -1,8 +1,12 @@
 package org.markysoft.vani.core.locating;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.markysoft.vani.core.javascript.GlobalReferenceHolder;
 import org.markysoft.vani.core.javascript.JQuery;
@@ -34,24 +38,46 @@ public class JQueryElement implements WebElement, GlobalReferenceHolder {
 		this.length = jquery.objectAttribute(this, "length", webDriver);
 	}
 
-	public JQueryElement(JQuery jquery, WebDriver webDriver, WebElement webElement) {
+	/**
+	 * This constructor creates the element from the descriptor returned by the
+	 * call function of {@link JQuery}. So no further round trips are
+	 * necessary to fetch the selector and length of the jquery object.
+	 * 
+	 * @param jquery
+	 * @param webDriver
+	 * @param ref
+	 *            cache reference of the jquery object
+	 * @param selector
+	 *            selector of the jquery object
+	 * @param length
+	 *            count of matching elements
+	 */
+	public JQueryElement(JQuery jquery, WebDriver webDriver, String ref, String selector, long length) {
 		this.jquery = jquery;
 		this.webDriver = webDriver;
+		this.reference = ref;
+		this.selector = selector;
+		this.length = length;
+	}
 
-		this.reference = jquery.find(null, webElement).reference;
+	public JQueryElement(JQuery jquery, WebDriver webDriver, WebElement webElement) {
+		this.jquery = jquery;
+		this.webDriver = webDriver;
 
-		this.selector = jquery.objectAttribute(this, "selector", webDriver);
-		this.length = jquery.objectAttribute(this, "length", webDriver);
+		JQueryElement found = jquery.find(null, webElement);
+		this.reference = found.reference;
+		this.selector = found.selector;
+		this.length = found.length;
 	}
 
 	public JQueryElement(JQuery jquery, WebDriver webDriver, List<WebElement> webElements) {
 		this.jquery = jquery;
 		this.webDriver = webDriver;
 
-		this.reference = jquery.find(null, webElements).reference;
-
-		this.selector = jquery.objectAttribute(this, "selector", webDriver);
-		this.length = jquery.objectAttribute(this, "length", webDriver);
+		JQueryElement found = jquery.find(null, webElements);
+		this.reference = found.reference;
+		this.selector = found.selector;
+		this.length = found.length;
 	}
 
 	/**
@@ -186,15 +212,25 @@ public class JQueryElement implements WebElement, GlobalReferenceHolder {
 		return result;
 	}
 
+	/**
+	 * This method reads width and height of first wrapped element in one
+	 * call.
+	 */
 	@Override
 	public Dimension getSize() {
-		Dimension result = new Dimension((int) width(), (int) height());
+		Map<String, Object> values = extractFirst("width", "height");
+		Dimension result = toDimension(values);
 		return result;
 	}
 
+	/**
+	 * This method reads offset, width and height of first wrapped element in
+	 * one call.
+	 */
 	@Override
 	public Rectangle getRect() {
-		Rectangle result = new Rectangle(getLocation(), getSize());
+		Map<String, Object> values = extractFirst("offset", "width", "height");
+		Rectangle result = new Rectangle(toPoint(values), toDimension(values));
 		return result;
 	}
 
@@ -320,8 +356,78 @@ public class JQueryElement implements WebElement, GlobalReferenceHolder {
 		return jquery.height(this, webDriver);
 	}
 
+	/**
+	 * @return returns the coordinates of first wrapped element relative to the
+	 *         document or {@code NULL} if there are no wrapped elements.
+	 */
 	public Point offset() {
-		return null; // TODO: check what selenium returns for offset()
+		return toPoint(extractFirst("offset"));
+	}
+
+	/**
+	 * This method reads the provided properties of all wrapped elements in a
+	 * single call.
+	 * 
+	 * @param properties
+	 *            properties to read, which are also used as keys (see
+	 *            {@link JQueryProjection})
+	 * @return returns one map per wrapped element.
+	 */
+	public List<Map<String, Object>> extract(String... properties) {
+		return extract(JQueryProjection.of(properties));
+	}
+
+	/**
+	 * This method reads the declared columns of all wrapped elements in a
+	 * single call. So reading a table doesn't cost one round trip per cell.
+	 * 
+	 * @param projection
+	 *            columns to read
+	 * @return returns one map per wrapped element, which contains the column
+	 *         names and the read values.
+	 */
+	public List<Map<String, Object>> extract(JQueryProjection projection) {
+		List<Map<String, Object>> result = jquery.extract(this, projection.getColumns(), webDriver);
+		return result != null ? result : Collections.emptyList();
+	}
+
+	/**
+	 * This method reads the declared columns of all wrapped elements in a
+	 * single call and maps each row by provided mapper.
+	 * 
+	 * @param projection
+	 *            columns to read
+	 * @param mapper
+	 *            function converting a row to the target type
+	 * @return returns the mapped rows.
+	 */
+	public <T> List<T> extract(JQueryProjection projection, Function<Map<String, Object>, T> mapper) {
+		return extract(projection).stream().map(mapper).collect(Collectors.toList());
+	}
+
+	private Map<String, Object> extractFirst(String... properties) {
+		List<Map<String, Object>> rows = query().first().extract(JQueryProjection.of(properties));
+		return rows.isEmpty() ? null : rows.get(0);
+	}
+
+	private static Point toPoint(Map<String, Object> values) {
+		Object offset = values != null ? values.get("offset") : null;
+		if (!(offset instanceof Map)) {
+			return null;
+		}
+		Map<?, ?> coordinates = (Map<?, ?>) offset;
+		return new Point(toInt(coordinates.get("left")), toInt(coordinates.get("top")));
+	}
+
+	private static Dimension toDimension(Map<String, Object> values) {
+		if (values == null) {
+			return new Dimension(0, 0);
+		}
+		return new Dimension(toInt(values.get("width")), toInt(values.get("height")));
+	}
+
+	private static int toInt(Object value) {
+		return value instanceof Number ? ((Number) value).intValue() : 0;
 	}
 
 	public void each(Consumer<JQueryElement> consumer) {
@@ -363,6 +469,29 @@ public class JQueryElement implements WebElement, GlobalReferenceHolder {
 		return jquery.first(this, webDriver);
 	}
 
+	/**
+	 * This method creates a lazy {@link JQueryPipeline} starting at this
+	 * element. The traversal steps are sent to the browser together with the
+	 * terminal operation, e.g.
+	 * {@code element.query().find("tr").last().find("td").text()}.
+	 * 
+	 * @return returns new pipeline starting at this element.
+	 */
+	public JQueryPipeline query() {
+		return new JQueryPipeline(jquery, webDriver, this);
+	}
+
+	/**
+	 * This method releases the wrapped jquery object in the browser. After
+	 * that, this element cannot be used any more.
+	 * 
+	 * @return returns true if the reference was released or false if it was
+	 *         already released or evicted.
+	 */
+	public boolean release() {
+		return jquery.release(this, webDriver) > 0;
+	}
+
 	/**
 	 * @return returns the associated webDriver instance.
 	 */
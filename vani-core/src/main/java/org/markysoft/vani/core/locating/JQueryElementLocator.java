@@ -29,6 +29,10 @@ public class JQueryElementLocator extends BaseElementLocator<JQueryElement> {
 		if (cachedElement != null && shouldCache && !mustRelocateCachedElements()) {
 			return cachedElement;
 		}
+		JQueryElement scopedElement = getScopedElement();
+		if (scopedElement != null) {
+			return scopedElement;
+		}
 
 		if (logger.isDebugEnabled()) {
 			logger.debug("=========> getting jquery element BY\n\t'" + by + "' ON searchContext " + searchContext);
@@ -42,6 +46,9 @@ public class JQueryElementLocator extends BaseElementLocator<JQueryElement> {
 		}
 		if (shouldCache) {
 			cachedElement = result;
+			rememberGeneration();
+		} else {
+			setScopedElement(result);
 		}
 
 		return result;
@@ -49,6 +56,12 @@ public class JQueryElementLocator extends BaseElementLocator<JQueryElement> {
 
 	@Override
 	public List<JQueryElement> findElements() {
+		if (!shouldCache) {
+			List<JQueryElement> scopedElements = getScopedElements();
+			if (scopedElements != null) {
+				return scopedElements;
+			}
+		}
 		if (cachedElementList != null && !mustRelocateCachedElements()) {
 			return cachedElementList;
 		}
@@ -64,6 +77,10 @@ public class JQueryElementLocator extends BaseElementLocator<JQueryElement> {
 			elements = Arrays.asList(((JQueryElement) searchContext).find(resolveSelector()));
 		}
 		cachedElementList = elements;
+		rememberGeneration();
+		if (!shouldCache) {
+			setScopedElements(elements);
+		}
 
 		return elements;
 	}
@@ -0,0 +1,206 @@
+package org.markysoft.vani.core.locating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.markysoft.vani.core.javascript.GlobalReferenceHolder;
+import org.markysoft.vani.core.javascript.JQuery;
+import org.markysoft.vani.core.javascript.JQueryPipelinePlugin;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+/**
+ * This class records jquery traversal steps without calling the browser. The
+ * steps are sent as one script, when a terminal operation (e.g.
+ * {@link #text()}, {@link #attr(String)}, {@link #length()} or
+ * {@link #extract(JQueryProjection)}) is called. So a
+ * chain like
+ *
+ * <pre>
+ * <code>
+ * String text = element.query().find("tr").last().find("td").text();
+ * </code>
+ * </pre>
+ *
+ * costs only one round trip instead of one per step.
+ * <p>
+ * A pipeline is immutable, each step returns a new instance. So a pipeline can
+ * be reused for several terminal operations.
+ * </p>
+ *
+ * @author Thomas
+ * @see JQueryPipelinePlugin
+ */
+public class JQueryPipeline {
+	private final JQuery jquery;
+	private final WebDriver webDriver;
+	private final GlobalReferenceHolder root;
+	private final List<List<Object>> steps;
+
+	/**
+	 * @param jquery
+	 * @param webDriver
+	 *            driver, which is used for execution. If it is {@code NULL},
+	 *            the default driver is used.
+	 * @param root
+	 *            start of the pipeline or {@code NULL} for the whole document
+	 */
+	public JQueryPipeline(JQuery jquery, WebDriver webDriver, GlobalReferenceHolder root) {
+		this.jquery = jquery;
+		this.webDriver = webDriver;
+		this.root = root;
+		this.steps = Collections.emptyList();
+	}
+
+	private JQueryPipeline(JQueryPipeline previous, String function, Object... args) {
+		this.jquery = previous.jquery;
+		this.webDriver = previous.webDriver;
+		this.root = previous.root;
+		List<List<Object>> newSteps = new ArrayList<>(previous.steps.size() + 1);
+		newSteps.addAll(previous.steps);
+		newSteps.add(Arrays.asList(function, Arrays.asList(args)));
+		this.steps = Collections.unmodifiableList(newSteps);
+	}
+
+	public JQueryPipeline find(String selector) {
+		return new JQueryPipeline(this, "find", selector);
+	}
+
+	public JQueryPipeline first() {
+		return new JQueryPipeline(this, "first");
+	}
+
+	public JQueryPipeline last() {
+		return new JQueryPipeline(this, "last");
+	}
+
+	public JQueryPipeline prev(String selector) {
+		return new JQueryPipeline(this, "prev", selector);
+	}
+
+	public JQueryPipeline filter(String selector) {
+		return new JQueryPipeline(this, "filter", selector);
+	}
+
+	/**
+	 * @param index
+	 *            index of the element. A negative index counts backwards from
+	 *            the last element.
+	 * @return returns new pipeline reducing the matched elements to the one at
+	 *         the specified index.
+	 */
+	public JQueryPipeline eq(int index) {
+		return new JQueryPipeline(this, "eq", index);
+	}
+
+	/**
+	 * @return returns the combined text contents of each matched element.
+	 * @see JQueryElement#text()
+	 */
+	public String text() {
+		return terminal("text");
+	}
+
+	/**
+	 * @param name
+	 * @return returns value of specified attribute of first matched element or
+	 *         {@code NULL} if not set or nothing matches.
+	 * @see JQueryElement#attr(String)
+	 */
+	public String attr(String name) {
+		return terminal("attr", name);
+	}
+
+	/**
+	 * @param expr
+	 * @return returns true if the selector is applicable for at least one
+	 *         matched element.
+	 * @see JQueryElement#is(String)
+	 */
+	public boolean is(String expr) {
+		Boolean result = terminal("is", expr);
+		return Boolean.TRUE.equals(result);
+	}
+
+	/**
+	 * @return returns the count of matched elements.
+	 */
+	public long length() {
+		Number result = terminal("length");
+		return result != null ? result.longValue() : 0;
+	}
+
+	/**
+	 * @return returns all matched elements.
+	 */
+	public List<WebElement> get() {
+		return terminal("get");
+	}
+
+	/**
+	 * @param index
+	 * @return returns the matched element at specified index or {@code NULL}
+	 *         if there is none.
+	 */
+	public WebElement get(int index) {
+		return terminal("get", index);
+	}
+
+	/**
+	 * @param projection
+	 *            columns to read
+	 * @return returns one map per matched element, which contains the column
+	 *         names and the read values.
+	 * @see JQueryElement#extract(JQueryProjection)
+	 */
+	public List<Map<String, Object>> extract(JQueryProjection projection) {
+		List<Map<String, Object>> result = terminal("vaniExtract", projection.getColumns());
+		return result != null ? result : Collections.emptyList();
+	}
+
+	/**
+	 * This method clicks the first matched element. Like
+	 * {@link JQueryElement#click()}, the click is done by the driver.
+	 */
+	public void click() {
+		WebElement first = get(0);
+		if (first != null) {
+			first.click();
+		}
+	}
+
+	/**
+	 * This method executes the recorded steps and wraps the resulting jquery
+	 * object.
+	 *
+	 * @return returns the resulting jquery object.
+	 */
+	public JQueryElement element() {
+		return jquery.pipelineElement(root, steps, webDriver);
+	}
+
+	private <T> T terminal(String function, Object... args) {
+		return jquery.pipeline(root, steps, function, Arrays.asList(args), webDriver);
+	}
+
+	/**
+	 * @return returns the recorded steps. Each step contains the jquery
+	 *         function name and the list of its arguments.
+	 */
+	public List<List<Object>> getSteps() {
+		return steps;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("JQueryPipeline[");
+		builder.append(root != null ? root.getReference() : "document");
+		for (List<Object> step : steps) {
+			builder.append(".").append(step.get(0)).append(step.get(1));
+		}
+		return builder.append("]").toString();
+	}
+}
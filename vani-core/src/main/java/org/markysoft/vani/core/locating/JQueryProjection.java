@@ -0,0 +1,87 @@
+package org.markysoft.vani.core.locating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.markysoft.vani.core.javascript.JQueryExtractPlugin;
+
+/**
+ * This class declares the columns, which are read from all matched elements of
+ * a {@link JQueryElement} in a single call. For example, a result table can be
+ * read by:
+ *
+ * <pre>
+ * <code>
+ * List&lt;Map&lt;String, Object&gt;&gt; rows = table.find("tr").extract(new JQueryProjection()
+ * 		.column("name", "td.name", "text")
+ * 		.column("link", "a", "attr:href"));
+ * </code>
+ * </pre>
+ * <p>
+ * A property is the name of a jquery getter without arguments (e.g.
+ * {@code text}, {@code html}, {@code val}, {@code width}, {@code height}) or
+ * {@code offset}. Getters with one argument are declared by
+ * {@code function:argument}, e.g. {@code attr:href}, {@code prop:checked},
+ * {@code css:color} or {@code data:id}.
+ * </p>
+ *
+ * @author Thomas
+ * @see JQueryExtractPlugin
+ */
+public class JQueryProjection {
+	private final List<List<String>> columns = new ArrayList<>();
+
+	/**
+	 * @param properties
+	 *            properties of the matched elements, which are also used as
+	 *            column names
+	 * @return returns new projection reading the provided properties.
+	 */
+	public static JQueryProjection of(String... properties) {
+		JQueryProjection result = new JQueryProjection();
+		for (String property : properties) {
+			result.column(property, property);
+		}
+		return result;
+	}
+
+	/**
+	 * This method adds a column reading the property of the matched element
+	 * itself.
+	 * 
+	 * @param name
+	 *            name of the column
+	 * @param property
+	 * @return returns this projection.
+	 */
+	public JQueryProjection column(String name, String property) {
+		return column(name, null, property);
+	}
+
+	/**
+	 * This method adds a column reading the property of the first element
+	 * matching the provided selector within the matched element. If nothing
+	 * matches, the value will be {@code NULL}.
+	 * 
+	 * @param name
+	 *            name of the column
+	 * @param selector
+	 *            selector relative to the matched element or {@code NULL}
+	 * @param property
+	 * @return returns this projection.
+	 */
+	public JQueryProjection column(String name, String selector, String property) {
+		columns.add(Arrays.asList(name, selector, property));
+		return this;
+	}
+
+	/**
+	 * @return returns the declared columns. Each column contains the name, the
+	 *         relative selector and the property.
+	 */
+	public List<List<String>> getColumns() {
+		return Collections.unmodifiableList(columns);
+	}
+}
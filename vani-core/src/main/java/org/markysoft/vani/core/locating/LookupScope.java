@@ -0,0 +1,147 @@
+package org.markysoft.vani.core.locating;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class collects the elements, which are located while the scope is
+ * open in current thread. A field without {@link org.openqa.selenium.support.CacheLookup}
+ * is located again on each access, but within a scope the result of the first
+ * lookup is reused (see {@link BaseElementLocator}). This applies to single
+ * elements and to lists of elements. So a sequence like
+ *
+ * <pre>
+ * <code>
+ * vaniContext.lookupScope(() -&gt; {
+ * 	input.clear();
+ * 	input.sendKeys(value);
+ * 	input.getAttribute("value");
+ * });
+ * </code>
+ * </pre>
+ *
+ * locates the element and executes its content wait only once.
+ * <p>
+ * Scopes can be nested. The elements of outer scopes are also reused. When
+ * the browser navigates to another page (e.g. by {@link PageObject#to()}), the
+ * elements of all open scopes are dropped by {@link #invalidateCurrent()}.
+ * Navigations, which are caused by the page itself (e.g. clicking a link),
+ * cannot be detected, so the scope should not span them.
+ * </p>
+ *
+ * @author Thomas
+ * @see org.markysoft.vani.core.VaniContext#lookupScope(Runnable)
+ */
+public class LookupScope {
+	private static final ThreadLocal<LookupScope> CURRENT_SCOPE = new ThreadLocal<>();
+	private final Map<Object, Object> elements = new IdentityHashMap<>();
+	private final Map<Object, List<?>> elementLists = new IdentityHashMap<>();
+	private LookupScope parent;
+
+	/**
+	 * @return returns the innermost open scope of current thread or
+	 *         {@code NULL} if there is none.
+	 */
+	public static LookupScope getCurrent() {
+		return CURRENT_SCOPE.get();
+	}
+
+	/**
+	 * This method drops the elements of all open scopes of current thread,
+	 * e.g. after a navigation.
+	 */
+	public static void invalidateCurrent() {
+		for (LookupScope scope = CURRENT_SCOPE.get(); scope != null; scope = scope.parent) {
+			scope.elements.clear();
+			scope.elementLists.clear();
+		}
+	}
+
+	/**
+	 * This method opens the scope for current thread.
+	 */
+	public void open() {
+		parent = CURRENT_SCOPE.get();
+		CURRENT_SCOPE.set(this);
+	}
+
+	/**
+	 * This method closes the scope for current thread, so the outer scope
+	 * becomes current again. The collected elements are dropped.
+	 */
+	public void close() {
+		if (parent != null) {
+			CURRENT_SCOPE.set(parent);
+		} else {
+			CURRENT_SCOPE.remove();
+		}
+		parent = null;
+		elements.clear();
+		elementLists.clear();
+	}
+
+	/**
+	 * @param locator
+	 * @return returns the element located by provided locator within this or
+	 *         an outer scope or {@code NULL} if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(VaniElementLocator<T> locator) {
+		for (LookupScope scope = this; scope != null; scope = scope.parent) {
+			Object result = scope.elements.get(locator);
+			if (result != null) {
+				return (T) result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This method stores the element located by provided locator.
+	 *
+	 * @param locator
+	 * @param element
+	 */
+	public <T> void put(VaniElementLocator<T> locator, T element) {
+		if (element != null) {
+			elements.put(locator, element);
+		}
+	}
+
+	/**
+	 * @param locator
+	 * @return returns the list of elements located by provided locator within
+	 *         this or an outer scope or {@code NULL} if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> List<T> getList(VaniElementLocator<T> locator) {
+		for (LookupScope scope = this; scope != null; scope = scope.parent) {
+			List<?> result = scope.elementLists.get(locator);
+			if (result != null) {
+				return (List<T>) result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * This method stores the list of elements located by provided locator.
+	 *
+	 * @param locator
+	 * @param elements
+	 */
+	public <T> void putList(VaniElementLocator<T> locator, List<T> elements) {
+		if (elements != null) {
+			elementLists.put(locator, elements);
+		}
+	}
+
+	/**
+	 * @return returns the count of elements and lists collected by this
+	 *         scope.
+	 */
+	public int size() {
+		return elements.size() + elementLists.size();
+	}
+}
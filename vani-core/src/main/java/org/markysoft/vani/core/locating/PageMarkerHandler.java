@@ -1,19 +1,46 @@
 package org.markysoft.vani.core.locating;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.markysoft.vani.core.VaniContext;
 import org.markysoft.vani.core.condition.Is;
+import org.markysoft.vani.core.javascript.JavaScriptException;
 import org.markysoft.vani.core.javascript.VaniUtils;
 import org.markysoft.vani.core.wait.WaitUtil;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.util.StringUtils;
 
+/**
+ * This class waits for the page marker after a navigation (see
+ * {@link org.markysoft.vani.core.annotation.PageMarker}). Before the
+ * navigation, the previous document is marked by {@link #VANI_PAGE_MARKER_NAME}.
+ * The page is ready, when this marker is gone and the page marker is set.
+ * <p>
+ * Both conditions are checked by one asynchronous script in the page, which
+ * returns as soon as they are fulfilled. If the previous document is unloaded
+ * while waiting, the script is called again in the new one. This is only done
+ * if {@code vani.wait.browserEngine} is enabled, else the markers are polled by
+ * java.
+ * </p>
+ * 
+ * @author Thomas
+ *
+ */
 public class PageMarkerHandler {
 	protected final static String VANI_PAGE_MARKER_NAME = "vaniPageMarker";
+	/** time between two checks in the page (in millis) */
+	protected final static long MARKER_INTERVAL = 20;
+	protected final Log logger = LogFactory.getLog(getClass());
 	private String name;
 	@Value("${vani.pageMarker.name:pageIsReady}")
 	private String defaultName;
 	@Autowired
+	private VaniContext vaniContext;
+	@Autowired
 	private VaniUtils vaniUtils;
 	@Autowired
 	private WaitUtil waitUtil;
@@ -40,6 +67,13 @@ public class PageMarkerHandler {
 	}
 
 	public void waitUntilMarkerIsPresent(String markerName, long timeoutInMillis, WebDriver webDriver) {
+		if (vaniContext.isBrowserWaitEnabled()) {
+			if (StringUtils.isEmpty(markerName)) {
+				markerName = getPageMarkerName();
+			}
+			awaitMarker(markerName, timeoutInMillis, webDriver);
+			return;
+		}
 		waitUtil.variable(VANI_PAGE_MARKER_NAME).is(Is::present).not().until(timeoutInMillis, 500, webDriver);
 
 		if (StringUtils.isEmpty(markerName)) {
@@ -48,6 +82,39 @@ public class PageMarkerHandler {
 		waitUtil.variable(markerName).is(Is::present).until(timeoutInMillis, 500, webDriver);
 	}
 
+	/**
+	 * This method waits by {@link VaniUtils#awaitPageMarker} until the page is
+	 * ready. A failed call (e.g. because the document was unloaded) is
+	 * repeated until the timeout is reached.
+	 * 
+	 * @param markerName
+	 *            name of the page marker
+	 * @param timeoutInMillis
+	 * @param webDriver
+	 * @throws TimeoutException
+	 *             will be thrown, if the page is not ready in time
+	 */
+	protected void awaitMarker(String markerName, long timeoutInMillis, WebDriver webDriver) {
+		long start = System.currentTimeMillis();
+		long remaining = timeoutInMillis;
+		while (remaining > 0) {
+			try {
+				WebDriver driver = waitUtil.prepareAsyncWait(webDriver, remaining);
+				if (vaniUtils.awaitPageMarker(VANI_PAGE_MARKER_NAME, markerName, remaining, MARKER_INTERVAL,
+						driver)) {
+					return;
+				}
+				break;
+			} catch (WebDriverException | JavaScriptException ex) {
+				logger.debug("waiting for page marker is interrupted, try again: " + ex.getMessage());
+				waitUtil.waitTime(MARKER_INTERVAL);
+			}
+			remaining = timeoutInMillis - (System.currentTimeMillis() - start);
+		}
+		throw new TimeoutException(
+				"Timed out after " + timeoutInMillis + " milliseconds waiting for page marker '" + markerName + "'");
+	}
+
 	protected String getPageMarkerName() {
 		String result = name;
 		if (StringUtils.isEmpty(result)) {
@@ -57,6 +124,10 @@ public class PageMarkerHandler {
 		return result;
 	}
 
+	public void setVaniContext(VaniContext vaniContext) {
+		this.vaniContext = vaniContext;
+	}
+
 	public void setVaniUtils(VaniUtils vaniUtils) {
 		this.vaniUtils = vaniUtils;
 	}
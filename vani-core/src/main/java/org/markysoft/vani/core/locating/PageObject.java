@@ -4,7 +4,9 @@ import java.lang.reflect.Method;
 
 import org.markysoft.vani.core.annotation.Page;
 import org.markysoft.vani.core.annotation.PageUrl;
+import org.markysoft.vani.core.javascript.DomGeneration;
 import org.markysoft.vani.core.util.VaniReflectionUtil;
+import org.markysoft.vani.core.wait.WaitUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StringUtils;
 
@@ -16,6 +18,8 @@ public abstract class PageObject extends RegionObject {
 	/**
 	 * method will navigate to corresponding url of this page. It will use the
 	 * resolved url from {@link Page} annotation or {@link PageUrl} annotation.
+	 * The elements of open {@link LookupScope}s are dropped and cached
+	 * elements are located again (see {@link DomGeneration}).
 	 */
 	public void to() {
 		if (StringUtils.isEmpty(pageUrl)) {
@@ -42,7 +46,24 @@ public abstract class PageObject extends RegionObject {
 		} else {
 			pageUrl = vaniContext.resolveExpression(pageUrl);
 			webDriver.get(pageUrl);
+			LookupScope.invalidateCurrent();
+			DomGeneration.reset(webDriver);
 		}
 	}
 
+	/**
+	 * method will navigate to corresponding url of this page (see
+	 * {@link #to()}) and wait until the page is settled.
+	 * 
+	 * @param idleTimeoutInMillis
+	 *            maximum time to wait for the settled page
+	 * @return returns the waited time in millis until the page was settled or
+	 *         {@code -1} if the timeout is reached.
+	 * @see WaitUtil#pageIdle(long, org.openqa.selenium.WebDriver)
+	 */
+	public long to(long idleTimeoutInMillis) {
+		to();
+		return waitUtil.pageIdle(idleTimeoutInMillis, webDriver);
+	}
+
 }
@@ -24,6 +24,10 @@ public class RegionElementLocator extends BaseElementLocator<RegionObject> {
 		if (cachedElement != null && shouldCache && !mustRelocateCachedElements()) {
 			return cachedElement;
 		}
+		RegionObject scopedElement = getScopedElement();
+		if (scopedElement != null) {
+			return scopedElement;
+		}
 
 		if (logger.isDebugEnabled()) {
 			logger.debug("=========> getting region element BY\n\t'" + by + "' ON searchContext " + searchContext);
@@ -33,6 +37,9 @@ public class RegionElementLocator extends BaseElementLocator<RegionObject> {
 		RegionObject result = resolve(element);
 		if (shouldCache) {
 			cachedElement = result;
+			rememberGeneration();
+		} else {
+			setScopedElement(result);
 		}
 
 		return result;
@@ -40,6 +47,12 @@ public class RegionElementLocator extends BaseElementLocator<RegionObject> {
 
 	@Override
 	public List<RegionObject> findElements() {
+		if (!shouldCache) {
+			List<RegionObject> scopedElements = getScopedElements();
+			if (scopedElements != null) {
+				return scopedElements;
+			}
+		}
 		if (cachedElementList != null && !mustRelocateCachedElements()) {
 			return cachedElementList;
 		}
@@ -51,6 +64,10 @@ public class RegionElementLocator extends BaseElementLocator<RegionObject> {
 		List<WebElement> elements = searchContext.findElements(by);
 		List<RegionObject> result = resolve(elements);
 		cachedElementList = result;
+		rememberGeneration();
+		if (!shouldCache) {
+			setScopedElements(result);
+		}
 
 		return result;
 	}
@@ -20,6 +20,10 @@ public class WebElementLocator extends BaseElementLocator<WebElement> {
 		if (cachedElement != null && shouldCache && !mustRelocateCachedElements()) {
 			return cachedElement;
 		}
+		WebElement scopedElement = getScopedElement();
+		if (scopedElement != null) {
+			return scopedElement;
+		}
 
 		if (logger.isDebugEnabled()) {
 			logger.debug("=========> getting WebElement BY\n\t'" + by + "' ON searchContext " + searchContext);
@@ -28,6 +32,9 @@ public class WebElementLocator extends BaseElementLocator<WebElement> {
 		WebElement element = searchContext.findElement(by);
 		if (shouldCache) {
 			cachedElement = element;
+			rememberGeneration();
+		} else {
+			setScopedElement(element);
 		}
 
 		return element;
@@ -35,6 +42,12 @@ public class WebElementLocator extends BaseElementLocator<WebElement> {
 
 	@Override
 	public List<WebElement> findElements() {
+		if (!shouldCache) {
+			List<WebElement> scopedElements = getScopedElements();
+			if (scopedElements != null) {
+				return scopedElements;
+			}
+		}
 		if (cachedElementList != null && !mustRelocateCachedElements()) {
 			return cachedElementList;
 		}
@@ -45,6 +58,10 @@ public class WebElementLocator extends BaseElementLocator<WebElement> {
 		executeContentWait();
 		List<WebElement> elements = searchContext.findElements(by);
 		cachedElementList = elements;
+		rememberGeneration();
+		if (!shouldCache) {
+			setScopedElements(elements);
+		}
 
 		return elements;
 	}
@@ -1,51 +1,129 @@
 package org.markysoft.vani.core.locating.factory;
 
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.markysoft.vani.core.VaniContext;
-import org.markysoft.vani.core.util.AnnotationInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
-
-import net.bytebuddy.ByteBuddy;
-import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
-import net.bytebuddy.implementation.MethodDelegation;
-import net.bytebuddy.matcher.ElementMatchers;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.StringUtils;
 
 /**
- * This class wraps an annotation instance with another proxy instance, which
- * calls will be intercepted by @link {@link AnnotationInterceptor}.
- * 
+ * This class resolves the spring placeholders in the attributes of locator
+ * annotations like {@link org.openqa.selenium.support.FindBy}. The resolved
+ * values are stored in an immutable snapshot of the annotation (see
+ * {@link AnnotationUtils#synthesizeAnnotation(Map, Class, java.lang.reflect.AnnotatedElement)}),
+ * so the placeholders are only resolved once and not on each access of an
+ * attribute.
+ * <p>
+ * The snapshots are cached by the annotation. Because annotations are equal
+ * if their attributes are equal, all fields with the same locator annotation
+ * share one snapshot. The cache belongs to this bean, so each application
+ * context (and its environment) has its own snapshots.
+ * </p>
+ * <p>
+ * Following attribute values are resolved:
+ * </p>
+ * <ul>
+ * <li><b>string</b>: placeholders are resolved</li>
+ * <li><b>annotation</b>: snapshot of the annotation is created</li>
+ * <li><b>array</b>: each entry is resolved</li>
+ * </ul>
+ *
  * @author Thomas
  *
  */
 public class AnnotationProxyFactory {
 	private final Log logger = LogFactory.getLog(getClass());
+	private final Map<Annotation, Annotation> snapshots = new ConcurrentHashMap<>();
 	@Autowired
-	private VaniContext vaniContext;
+	protected VaniContext vaniContext;
 
 	public AnnotationProxyFactory() {
 	}
 
+	/**
+	 * @param annotation
+	 * @return returns the snapshot of provided annotation with resolved
+	 *         placeholders or the annotation itself, if the snapshot cannot be
+	 *         created.
+	 */
 	@SuppressWarnings("unchecked")
-	public <R extends Annotation> R createProxy(R annotation) {
-		R result;
-		try {
-			//@formatter:off
-			result = (R) new ByteBuddy()
-					.subclass(annotation.annotationType())
-					.method(ElementMatchers.any())
-					.intercept(MethodDelegation.to(new AnnotationInterceptor(annotation,vaniContext,this)))
-					.make()
-					.load(getClass().getClassLoader(), ClassLoadingStrategy.Default.WRAPPER).getLoaded()
-					.newInstance();
-			//@formatter:on
-		} catch (Exception ex) {
-			logger.warn("cannot proxy locator annotation for resolving placeholders: " + ex.getMessage(), ex);
-			result = annotation;
+	public <R extends Annotation> R createSnapshot(R annotation) {
+		Annotation result = snapshots.get(annotation);
+		if (result == null) {
+			try {
+				result = AnnotationUtils.synthesizeAnnotation(resolveAttributes(annotation),
+						annotation.annotationType(), null);
+			} catch (Exception ex) {
+				logger.warn("cannot resolve placeholders of locator annotation: " + ex.getMessage(), ex);
+				result = annotation;
+			}
+			snapshots.put(annotation, result);
+		}
+		return (R) result;
+	}
+
+	/**
+	 * @param annotation
+	 * @return returns the resolved values of all attributes of provided
+	 *         annotation.
+	 * @throws ReflectiveOperationException
+	 *             if an attribute cannot be read
+	 */
+	protected Map<String, Object> resolveAttributes(Annotation annotation) throws ReflectiveOperationException {
+		Method[] attributes = annotation.annotationType().getDeclaredMethods();
+		Map<String, Object> result = new HashMap<>(attributes.length * 2);
+		for (Method attribute : attributes) {
+			if (attribute.getParameterCount() == 0) {
+				attribute.setAccessible(true);
+				result.put(attribute.getName(), resolvePlaceholders(attribute.invoke(annotation)));
+			}
 		}
 		return result;
 	}
 
+	/**
+	 * This method resolves placeholders contained by provided value. Arrays
+	 * keep their component type.
+	 *
+	 * @param value
+	 * @return returns resolved value or {@code NULL} when you passed it.
+	 */
+	protected Object resolvePlaceholders(Object value) {
+		Object result = value;
+		if (value instanceof String) {
+			if (!StringUtils.isEmpty(value)) {
+				result = vaniContext.resolveExpression((String) value);
+			}
+		} else if (value instanceof Annotation) {
+			result = createSnapshot((Annotation) value);
+		} else if (value != null && value.getClass().isArray()
+				&& !value.getClass().getComponentType().isPrimitive()) {
+			int length = Array.getLength(value);
+			result = Array.newInstance(value.getClass().getComponentType(), length);
+			for (int i = 0; i < length; i++) {
+				Array.set(result, i, resolvePlaceholders(Array.get(value, i)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param annotation
+	 * @return returns the snapshot of provided annotation.
+	 * @deprecated annotations are no longer proxied, use
+	 *             {@link #createSnapshot(Annotation)} instead
+	 */
+	@Deprecated
+	public <R extends Annotation> R createProxy(R annotation) {
+		return createSnapshot(annotation);
+	}
+
 }
@@ -31,9 +31,9 @@ import org.openqa.selenium.support.pagefactory.AbstractAnnotations;
 /**
  * This is a copy of the
  * {@link org.openqa.selenium.support.pagefactory.Annotations} class. The
- * difference is that, this class wraps all locator annotations like
- * {@link FindBy} of selenium with an additional proxy, which is responsible for
- * resolving spring placeholders.
+ * difference is that, this class replaces all locator annotations like
+ * {@link FindBy} of selenium with a snapshot, which contains the values with
+ * resolved spring placeholders (see {@link AnnotationProxyFactory}).
  * 
  *
  */
@@ -81,17 +81,17 @@ public class Annotations extends AbstractAnnotations {
 
 		FindBys findBys = field.getAnnotation(FindBys.class);
 		if (findBys != null) {
-			ans = buildByFromFindBys(annotationProxyFactory.createProxy(findBys));
+			ans = buildByFromFindBys(annotationProxyFactory.createSnapshot(findBys));
 		}
 
 		FindAll findAll = field.getAnnotation(FindAll.class);
 		if (ans == null && findAll != null) {
-			ans = buildBysFromFindByOneOf(annotationProxyFactory.createProxy(findAll));
+			ans = buildBysFromFindByOneOf(annotationProxyFactory.createSnapshot(findAll));
 		}
 
 		FindBy findBy = field.getAnnotation(FindBy.class);
 		if (ans == null && findBy != null) {
-			ans = buildByFromFindBy(annotationProxyFactory.createProxy(findBy));
+			ans = buildByFromFindBy(annotationProxyFactory.createSnapshot(findBy));
 		}
 
 		if (ans == null) {
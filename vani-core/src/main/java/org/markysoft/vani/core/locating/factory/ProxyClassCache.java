@@ -0,0 +1,115 @@
+package org.markysoft.vani.core.locating.factory;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.method.MethodDescription;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.TargetMethodAnnotationDrivenBinder.ParameterBinder;
+import net.bytebuddy.matcher.ElementMatcher;
+
+/**
+ * This class creates proxy instances, whose intercepted methods are delegated
+ * to an interceptor. The proxy class is only generated once per target type
+ * and the interceptor of each instance is stored in the field
+ * {@link #INTERCEPTOR_FIELD}. So a page with many fields, which is
+ * instantiated many times (e.g. by a crawler), doesn't generate a new class
+ * and class loader per field and instance.
+ * <p>
+ * Each cache generates the proxy classes with the same method matcher and
+ * interceptor type, so it should be shared by all proxies of one kind:
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * private static final ProxyClassCache PROXIES = new ProxyClassCache(ElementMatchers.any(), ElementInterceptor.class,
+ * 		Pipe.Binder.install(ElementInterceptor.Forwarder.class));
+ * ...
+ * WebElement element = PROXIES.newInstance(WebElement.class, new ElementInterceptor(locator));
+ * </code>
+ * </pre>
+ *
+ * @author Thomas
+ *
+ */
+public class ProxyClassCache {
+	/** name of the field holding the interceptor of a proxy instance */
+	public static final String INTERCEPTOR_FIELD = "vaniInterceptor";
+	private final ElementMatcher<? super MethodDescription> methodMatcher;
+	private final Class<?> interceptorType;
+	private final ParameterBinder<?>[] parameterBinders;
+	private final Map<Class<?>, Field> interceptorFields = new ConcurrentHashMap<>();
+
+	/**
+	 * @param methodMatcher
+	 *            matcher selecting the intercepted methods
+	 * @param interceptorType
+	 *            type of the interceptor, to which the methods are delegated
+	 * @param parameterBinders
+	 *            additional binders for the parameters of the interceptor
+	 *            (e.g. {@link net.bytebuddy.implementation.bind.annotation.Pipe.Binder})
+	 */
+	public ProxyClassCache(ElementMatcher<? super MethodDescription> methodMatcher, Class<?> interceptorType,
+			ParameterBinder<?>... parameterBinders) {
+		this.methodMatcher = methodMatcher;
+		this.interceptorType = interceptorType;
+		this.parameterBinders = parameterBinders;
+	}
+
+	/**
+	 * This method creates a new proxy instance of provided target type. The
+	 * proxy class is generated at first call for the target type.
+	 *
+	 * @param targetClass
+	 *            type to proxy, it needs a default constructor
+	 * @param interceptor
+	 *            interceptor of the new instance
+	 * @return returns the new proxy instance.
+	 * @throws ReflectiveOperationException
+	 *             if the proxy cannot be instantiated
+	 */
+	@SuppressWarnings("unchecked")
+	public <R> R newInstance(Class<?> targetClass, Object interceptor) throws ReflectiveOperationException {
+		Field interceptorField = interceptorFields.computeIfAbsent(targetClass, this::createProxyClass);
+		Object result = interceptorField.getDeclaringClass().newInstance();
+		interceptorField.set(result, interceptor);
+		return (R) result;
+	}
+
+	/**
+	 * @param targetClass
+	 * @return returns the field of the generated proxy class, which holds the
+	 *         interceptor.
+	 */
+	protected Field createProxyClass(Class<?> targetClass) {
+		MethodDelegation delegation = MethodDelegation.toInstanceField(interceptorType, INTERCEPTOR_FIELD);
+		for (ParameterBinder<?> parameterBinder : parameterBinders) {
+			delegation = delegation.appendParameterBinder(parameterBinder);
+		}
+		//@formatter:off
+		Class<?> proxyClass = new ByteBuddy()
+				.subclass(targetClass)
+				.method(methodMatcher)
+				.intercept(delegation)
+				.make()
+				.load(getClass().getClassLoader(), ClassLoadingStrategy.Default.WRAPPER).getLoaded();
+		//@formatter:on
+		try {
+			Field result = proxyClass.getDeclaredField(INTERCEPTOR_FIELD);
+			result.setAccessible(true);
+			return result;
+		} catch (NoSuchFieldException ex) {
+			throw new IllegalStateException("proxy class of '" + targetClass + "' has no interceptor field", ex);
+		}
+	}
+
+	/**
+	 * @return returns the count of generated proxy classes.
+	 */
+	public int size() {
+		return interceptorFields.size();
+	}
+}
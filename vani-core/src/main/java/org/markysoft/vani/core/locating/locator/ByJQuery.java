@@ -28,9 +28,16 @@ public class ByJQuery extends By {
 		this.jquery = this.vaniContext.getAppContext().getBean(JQuery.class);
 	}
 
+	/**
+	 * @param context
+	 *            element or driver to search in. If it is {@code NULL}, the
+	 *            whole document of the default driver is searched.
+	 */
 	@Override
 	public WebElement findElement(SearchContext context) {
-		if (context instanceof WebElement) {
+		if (context == null) {
+			return find();
+		} else if (context instanceof WebElement) {
 			WebDriver driver = null;
 			if (context instanceof JQueryElement) {
 				driver = ((JQueryElement) context).getWebDriver();
@@ -68,6 +75,10 @@ public class ByJQuery extends By {
 		return jquery.find(null, selector, webDriver);
 	}
 
+	public String getSelector() {
+		return selector;
+	}
+
 	@Override
 	public String toString() {
 		return "By.jquery: " + selector;
@@ -1,7 +1,9 @@
 package org.markysoft.vani.core.locating.locator;
 
 import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.javascript.JQuery;
 import org.markysoft.vani.core.locating.JQueryElement;
+import org.markysoft.vani.core.locating.JQueryPipeline;
 import org.markysoft.vani.core.locating.LocatorBuilder;
 import org.openqa.selenium.WebDriver;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,4 +39,25 @@ public class JQueryLocatorBuilder implements LocatorBuilder<FindByJQuery, ByJQue
 		}
 		return result;
 	}
+
+	public JQueryPipeline query(String selector) {
+		return query(selector, null);
+	}
+
+	/**
+	 * This method creates a lazy {@link JQueryPipeline} for the provided
+	 * selector. Nothing is sent to the browser until a terminal operation of
+	 * the pipeline is called.
+	 * 
+	 * @param selector
+	 *            jquery selector
+	 * @param webDriver
+	 *            driver, which is used for execution. If it is {@code NULL},
+	 *            the default driver is used.
+	 * @return returns new pipeline finding the provided selector.
+	 */
+	public JQueryPipeline query(String selector, WebDriver webDriver) {
+		JQuery jquery = vaniContext.getAppContext().getBean(JQuery.class);
+		return new JQueryPipeline(jquery, webDriver, null).find(selector);
+	}
 }
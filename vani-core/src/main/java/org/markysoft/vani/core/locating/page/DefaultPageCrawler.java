@@ -11,7 +11,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.markysoft.vani.core.VaniContext;
 import org.markysoft.vani.core.annotation.UrlMapping;
+import org.markysoft.vani.core.javascript.DomGeneration;
 import org.markysoft.vani.core.javascript.LinkUtils;
+import org.markysoft.vani.core.locating.LookupScope;
 import org.markysoft.vani.core.locating.PageMarkerHandler;
 import org.markysoft.vani.core.wait.WaitUtil;
 import org.openqa.selenium.WebDriver;
@@ -44,6 +46,13 @@ public class DefaultPageCrawler implements PageCrawler {
 	protected int pageLoadWaitSeconds;
 	@Value("${vani.pageCrawler.pageLoadAjaxSeconds:1}")
 	protected int pageLoadAjaxSeconds;
+	/**
+	 * maximum time to wait for the settled page (see
+	 * {@link WaitUtil#pageIdle(long, WebDriver)}). If it's {@code 0}, the
+	 * fixed wait and the ajax wait are used instead.
+	 */
+	@Value("${vani.pageCrawler.pageIdleSeconds:0}")
+	protected int pageIdleSeconds;
 	protected List<PageHandler> pageHandlers = new ArrayList<>();
 
 	/**
@@ -109,9 +118,14 @@ public class DefaultPageCrawler implements PageCrawler {
 			pageMarkerHandler.setVaniMarker(webDriver);
 		}
 		webDriver.get(url);
+		LookupScope.invalidateCurrent();
+		DomGeneration.reset(webDriver);
 
 		if (pageMarkerHandler != null) {
 			pageMarkerHandler.waitUntilMarkerIsPresent(webDriver);
+		} else if (pageIdleSeconds > 0) {
+			logger.debug("wait max '" + pageIdleSeconds + "' seconds until page is settled");
+			waitUtil.pageIdle(pageIdleSeconds * 1000, webDriver);
 		} else {
 			logger.debug("wait explicit '" + pageLoadWaitSeconds + "' seconds after page changed");
 			waitUtil.waitTime(pageLoadWaitSeconds * 1000);
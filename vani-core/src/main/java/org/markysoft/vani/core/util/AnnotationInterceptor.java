@@ -28,8 +28,10 @@ import net.bytebuddy.implementation.bind.annotation.RuntimeType;
  * </ul>
  * 
  * @author Thomas
- *
+ * @deprecated the placeholders are resolved once into a snapshot of the
+ *             annotation (see {@link AnnotationProxyFactory#createSnapshot(Annotation)})
  */
+@Deprecated
 public class AnnotationInterceptor {
 	private Annotation annotation;
 	private VaniContext vaniContext;
@@ -60,7 +62,7 @@ public class AnnotationInterceptor {
 				}
 				value = result;
 			} else if (value instanceof Annotation) {
-				value = annotationProxyFactory.createProxy((Annotation) value);
+				value = annotationProxyFactory.createSnapshot((Annotation) value);
 			} else if (value instanceof String) {
 				String expression = value.toString();
 				if (!StringUtils.isEmpty(expression)) {
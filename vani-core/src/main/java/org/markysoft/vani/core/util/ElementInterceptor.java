@@ -1,6 +1,5 @@
 package org.markysoft.vani.core.util;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
@@ -10,18 +9,44 @@ import org.markysoft.vani.core.locating.UnableToLocateException;
 import org.markysoft.vani.core.locating.VaniElementLocator;
 import org.openqa.selenium.WebElement;
 
-import net.bytebuddy.implementation.bind.annotation.AllArguments;
 import net.bytebuddy.implementation.bind.annotation.Origin;
+import net.bytebuddy.implementation.bind.annotation.Pipe;
 import net.bytebuddy.implementation.bind.annotation.RuntimeType;
 
 /**
  * This interceptor is responsible for loading {@link WebElement} and if you
  * specified, it calls wrapping by {@link RegionObject}.
+ * <p>
+ * The intercepted call is forwarded to the located target by a
+ * {@link Forwarder}, which is generated by byte buddy for each proxied method
+ * (see {@link Pipe}). So the target method is called directly and not by
+ * reflection. The binder of the forwarder must be installed for the proxy
+ * classes (see
+ * {@link org.markysoft.vani.core.locating.factory.ProxyClassCache}):
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * private static final ProxyClassCache PROXIES = new ProxyClassCache(ElementMatchers.any(),
+ * 		ElementInterceptor.class, Pipe.Binder.install(ElementInterceptor.Forwarder.class));
+ * ...
+ * WebElement element = PROXIES.newInstance(WebElement.class, new ElementInterceptor(elementLocator));
+ * </code>
+ * </pre>
  * 
  * @author Thomas
  *
  */
 public class ElementInterceptor {
+
+	/**
+	 * This interface forwards the intercepted call with its arguments to
+	 * provided target.
+	 */
+	public interface Forwarder {
+		Object to(Object target);
+	}
+
 	private VaniElementLocator<?> elementLocator;
 
 	public ElementInterceptor(VaniElementLocator<?> elementLocator) {
@@ -43,8 +68,7 @@ public class ElementInterceptor {
 	}
 
 	@RuntimeType
-	public Object intercept(@AllArguments Object[] arguments, @Origin Method invokedMethod,
-			@Origin Class<?> targetClass) {
+	public Object intercept(@Pipe Forwarder forwarder, @Origin Method invokedMethod, @Origin Class<?> targetClass) {
 
 		Object result = null;
 
@@ -54,18 +78,10 @@ public class ElementInterceptor {
 		Object targetObj = loadTarget(targetClass);
 
 		try {
-			result = invokedMethod.invoke(targetObj, arguments);
-		} catch (InvocationTargetException ex) {
-			Throwable throwable = ex;
-			if (ex.getCause() != null) {
-				throwable = ex.getCause();
-			}
-			throw new UnableToLocateException(
-					"cannot invoke method (" + invokedMethod + ") of target object (" + targetClass + "): " + throwable,
-					throwable);
+			result = forwarder.to(targetObj);
 		} catch (Exception ex) {
 			throw new UnableToLocateException(
-					"cannot invoke method (" + invokedMethod + ") of target object (" + targetClass + "): ", ex);
+					"cannot invoke method (" + invokedMethod + ") of target object (" + targetClass + "): " + ex, ex);
 		}
 
 		return result;
@@ -0,0 +1,271 @@
+package org.markysoft.vani.core.util;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+
+import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.annotation.GlobalReference;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.markysoft.vani.core.annotation.JsFunctionArguments;
+import org.markysoft.vani.core.annotation.JsFunctionName;
+import org.markysoft.vani.core.javascript.GlobalReferenceHolder;
+import org.markysoft.vani.core.javascript.JavaScriptSource;
+import org.markysoft.vani.core.javascript.TypeHandler;
+import org.markysoft.vani.core.javascript.VaniJavaScriptExecutor;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.springframework.util.StringUtils;
+
+/**
+ * This class holds everything, which is needed to call a method of a
+ * js-interface and which doesn't change between calls. It is created once per
+ * method, when the proxy of the js-interface is created (see
+ * {@link JavaScriptMethodInterceptor}). So the annotations, parameters and call
+ * function must not be inspected for each call.
+ * <p>
+ * The arguments are assigned to slots by the declared parameter types:
+ * </p>
+ * <ul>
+ * <li><b>driver</b>: parameter of type {@link JavascriptExecutor}</li>
+ * <li><b>reference</b>: parameter of type {@link GlobalReferenceHolder}</li>
+ * <li><b>payload</b>: parameters of final types like {@link String} or
+ * {@link Integer}, which are provided to the bound javascript function</li>
+ * </ul>
+ * <p>
+ * The slot of all other parameters (e.g. {@link WebDriver} or {@link Object})
+ * is resolved by the type of the argument on each call. So a driver, which
+ * doesn't implement {@link JavascriptExecutor}, is provided to the function
+ * like any other argument. A {@code NULL} passed as {@link WebDriver} is
+ * handled as missing driver.
+ * </p>
+ *
+ * @author Thomas
+ * @see JavaScriptMethodInterceptor
+ */
+public class JavaScriptInvocation {
+	private static final int CALL_REFERENCE = 0;
+	private static final int CALL_FUNCTION_NAME = 1;
+	private static final int CALL_ARGUMENTS = 2;
+	private static final int PAYLOAD = 0;
+	private static final int DRIVER = 1;
+	private static final int REFERENCE = 2;
+	private static final int RUNTIME_DRIVER = 3;
+	private static final int RUNTIME = 4;
+	private final String methodName;
+	private final Class<?> returnType;
+	private final String callSource;
+	private final int[] parameterKinds;
+	private final int[] callFunctionParameters;
+	private final String functionName;
+	private final boolean async;
+	private volatile boolean typeHandlerResolved;
+	private TypeHandler<?, ?> typeHandler;
+
+	public JavaScriptInvocation(Method jsMethod, JavaScriptFunction jsFunctionAnnotation,
+			JavaScriptSource<?> jsSource) {
+		this.methodName = jsMethod.getName();
+		this.returnType = jsMethod.getReturnType();
+		this.callSource = new VaniJavaScriptExecutor(null, jsSource).getInvocationSource(methodName,
+				jsFunctionAnnotation);
+
+		Class<?>[] parameterTypes = jsMethod.getParameterTypes();
+		this.parameterKinds = new int[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			parameterKinds[i] = getParameterKind(parameterTypes[i]);
+		}
+
+		if (jsSource.getJsCallFunction() != null) {
+			Parameter[] params = jsSource.getJsCallFunction().getCallMethod().getParameters();
+			int[] callParameters = new int[params.length];
+			int callParameterCount = 0;
+			for (Parameter param : params) {
+				if (param.isAnnotationPresent(GlobalReference.class)) {
+					callParameters[callParameterCount++] = CALL_REFERENCE;
+				} else if (param.isAnnotationPresent(JsFunctionName.class)) {
+					callParameters[callParameterCount++] = CALL_FUNCTION_NAME;
+				} else if (param.isAnnotationPresent(JsFunctionArguments.class)) {
+					callParameters[callParameterCount++] = CALL_ARGUMENTS;
+				}
+			}
+			this.callFunctionParameters = new int[callParameterCount];
+			System.arraycopy(callParameters, 0, callFunctionParameters, 0, callParameterCount);
+		} else {
+			this.callFunctionParameters = null;
+		}
+		this.functionName = getFunctionName(methodName, jsFunctionAnnotation);
+		this.async = jsFunctionAnnotation.async();
+	}
+
+	private static int getParameterKind(Class<?> parameterType) {
+		int result = RUNTIME;
+		if (JavascriptExecutor.class.isAssignableFrom(parameterType)) {
+			result = DRIVER;
+		} else if (GlobalReferenceHolder.class.isAssignableFrom(parameterType)) {
+			result = REFERENCE;
+		} else if (WebDriver.class.isAssignableFrom(parameterType)) {
+			result = RUNTIME_DRIVER;
+		} else if (parameterType.isPrimitive() || Modifier.isFinal(parameterType.getModifiers())) {
+			result = PAYLOAD;
+		}
+		return result;
+	}
+
+	/**
+	 * @param index
+	 *            index of the parameter
+	 * @param arg
+	 *            argument of the parameter
+	 * @return returns the slot of provided argument. If it can't be decided by
+	 *         the declared type, the argument will be checked by
+	 *         {@code instanceof}.
+	 */
+	private int getSlot(int index, Object arg) {
+		int result = parameterKinds[index];
+		if (result == RUNTIME_DRIVER) {
+			result = arg == null || arg instanceof JavascriptExecutor ? DRIVER : PAYLOAD;
+		} else if (result == RUNTIME) {
+			if (arg instanceof JavascriptExecutor) {
+				result = DRIVER;
+			} else if (arg instanceof GlobalReferenceHolder) {
+				result = REFERENCE;
+			} else {
+				result = PAYLOAD;
+			}
+		}
+		return result;
+	}
+
+	private Object findArgument(Object[] args, int slot) {
+		if (args != null) {
+			for (int i = 0; i < parameterKinds.length; i++) {
+				if (getSlot(i, args[i]) == slot) {
+					return args[i];
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String getFunctionName(String methodName, JavaScriptFunction jsFunctionAnnotation) {
+		String result = null;
+		if (StringUtils.isEmpty(jsFunctionAnnotation.value())) {
+			if (StringUtils.isEmpty(jsFunctionAnnotation.name())) {
+				result = methodName;
+			} else {
+				result = jsFunctionAnnotation.name();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param args
+	 *            arguments of the called js-interface method
+	 * @return returns the provided driver or {@code NULL} if the method has no
+	 *         driver parameter or the argument is {@code NULL}.
+	 */
+	public JavascriptExecutor getExecutor(Object[] args) {
+		return (JavascriptExecutor) findArgument(args, DRIVER);
+	}
+
+	/**
+	 * @param args
+	 *            arguments of the called js-interface method
+	 * @return returns the provided reference holder or {@code NULL} if the
+	 *         method has no reference parameter or the argument is
+	 *         {@code NULL}.
+	 */
+	public GlobalReferenceHolder getReference(Object[] args) {
+		return (GlobalReferenceHolder) findArgument(args, REFERENCE);
+	}
+
+	/**
+	 * This method builds the arguments, which are provided to the bound
+	 * javascript function. If the js-interface declares a custom call
+	 * function, the returned array will only contain the parameters required
+	 * by it (see {@link GlobalReference}, {@link JsFunctionName} and
+	 * {@link JsFunctionArguments}).
+	 *
+	 * @param args
+	 *            arguments of the called js-interface method
+	 * @return returns the arguments for the script execution
+	 */
+	public Object[] getArguments(Object[] args) {
+		if (args == null) {
+			return null;
+		}
+		int payloadCount = 0;
+		for (int i = 0; i < parameterKinds.length; i++) {
+			if (getSlot(i, args[i]) == PAYLOAD) {
+				payloadCount++;
+			}
+		}
+		Object[] payload = new Object[payloadCount];
+		for (int i = 0, j = 0; i < parameterKinds.length; i++) {
+			if (getSlot(i, args[i]) == PAYLOAD) {
+				payload[j++] = args[i];
+			}
+		}
+		if (callFunctionParameters == null) {
+			return payload;
+		}
+
+		Object[] result = new Object[callFunctionParameters.length];
+		for (int i = 0; i < callFunctionParameters.length; i++) {
+			switch (callFunctionParameters[i]) {
+			case CALL_REFERENCE:
+				GlobalReferenceHolder reference = getReference(args);
+				result[i] = reference != null ? reference.getReference() : null;
+				break;
+			case CALL_FUNCTION_NAME:
+				result[i] = functionName;
+				break;
+			default:
+				result[i] = payload;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * This method returns the {@link TypeHandler} for the return type of the
+	 * method. It is resolved on first call, because the handlers are
+	 * registered after the js-interface proxies.
+	 *
+	 * @param vaniContext
+	 * @return returns the registered handler or {@code NULL} if no handler is
+	 *         available.
+	 */
+	public TypeHandler<?, ?> getTypeHandler(VaniContext vaniContext) {
+		if (!typeHandlerResolved) {
+			typeHandler = vaniContext.getTypeHandlerFor(returnType);
+			typeHandlerResolved = true;
+		}
+		return typeHandler;
+	}
+
+	public String getMethodName() {
+		return methodName;
+	}
+
+	public Class<?> getReturnType() {
+		return returnType;
+	}
+
+	/**
+	 * @return returns the pre-rendered source calling the bound function (see
+	 *         {@link VaniJavaScriptExecutor#getInvocationSource(String, JavaScriptFunction)}).
+	 */
+	public String getCallSource() {
+		return callSource;
+	}
+
+	/**
+	 * @return returns true if the bound function is executed asynchronously
+	 *         (see {@link JavaScriptFunction#async()}).
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+}
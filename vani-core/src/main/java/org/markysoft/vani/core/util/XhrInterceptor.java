@@ -16,6 +16,13 @@ import net.bytebuddy.implementation.bind.annotation.SuperCall;
 /**
  * This interceptor is responsible executing automatically waits for finishing
  * xhr-requests. For more information, please see {@link Xhr}.
+ * <p>
+ * No script is executed before the intercepted method is called, only its
+ * start time is taken. Afterwards the interceptor blocks in one asynchronous
+ * script, which takes the first tracked request started after this time as
+ * expectation and returns when a matching request is completed (see
+ * {@link WaitUtil#ajaxCompleted(String, long, long, long, WebDriver)}).
+ * </p>
  * 
  * @author Thomas
  *
@@ -51,7 +58,7 @@ public class XhrInterceptor {
 			url = vaniContext.resolveExpression(url);
 
 			long timeoutInMillis = xhr.timeoutInMillis();
-			waitUtil.ajaxJQuery(url, start, timeoutInMillis, webDriver);
+			waitUtil.ajaxCompleted(url, 0, start, timeoutInMillis, webDriver);
 		}
 		return result;
 	}
@@ -1,31 +1,80 @@
 package org.markysoft.vani.core.wait;
 
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
 import org.markysoft.vani.core.VaniContext;
 import org.markysoft.vani.core.javascript.XhrTracking;
 import org.openqa.selenium.WebDriver;
 import org.springframework.util.StringUtils;
 
+/**
+ * This command waits until a request matching the provided url pattern is
+ * started or, if {@code completed} is set, finished (see {@link XhrTracking}).
+ * <p>
+ * Each evaluation only fetches the requests, which are started since the
+ * previous one (see {@link XhrTracking#getRequests(long, long, WebDriver)}),
+ * and matches them against the pattern. So polling doesn't rescan all tracked
+ * requests. If the pattern is not supported by java, the matching is done by
+ * the browser, but then completion is not considered.
+ * </p>
+ * 
+ * @author Thomas
+ *
+ */
 public class AjaxWaitCommand extends WaitCommand<Object> {
 	protected VaniContext vaniContext;
 	protected long startMillis;
 	protected String url;
 	protected XhrTracking xhrTracking;
 	protected WebDriver webDriver;
+	protected Pattern urlPattern;
+	protected long lastSequence;
+	protected boolean requestFound;
+	protected boolean completed;
 
 	public AjaxWaitCommand(VaniContext vaniContext, String url, long startMillis, WebDriver webDriver) {
+		this(vaniContext, url, startMillis, false, webDriver);
+	}
+
+	/**
+	 * @param vaniContext
+	 * @param url
+	 *            url pattern of the request
+	 * @param startMillis
+	 *            only requests started after this timestamp are considered
+	 * @param completed
+	 *            if true, the command waits until a matching request is
+	 *            finished, else until it is started
+	 * @param webDriver
+	 */
+	public AjaxWaitCommand(VaniContext vaniContext, String url, long startMillis, boolean completed,
+			WebDriver webDriver) {
 		super(null);
 		this.vaniContext = vaniContext;
 		this.url = url;
 		this.startMillis = startMillis;
+		this.completed = completed;
 		this.xhrTracking = vaniContext.getAppContext().getBean(XhrTracking.class);
 		this.webDriver = webDriver;
+		try {
+			this.urlPattern = Pattern.compile(url);
+		} catch (PatternSyntaxException ex) {
+			logger.debug("url pattern is evaluated by browser: " + ex.getMessage());
+		}
 	}
 
 	@Override
 	public boolean eval() {
 		boolean result = false;
 		try {
-			result = xhrTracking.hasRequestFor(url, startMillis, webDriver);
+			if (urlPattern != null) {
+				result = hasNewRequest();
+			} else {
+				result = xhrTracking.hasRequestFor(url, startMillis, webDriver);
+			}
 		} catch (Exception ex) {
 			if (!StringUtils.isEmpty(message)) {
 				logger.warn(message);
@@ -34,4 +83,42 @@ public class AjaxWaitCommand extends WaitCommand<Object> {
 		}
 		return result;
 	}
+
+	/**
+	 * This method fetches the requests started since previous evaluation and
+	 * matches their urls. If {@code completed} is set, the fetching will
+	 * restart at the first matching request, which is in flight.
+	 * 
+	 * @return returns true if a request matching the url pattern has been
+	 *         found by this or a previous evaluation.
+	 */
+	protected boolean hasNewRequest() {
+		if (requestFound) {
+			return true;
+		}
+		List<Map<String, Object>> requests = xhrTracking.getRequests(lastSequence, startMillis, webDriver);
+		boolean result = false;
+		long pendingSequence = -1;
+		if (requests != null) {
+			for (Map<String, Object> request : requests) {
+				Object sequence = request.get("sequence");
+				if (sequence instanceof Number) {
+					lastSequence = ((Number) sequence).longValue();
+				}
+				Object requestUrl = request.get("url");
+				if (requestUrl != null && urlPattern.matcher(requestUrl.toString()).find()) {
+					if (!completed || request.get("completed") != null) {
+						result = true;
+					} else if (pendingSequence < 0) {
+						pendingSequence = lastSequence - 1;
+					}
+				}
+			}
+		}
+		if (!result && pendingSequence >= 0) {
+			lastSequence = pendingSequence;
+		}
+		requestFound = result;
+		return result;
+	}
 }
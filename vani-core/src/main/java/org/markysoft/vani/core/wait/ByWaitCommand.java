@@ -1,8 +1,14 @@
 package org.markysoft.vani.core.wait;
 
+import java.util.Map;
+
+import org.markysoft.vani.core.locating.JQueryElement;
+import org.markysoft.vani.core.locating.locator.ByJQuery;
 import org.openqa.selenium.By;
 import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
 import org.springframework.util.StringUtils;
 
 public class ByWaitCommand extends WaitCommand<WebElement> {
@@ -29,4 +35,32 @@ public class ByWaitCommand extends WaitCommand<WebElement> {
 		boolean result = super.eval();
 		return result;
 	}
+
+	/**
+	 * @return returns 2, because the element must be located before the
+	 *         condition is evaluated.
+	 */
+	@Override
+	public int getCost() {
+		return 2;
+	}
+
+	@Override
+	protected Map<String, Object> getBrowserTarget() {
+		Map<String, Object> result = null;
+		if (by instanceof ByJQuery) {
+			if (searchContext == null || searchContext instanceof WebDriver) {
+				result = createBrowserTarget("selector", ((ByJQuery) by).getSelector());
+			} else if (searchContext instanceof JQueryElement) {
+				if (((JQueryElement) searchContext).getReference() != null) {
+					result = createBrowserTarget("selector", ((ByJQuery) by).getSelector());
+					result.put("ref", ((JQueryElement) searchContext).getReference());
+				}
+			} else if (searchContext instanceof RemoteWebElement) {
+				result = createBrowserTarget("selector", ((ByJQuery) by).getSelector());
+				result.put("element", searchContext);
+			}
+		}
+		return result;
+	}
 }
@@ -0,0 +1,73 @@
+package org.markysoft.vani.core.wait;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * This class caches the parsed spel conditions of waits (see
+ * {@link WaitBuilder#spel(String)}), so a condition is only parsed once and
+ * not each time a wait is built. The expressions are parsed in
+ * {@link SpelCompilerMode#MIXED}, so frequently evaluated conditions (e.g.
+ * {@code hasMatches()}) are compiled to bytecode. If a compiled expression
+ * fails (e.g. because the type of the target changes), it's interpreted
+ * again.
+ * <p>
+ * The cache is bounded. If it's full, the least recently used expression is
+ * removed.
+ * </p>
+ *
+ * @author Thomas
+ *
+ */
+public class SpelConditionCache {
+	private final ExpressionParser parser;
+	private final Map<String, Expression> expressions;
+
+	/**
+	 * @param maxSize
+	 *            maximum count of cached expressions
+	 */
+	public SpelConditionCache(int maxSize) {
+		this.parser = new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()));
+		this.expressions = new LinkedHashMap<String, Expression>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * @param condition
+	 *            spel condition
+	 * @return returns the parsed expression of provided condition.
+	 */
+	public Expression get(String condition) {
+		synchronized (expressions) {
+			Expression result = expressions.get(condition);
+			if (result == null) {
+				result = parser.parseExpression(condition);
+				expressions.put(condition, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * @return returns the count of cached expressions.
+	 */
+	public int size() {
+		synchronized (expressions) {
+			return expressions.size();
+		}
+	}
+}
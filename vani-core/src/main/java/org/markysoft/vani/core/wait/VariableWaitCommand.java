@@ -1,5 +1,7 @@
 package org.markysoft.vani.core.wait;
 
+import java.util.Map;
+
 import org.markysoft.vani.core.javascript.VaniUtils;
 import org.springframework.util.StringUtils;
 
@@ -27,4 +29,9 @@ public class VariableWaitCommand extends WaitCommand<Object> {
 		boolean result = super.eval();
 		return result;
 	}
+
+	@Override
+	protected Map<String, Object> getBrowserTarget() {
+		return createBrowserTarget("variable", variableName);
+	}
 }
@@ -1,31 +1,82 @@
 package org.markysoft.vani.core.wait;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.condition.Is;
+import org.markysoft.vani.core.javascript.JavaScriptException;
 import org.markysoft.vani.core.javascript.VaniUtils;
+import org.markysoft.vani.core.javascript.WaitEngine;
+import org.markysoft.vani.core.locating.JQueryElement;
 import org.markysoft.vani.core.locating.locator.ByJQuery;
 import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.FluentWait;
 import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
 
 /**
  * This class provides convenience methods for declaring wait conditions.
+ * <p>
+ * If all conditions can be evaluated by the browser (see
+ * {@link WaitOperatorBuilder}), they are sent as one asynchronous script to
+ * the {@link WaitEngine}, which returns as soon as they are fulfilled. This must
+ * be enabled by the property {@code vani.wait.browserEngine}. If the script
+ * fails (e.g. due to navigation), the remaining time is polled by java.
+ * </p>
+ * <p>
+ * The browser engine sets the script timeout of the driver to the timeout of
+ * each wait plus {@link #SCRIPT_TIMEOUT_MARGIN}. The previous value cannot be
+ * read from the driver and is not restored, so enable it only if the script
+ * timeout is not used otherwise.
+ * </p>
+ * <p>
+ * Java polls with a short interval at first ({@link #MIN_PERIOD}), which is
+ * doubled after each check up to the requested period. So fast conditions are
+ * resolved quickly without hammering the driver on slow ones. The commands are
+ * evaluated in order of their cost (see {@link WaitCommand#getCost()}) and the
+ * evaluation stops as soon as the result of the conjunction is known.
+ * </p>
  * 
  * @author Thomas
  *
  */
 public class WaitBuilder implements WaitOperatorBuilder, WaitConditionTargetBuilder {
+	/** maximum time between two checks in the browser (in millis) */
+	protected static final long BROWSER_INTERVAL = 50;
+	/** additional time for the script timeout of the driver (in millis) */
+	protected static final long SCRIPT_TIMEOUT_MARGIN = 5000;
+	/** first time between two checks by java (in millis) */
+	protected static final long MIN_PERIOD = 25;
+	/** parsed spel conditions shared by all waits */
+	protected static final SpelConditionCache CONDITIONS = new SpelConditionCache(256);
+	/**
+	 * negation of a spel condition: {@code !cond}, {@code not cond} or
+	 * {@code cond == false}
+	 */
+	protected static final Pattern SPEL_NEGATION = Pattern.compile("^(?:!|not\\s+)(.+)$|^(.+?)\\s*==\\s*false$");
+	/** spel conditions, which are equal to a browser check without value */
+	protected static final Pattern SPEL_CHECK = Pattern.compile("^(hasMatches|isDisplayed|isEnabled|isSelected)\\(\\)$");
+	/** spel condition {@code is('selector')} */
+	protected static final Pattern SPEL_IS = Pattern.compile("^is\\('([^']*)'\\)$");
+	/** spel condition comparing the text */
+	protected static final Pattern SPEL_TEXT = Pattern.compile("^(?:getText|text)\\(\\)\\s*==\\s*'([^']*)'$");
+	/** spel condition comparing the count of matches */
+	protected static final Pattern SPEL_COUNT = Pattern.compile("^getLength\\(\\)\\s*(>=|>)\\s*(\\d+)$");
+	protected final Log logger = LogFactory.getLog(getClass());
 	protected List<WaitCommand> commands = new ArrayList<>(1);
 	protected ConjunctionType conjunctionType;
 	protected VaniContext vaniContext;
@@ -46,6 +97,59 @@ public class WaitBuilder implements WaitOperatorBuilder, WaitConditionTargetBuil
 	@Override
 	public WaitOperatorBuilder is(Predicate<?> predicate) {
 		cmd().setConditionPredicate(predicate);
+		if (predicate == Is.DISPLAYED) {
+			cmd().setBrowserCheck("displayed", null);
+		} else if (predicate == Is.ENABLED) {
+			cmd().setBrowserCheck("enabled", null);
+		} else if (predicate == Is.SELECTED) {
+			cmd().setBrowserCheck("selected", null);
+		}
+		return this;
+	}
+
+	@Override
+	public WaitOperatorBuilder displayed() {
+		return is(Is.DISPLAYED);
+	}
+
+	@Override
+	public WaitOperatorBuilder enabled() {
+		return is(Is.ENABLED);
+	}
+
+	@Override
+	public WaitOperatorBuilder selected() {
+		return is(Is.SELECTED);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public WaitOperatorBuilder present() {
+		cmd().setConditionPredicate(
+				t -> t instanceof JQueryElement ? ((JQueryElement) t).getLength() > 0 : Is.present(t));
+		cmd().setBrowserCheck("present", null);
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public WaitOperatorBuilder hasText(String expected) {
+		cmd().setConditionPredicate(t -> {
+			String text = t instanceof WebElement ? ((WebElement) t).getText() : (t != null ? t.toString() : null);
+			return expected.equals(text);
+		});
+		cmd().setBrowserCheck("text", expected);
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public WaitOperatorBuilder hasCount(int min) {
+		cmd().setConditionPredicate(t -> {
+			long count = t instanceof JQueryElement ? ((JQueryElement) t).getLength() : (t != null ? 1 : 0);
+			return count >= min;
+		});
+		cmd().setBrowserCheck("count", min);
 		return this;
 	}
 
@@ -81,10 +185,181 @@ public class WaitBuilder implements WaitOperatorBuilder, WaitConditionTargetBuil
 
 	@Override
 	public boolean until(long timeout, long period, WebDriver webDriver) {
-		FluentWait<WebDriver> wait = new FluentWait<WebDriver>(webDriver).withTimeout(timeout, TimeUnit.MILLISECONDS)
-				.pollingEvery(period, TimeUnit.MILLISECONDS);
-		wait.ignoring(NoSuchElementException.class);
-		return wait.until(evalFunction);
+		long start = System.currentTimeMillis();
+		Boolean browserResult = untilInBrowser(timeout, period, webDriver);
+		if (browserResult != null) {
+			if (!browserResult) {
+				throw new TimeoutException(
+						"Timed out after " + timeout + " milliseconds waiting in browser for " + getBrowserConditions());
+			}
+			return true;
+		}
+
+		long remaining = Math.max(0, timeout - (System.currentTimeMillis() - start));
+		return poll(remaining, period);
+	}
+
+	/**
+	 * This method evaluates the commands until the conjunction of them is
+	 * fulfilled. The time between two checks starts with {@link #MIN_PERIOD}
+	 * and is doubled after each check up to provided period.
+	 * 
+	 * @param timeout
+	 *            maximum time to wait (in millis)
+	 * @param period
+	 *            maximum time between two checks (in millis)
+	 * @return returns true if the conditions are fulfilled.
+	 * @throws TimeoutException
+	 *             if the conditions are not fulfilled within the timeout
+	 */
+	protected boolean poll(long timeout, long period) {
+		List<WaitCommand<?>> orderedCommands = getOrderedCommands();
+		long end = System.currentTimeMillis() + timeout;
+		long interval = Math.min(MIN_PERIOD, period);
+		while (!evaluate(orderedCommands)) {
+			long remaining = end - System.currentTimeMillis();
+			if (remaining <= 0) {
+				throw new TimeoutException(
+						"Timed out after " + timeout + " milliseconds waiting for " + orderedCommands);
+			}
+			try {
+				Thread.sleep(Math.min(interval, remaining));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new WebDriverException(e);
+			}
+			interval = Math.min(interval * 2, period);
+		}
+		return true;
+	}
+
+	/**
+	 * @return returns the commands sorted by their cost (see
+	 *         {@link WaitCommand#getCost()}). Commands with same cost keep
+	 *         their declaration order.
+	 */
+	protected List<WaitCommand<?>> getOrderedCommands() {
+		List<WaitCommand<?>> result = new ArrayList<>(commands.size());
+		for (WaitCommand<?> cmd : commands) {
+			result.add(cmd);
+		}
+		result.sort(Comparator.comparingInt(WaitCommand<?>::getCost));
+		return result;
+	}
+
+	/**
+	 * This method evaluates provided commands once. The evaluation stops as
+	 * soon as the result is known: on the first unfulfilled command for
+	 * {@link ConjunctionType#AND} and on the first fulfilled one for
+	 * {@link ConjunctionType#OR}. A command, whose element is not found, is
+	 * not fulfilled.
+	 * 
+	 * @param orderedCommands
+	 * @return returns the result of the conjunction.
+	 */
+	protected boolean evaluate(List<WaitCommand<?>> orderedCommands) {
+		boolean any = conjunctionType == ConjunctionType.OR;
+		for (WaitCommand<?> cmd : orderedCommands) {
+			boolean result;
+			try {
+				result = cmd.eval();
+			} catch (NoSuchElementException ex) {
+				result = false;
+			}
+			if (result == any) {
+				return any;
+			}
+		}
+		return !any;
+	}
+
+	/**
+	 * This method waits by the {@link WaitEngine} of the browser, if all
+	 * declared conditions can be evaluated by it. These are the predefined
+	 * conditions ({@link #present()}, {@link #displayed()},
+	 * {@link #enabled()}, {@link #selected()}, {@link #hasText(String)} and
+	 * {@link #hasCount(int)}) and following spel conditions (see
+	 * {@link #spel(String)}):
+	 * <ul>
+	 * <li>{@code hasMatches()}, {@code isDisplayed()}, {@code isEnabled()} and
+	 * {@code isSelected()}</li>
+	 * <li>{@code is('selector')}</li>
+	 * <li>{@code text() == 'value'} or {@code getText() == 'value'}</li>
+	 * <li>{@code getLength() >= n} or {@code getLength() > n}</li>
+	 * <li>negation of the ones above by {@code !}, {@code not} or
+	 * {@code == false}</li>
+	 * </ul>
+	 * All other conditions, {@link #not()}, custom functions and several
+	 * commands combined by {@link ConjunctionType#OR} are polled by java.
+	 * 
+	 * @param timeout
+	 *            maximum time to wait (in millis)
+	 * @param period
+	 *            time between two checks (in millis), it's limited to
+	 *            {@link #BROWSER_INTERVAL}
+	 * @param webDriver
+	 *            driver or {@code NULL} for the default one
+	 * @return returns the result of the browser or {@code NULL}, if the
+	 *         conditions must be polled by java.
+	 */
+	protected Boolean untilInBrowser(long timeout, long period, WebDriver webDriver) {
+		if (!vaniContext.isBrowserWaitEnabled()) {
+			return null;
+		}
+		List<Map<String, Object>> conditions = getBrowserConditions();
+		if (conditions == null) {
+			return null;
+		}
+
+		try {
+			WebDriver driver = prepareAsyncWait(vaniContext, webDriver, timeout);
+			return vaniContext.getAppContext().getBean(WaitEngine.class).waitFor(conditions, timeout,
+					Math.min(period, BROWSER_INTERVAL), driver);
+		} catch (WebDriverException | JavaScriptException ex) {
+			logger.debug("waiting in browser failed, conditions are polled by java: " + ex.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * This method prepares the driver for a wait by an asynchronous script.
+	 * The script timeout is set to provided timeout plus
+	 * {@link #SCRIPT_TIMEOUT_MARGIN}, so the script can report the timeout
+	 * itself. The timeout remains set after the wait, so it's only called if
+	 * {@code vani.wait.browserEngine} is enabled.
+	 * 
+	 * @param vaniContext
+	 * @param webDriver
+	 *            driver or {@code NULL} for the default one
+	 * @param timeout
+	 *            maximum time to wait (in millis)
+	 * @return returns the driver executing the script.
+	 */
+	static WebDriver prepareAsyncWait(VaniContext vaniContext, WebDriver webDriver, long timeout) {
+		WebDriver result = webDriver != null ? webDriver : vaniContext.getAppContext().getBean(WebDriver.class);
+		result.manage().timeouts().setScriptTimeout(timeout + SCRIPT_TIMEOUT_MARGIN, TimeUnit.MILLISECONDS);
+		return result;
+	}
+
+	/**
+	 * @return returns the conditions of all commands for the
+	 *         {@link WaitEngine} or {@code NULL}, if at least one command can
+	 *         only be evaluated by java or several commands are combined by
+	 *         {@link ConjunctionType#OR}.
+	 */
+	protected List<Map<String, Object>> getBrowserConditions() {
+		if (commands.isEmpty() || (conjunctionType == ConjunctionType.OR && commands.size() > 1)) {
+			return null;
+		}
+		List<Map<String, Object>> result = new ArrayList<>(commands.size());
+		for (WaitCommand<?> cmd : commands) {
+			Map<String, Object> condition = cmd.getBrowserCondition();
+			if (condition == null) {
+				return null;
+			}
+			result.add(condition);
+		}
+		return result;
 	}
 
 	@Override
@@ -117,21 +392,26 @@ public class WaitBuilder implements WaitOperatorBuilder, WaitConditionTargetBuil
 	}
 
 	public WaitOperatorBuilder ajax(String url, long startInMillis, WebDriver webDriver) {
-		commands.add(new AjaxWaitCommand(vaniContext, url, startInMillis, webDriver));
-		return this;
+		return ajax(url, startInMillis, false, webDriver);
 	}
 
-	protected com.google.common.base.Function<WebDriver, Boolean> evalFunction = new com.google.common.base.Function<WebDriver, Boolean>() {
+	/**
+	 * @param url
+	 *            url pattern of the request
+	 * @param startInMillis
+	 *            only requests started after this timestamp are considered
+	 * @param completed
+	 *            if true, it waits until a matching request is finished, else
+	 *            until it is started
+	 * @param webDriver
+	 * @return returns this builder.
+	 * @see AjaxWaitCommand
+	 */
+	public WaitOperatorBuilder ajax(String url, long startInMillis, boolean completed, WebDriver webDriver) {
+		commands.add(new AjaxWaitCommand(vaniContext, url, startInMillis, completed, webDriver));
+		return this;
+	}
 
-		@Override
-		public Boolean apply(WebDriver webDriver) {
-			boolean result = true;
-			for (WaitCommand cmd : commands) {
-				result &= cmd.eval();
-			}
-			return result;
-		}
-	};
 
 	@SuppressWarnings("unchecked")
 	@Override
@@ -152,8 +432,7 @@ public class WaitBuilder implements WaitOperatorBuilder, WaitConditionTargetBuil
 	@Override
 	public WaitOperatorBuilder spel(String condition) {
 		cmd().setConditionPredicate(new Predicate<WebElement>() {
-			ExpressionParser parser = new SpelExpressionParser();
-			Expression exp = parser.parseExpression(condition);
+			Expression exp = CONDITIONS.get(condition);
 
 			@Override
 			public boolean test(WebElement element) {
@@ -161,9 +440,42 @@ public class WaitBuilder implements WaitOperatorBuilder, WaitConditionTargetBuil
 				return result;
 			}
 		});
+		setBrowserCheck(condition.trim(), false);
 		return this;
 	}
 
+	/**
+	 * This method declares the browser check of current command, if provided
+	 * spel condition is supported by the {@link WaitEngine} (see
+	 * {@link #untilInBrowser(long, long, WebDriver)}).
+	 * 
+	 * @param condition
+	 *            trimmed spel condition
+	 * @param negated
+	 *            true if the condition is negated
+	 */
+	protected void setBrowserCheck(String condition, boolean negated) {
+		Matcher matcher = SPEL_NEGATION.matcher(condition);
+		if (matcher.matches()) {
+			String negatedCondition = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+			setBrowserCheck(negatedCondition.trim(), !negated);
+			return;
+		}
+		if ((matcher = SPEL_CHECK.matcher(condition)).matches()) {
+			String check = matcher.group(1);
+			check = "hasMatches".equals(check) ? "present" : check.substring(2).toLowerCase();
+			cmd().setBrowserCheck(check, null, negated);
+		} else if ((matcher = SPEL_IS.matcher(condition)).matches()) {
+			cmd().setBrowserCheck("is", matcher.group(1), negated);
+		} else if ((matcher = SPEL_TEXT.matcher(condition)).matches()) {
+			cmd().setBrowserCheck("text", matcher.group(1), negated);
+		} else if ((matcher = SPEL_COUNT.matcher(condition)).matches()) {
+			int min = Integer.parseInt(matcher.group(2));
+			cmd().setBrowserCheck("count", ">".equals(matcher.group(1)) ? min + 1 : min, negated);
+		}
+	}
+
+	@Override
 	public WaitOperatorBuilder variable(String variableName) {
 		commands.add(new VariableWaitCommand(variableName, vaniContext.getAppContext().getBean(VaniUtils.class)));
 		return this;
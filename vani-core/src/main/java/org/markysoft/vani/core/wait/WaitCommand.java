@@ -1,5 +1,7 @@
 package org.markysoft.vani.core.wait;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -17,6 +19,9 @@ public abstract class WaitCommand<T> {
 	protected Predicate<T> conditionPredicate;
 	protected Supplier<Boolean> conditionSupplier;
 	protected String message;
+	protected String browserCheck;
+	protected Object browserCheckValue;
+	protected boolean browserCheckNegated;
 
 	public WaitCommand(T target) {
 		this.target = target;
@@ -28,14 +33,95 @@ public abstract class WaitCommand<T> {
 
 	public void setConditionFunction(Function<T, Boolean> conditionFunction) {
 		this.conditionFunction = conditionFunction;
+		this.browserCheck = null;
 	}
 
 	public void setConditionPredicate(Predicate<T> conditionPredicate) {
 		this.conditionPredicate = conditionPredicate;
+		this.browserCheck = null;
 	}
 
 	public void setConditionSupplier(Supplier<Boolean> conditionSupplier) {
 		this.conditionSupplier = conditionSupplier;
+		this.browserCheck = null;
+	}
+
+	/**
+	 * This method declares the check, which is equivalent to the condition
+	 * predicate and can be evaluated by the browser (see
+	 * {@link org.markysoft.vani.core.javascript.WaitEngine}). It must be set
+	 * after the predicate, because setting a condition resets it.
+	 * 
+	 * @param browserCheck
+	 *            name of the check
+	 * @param browserCheckValue
+	 *            expected value of the check or {@code NULL}
+	 */
+	public void setBrowserCheck(String browserCheck, Object browserCheckValue) {
+		setBrowserCheck(browserCheck, browserCheckValue, false);
+	}
+
+	/**
+	 * This method declares the check like
+	 * {@link #setBrowserCheck(String, Object)}, whose result can be inverted.
+	 * 
+	 * @param browserCheck
+	 *            name of the check
+	 * @param browserCheckValue
+	 *            expected value of the check or {@code NULL}
+	 * @param negated
+	 *            true if the condition is fulfilled, when the check fails
+	 */
+	public void setBrowserCheck(String browserCheck, Object browserCheckValue, boolean negated) {
+		this.browserCheck = browserCheck;
+		this.browserCheckValue = browserCheckValue;
+		this.browserCheckNegated = negated;
+	}
+
+	/**
+	 * @return returns the condition for
+	 *         {@link org.markysoft.vani.core.javascript.WaitEngine} or
+	 *         {@code NULL} if this command can only be evaluated by java.
+	 */
+	public Map<String, Object> getBrowserCondition() {
+		if (browserCheck == null || notFlag || conditionFunction != null || conditionSupplier != null) {
+			return null;
+		}
+		Map<String, Object> result = getBrowserTarget();
+		if (result != null) {
+			result.put("check", browserCheck);
+			if (browserCheckValue != null) {
+				result.put("value", browserCheckValue);
+			}
+			if (browserCheckNegated) {
+				result.put("negate", true);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return returns the description of the target for
+	 *         {@link org.markysoft.vani.core.javascript.WaitEngine} or
+	 *         {@code NULL} if the target is not available in the browser.
+	 */
+	protected Map<String, Object> getBrowserTarget() {
+		return null;
+	}
+
+	protected Map<String, Object> createBrowserTarget(String key, Object value) {
+		Map<String, Object> result = new HashMap<>(4);
+		result.put(key, value);
+		return result;
+	}
+
+	/**
+	 * @return returns the relative cost of one evaluation. Cheaper commands are
+	 *         evaluated first, so the result of a wait can often be decided
+	 *         without evaluating the expensive ones (see {@link WaitBuilder}).
+	 */
+	public int getCost() {
+		return 1;
 	}
 
 	public void setMessage(String message) {
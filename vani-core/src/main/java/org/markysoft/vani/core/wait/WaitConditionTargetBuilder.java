@@ -13,4 +13,6 @@ public interface WaitConditionTargetBuilder {
 	public WaitOperatorBuilder element(String selector, SearchContext rootElement);
 
 	WaitOperatorBuilder webDriver(WebDriver webDriver);
+
+	WaitOperatorBuilder variable(String variableName);
 }
@@ -4,8 +4,19 @@ import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import org.markysoft.vani.core.condition.Is;
 import org.openqa.selenium.WebDriver;
 
+/**
+ * The conditions {@link #displayed()}, {@link #enabled()},
+ * {@link #selected()}, {@link #present()}, {@link #hasText(String)},
+ * {@link #hasCount(int)} and the predicates {@link Is#DISPLAYED},
+ * {@link Is#ENABLED} and {@link Is#SELECTED} can be evaluated by the browser.
+ * If all declared conditions support it, the wait is executed by one
+ * asynchronous script, which polls in the page (see
+ * {@link org.markysoft.vani.core.javascript.WaitEngine}). Else the conditions
+ * are polled by java.
+ */
 public interface WaitOperatorBuilder {
 
 	WaitOperatorBuilder is(Predicate<?> predicate);
@@ -16,6 +27,44 @@ public interface WaitOperatorBuilder {
 
 	public <T, R> WaitOperatorBuilder has(Function<T, R> function, R expected);
 
+	/**
+	 * checks whether the target is displayed (see {@link Is#displayed(Object)}).
+	 */
+	WaitOperatorBuilder displayed();
+
+	/**
+	 * checks whether the target is enabled (see {@link Is#enabled(Object)}).
+	 */
+	WaitOperatorBuilder enabled();
+
+	/**
+	 * checks whether the target is selected (see {@link Is#selected(Object)}).
+	 */
+	WaitOperatorBuilder selected();
+
+	/**
+	 * checks whether the selector matches at least one element or the variable
+	 * is set (see {@link Is#present(Object)}).
+	 */
+	WaitOperatorBuilder present();
+
+	/**
+	 * checks whether the text of the target or the value of the variable is
+	 * equal to provided one.
+	 * 
+	 * @param expected
+	 */
+	WaitOperatorBuilder hasText(String expected);
+
+	/**
+	 * checks whether the selector matches at least the provided count of
+	 * elements.
+	 * 
+	 * @param min
+	 *            minimum count of matched elements
+	 */
+	WaitOperatorBuilder hasCount(int min);
+
 	WaitOperatorBuilder not();
 
 	public WaitConditionTargetBuilder and();
@@ -31,7 +80,9 @@ public interface WaitOperatorBuilder {
 	 * @param period
 	 *            after that time the check will be executed (in millis)
 	 * @param webDriver
-	 * @return returns true, if condition is fulfilled, else false
+	 * @return returns true, if condition is fulfilled
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             will be thrown, when the condition is not fulfilled in time
 	 */
 	public boolean until(long timeout, long period, WebDriver webDriver);
 
@@ -42,12 +93,15 @@ public interface WaitOperatorBuilder {
 	 *            maximum time to wait (in millis)
 	 * @param period
 	 *            after that time the check will be executed (in millis)
-	 * @return returns true, if condition is fulfilled, else false
+	 * @return returns true, if condition is fulfilled
+	 * @throws org.openqa.selenium.TimeoutException
+	 *             will be thrown, when the condition is not fulfilled in time
 	 */
 	public boolean until(long timeout, long period);
 
 	/**
-	 * evaluate expresssion defined by spring expression language
+	 * evaluate expresssion defined by spring expression language. The
+	 * condition {@code hasMatches()} is also evaluated by the browser.
 	 * 
 	 * @param condition
 	 *            spel expression
@@ -2,14 +2,21 @@ package org.markysoft.vani.core.wait;
 
 import java.util.concurrent.TimeUnit;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.markysoft.vani.core.VaniContext;
-import org.openqa.selenium.JavascriptExecutor;
+import org.markysoft.vani.core.javascript.JavaScriptException;
+import org.markysoft.vani.core.javascript.WaitEngine;
+import org.markysoft.vani.core.javascript.XhrTracking;
 import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.springframework.beans.factory.annotation.Autowired;
 
 public class WaitUtil {
+	protected final Log logger = LogFactory.getLog(getClass());
 	@Autowired
 	protected VaniContext vaniContext;
 
@@ -33,6 +40,20 @@ public class WaitUtil {
 		return new WaitBuilder(vaniContext).webDriver(value);
 	}
 
+	/**
+	 * This method prepares the driver for a wait by an asynchronous script, so
+	 * the script can report the timeout itself.
+	 * 
+	 * @param webDriver
+	 *            driver or {@code NULL} for the default one
+	 * @param timeoutInMillis
+	 *            maximum time to wait
+	 * @return returns the driver executing the script.
+	 */
+	public WebDriver prepareAsyncWait(WebDriver webDriver, long timeoutInMillis) {
+		return WaitBuilder.prepareAsyncWait(vaniContext, webDriver, timeoutInMillis);
+	}
+
 	public void wait(long millis, WebDriver driver) {
 		driver.manage().timeouts().implicitlyWait(millis, TimeUnit.MILLISECONDS);
 	}
@@ -45,24 +66,45 @@ public class WaitUtil {
 	}
 
 	/**
-	 * will wait until all jquery ajaxCalls are finished or given timeout is
-	 * reached
+	 * will wait until all ajaxCalls are finished or given timeout is reached.
+	 * Beside jquery, requests started by {@code XMLHttpRequest} or
+	 * {@code fetch} are considered (see {@link XhrTracking}). If
+	 * {@code vani.wait.browserEngine} is enabled, the page notifies the end of
+	 * the requests through one asynchronous script (see
+	 * {@link XhrTracking#awaitIdle(long, WebDriver)}). Else or if it fails, the
+	 * count of active requests is polled. Requests, which never end (e.g. long
+	 * polling), must be excluded by {@code vani.javascript.xhrIdleExclusions},
+	 * else the timeout is always reached.
 	 * 
 	 * @param timeoutInMillis
+	 * @return returns the waited time in millis until no request was in flight
+	 *         or {@code -1} if the timeout is reached.
 	 */
-	public void ajaxJQuery(long timeoutInMillis, WebDriver webDriver) {
+	public long ajaxJQuery(long timeoutInMillis, WebDriver webDriver) {
+		XhrTracking xhrTracking = vaniContext.getAppContext().getBean(XhrTracking.class);
 		long start = System.currentTimeMillis();
+		if (vaniContext.isBrowserWaitEnabled()) {
+			try {
+				WebDriver driver = prepareAsyncWait(webDriver, timeoutInMillis);
+				long result = xhrTracking.awaitIdle(timeoutInMillis, driver);
+				logger.debug("waited " + result + " ms for finishing ajax requests");
+				return result;
+			} catch (WebDriverException | JavaScriptException ex) {
+				logger.debug("waiting in browser failed, requests are polled by java: " + ex.getMessage());
+			}
+		}
 		while ((System.currentTimeMillis() - start) < timeoutInMillis) {
-			Long activeAjaxCalls = (Long) ((JavascriptExecutor) webDriver).executeScript("return $.active;");
+			long activeAjaxCalls = xhrTracking.getActiveRequests(webDriver);
 			if (activeAjaxCalls > 0) {
 				try {
 					Thread.sleep(100);
 				} catch (InterruptedException e) {
 				}
 			} else {
-				break;
+				return System.currentTimeMillis() - start;
 			}
 		}
+		return -1;
 	}
 
 	/**
@@ -72,10 +114,12 @@ public class WaitUtil {
 	 * @param timeoutInMillis
 	 * @param delayInMillis
 	 *            after this delay the check begins to work
+	 * @return returns the waited time in millis (without delay) or {@code -1}
+	 *         if the timeout is reached.
 	 */
-	public void ajaxJQuery(long timeoutInMillis, long delayInMillis, WebDriver webDriver) {
+	public long ajaxJQuery(long timeoutInMillis, long delayInMillis, WebDriver webDriver) {
 		waitTime(delayInMillis);
-		ajaxJQuery(timeoutInMillis, webDriver);
+		return ajaxJQuery(timeoutInMillis, webDriver);
 	}
 
 	/**
@@ -93,4 +137,138 @@ public class WaitUtil {
 	public void ajaxJQuery(String url, long startInMillis, long timeoutInMillis, WebDriver webDriver) {
 		new WaitBuilder(vaniContext).ajax(url, startInMillis, webDriver).until(timeoutInMillis, 500, webDriver);
 	}
+
+	/**
+	 * will wait until a request for given URL (regex is also supported), which
+	 * is sent after provided {@code startInMillis} mark, is finished or given
+	 * {@code timeoutInMillis} is reached. Requests started by jquery,
+	 * {@code XMLHttpRequest} or {@code fetch} are considered.
+	 * 
+	 * @param url
+	 *            requested url
+	 * @param startInMillis
+	 *            start time for filtering
+	 * @param timeoutInMillis
+	 * @param webDriver
+	 */
+	public void ajaxCompleted(String url, long startInMillis, long timeoutInMillis, WebDriver webDriver) {
+		new WaitBuilder(vaniContext).ajax(url, startInMillis, true, webDriver).until(timeoutInMillis, 500,
+				webDriver);
+	}
+
+	/**
+	 * will wait until the page is settled or given timeout is reached. The
+	 * page is settled, when the document is loaded, no request is in flight,
+	 * no finite animation is running and the document was not changed for the
+	 * quiet time configured by {@code vani.wait.pageIdleQuietMillis} (see
+	 * {@link WaitEngine#waitForPageIdle(long, long, long, WebDriver)}). All
+	 * conditions are evaluated in the page, so it returns as soon as the page
+	 * is settled. If {@code vani.wait.browserEngine} is disabled or the script
+	 * fails, it waits for finishing ajax requests (see
+	 * {@link #ajaxJQuery(long, WebDriver)}).
+	 * 
+	 * @param timeoutInMillis
+	 * @param webDriver
+	 * @return returns the waited time in millis until the page was settled or
+	 *         {@code -1} if the timeout is reached.
+	 */
+	public long pageIdle(long timeoutInMillis, WebDriver webDriver) {
+		return pageIdle(vaniContext.getPageIdleQuietMillis(), timeoutInMillis, webDriver);
+	}
+
+	/**
+	 * will wait until the page is settled or given timeout is reached (see
+	 * {@link #pageIdle(long, WebDriver)}).
+	 * 
+	 * @param quietInMillis
+	 *            time without changes of the document
+	 * @param timeoutInMillis
+	 * @param webDriver
+	 * @return returns the waited time in millis until the page was settled or
+	 *         {@code -1} if the timeout is reached.
+	 */
+	public long pageIdle(long quietInMillis, long timeoutInMillis, WebDriver webDriver) {
+		long start = System.currentTimeMillis();
+		if (vaniContext.isBrowserWaitEnabled()) {
+			try {
+				WebDriver driver = prepareAsyncWait(webDriver, timeoutInMillis);
+				long result = vaniContext.getAppContext().getBean(WaitEngine.class).waitForPageIdle(quietInMillis,
+						timeoutInMillis, WaitBuilder.BROWSER_INTERVAL, driver);
+				logger.debug("waited " + result + " ms until page was settled");
+				return result;
+			} catch (WebDriverException | JavaScriptException ex) {
+				logger.debug("waiting in browser failed, wait for finishing ajax requests: " + ex.getMessage());
+			}
+		}
+		long remaining = Math.max(0, timeoutInMillis - (System.currentTimeMillis() - start));
+		return ajaxJQuery(remaining, webDriver);
+	}
+
+	/**
+	 * This method returns the sequence of the latest request tracked in the
+	 * page, which can be used as expectation for
+	 * {@link #ajaxCompleted(String, long, long, long, WebDriver)}. The request
+	 * tracking is injected, if it is missing. So it should be called before
+	 * the action causing the request.
+	 * 
+	 * @param webDriver
+	 * @return returns the sequence or {@code -1} if the tracking is not
+	 *         available.
+	 */
+	public long getAjaxSequence(WebDriver webDriver) {
+		try {
+			return vaniContext.getAppContext().getBean(XhrTracking.class).getSequence(webDriver);
+		} catch (WebDriverException | JavaScriptException ex) {
+			logger.debug("request tracking is not available: " + ex.getMessage());
+			return -1;
+		}
+	}
+
+	/**
+	 * will wait until a request for given URL (regex is also supported), which
+	 * is sent after provided {@code sinceSequence} and {@code startInMillis}
+	 * mark, is finished or given {@code timeoutInMillis} is reached. If the
+	 * sequence is {@code 0}, the first request after {@code startInMillis} is
+	 * determined by the waiting script itself, so no additional round trip is
+	 * necessary before the action causing the request. If
+	 * {@code vani.wait.browserEngine} is enabled, the completion is reported by
+	 * the page through one asynchronous script, so no polling is necessary. If
+	 * it is disabled, the sequence is unknown or the script fails, it falls
+	 * back to {@link #ajaxCompleted(String, long, long, WebDriver)}.
+	 * 
+	 * @param url
+	 *            requested url
+	 * @param sinceSequence
+	 *            sequence returned by {@link #getAjaxSequence(WebDriver)} or
+	 *            {@code 0} to filter by {@code startInMillis} only
+	 * @param startInMillis
+	 *            start time for filtering
+	 * @param timeoutInMillis
+	 * @param webDriver
+	 * @throws TimeoutException
+	 *             will be thrown, when no matching request is finished in time
+	 */
+	public void ajaxCompleted(String url, long sinceSequence, long startInMillis, long timeoutInMillis,
+			WebDriver webDriver) {
+		long start = System.currentTimeMillis();
+		if (sinceSequence >= 0 && vaniContext.isBrowserWaitEnabled()) {
+			Boolean completed = null;
+			try {
+				WebDriver driver = prepareAsyncWait(webDriver, timeoutInMillis);
+				completed = vaniContext.getAppContext().getBean(XhrTracking.class).awaitCompletion(url,
+						sinceSequence, startInMillis, timeoutInMillis, driver);
+			} catch (WebDriverException | JavaScriptException ex) {
+				logger.debug("waiting in browser failed, requests are polled by java: " + ex.getMessage());
+			}
+			if (completed != null) {
+				if (!completed) {
+					throw new TimeoutException("Timed out after " + timeoutInMillis
+							+ " milliseconds waiting for completion of request '" + url + "'");
+				}
+				return;
+			}
+		}
+		long remaining = Math.max(0, timeoutInMillis - (System.currentTimeMillis() - start));
+		ajaxCompleted(url, startInMillis, remaining, webDriver);
+	}
 }
@@ -1,5 +1,8 @@
 package org.markysoft.vani.core.wait;
 
+import java.util.Map;
+
+import org.markysoft.vani.core.locating.JQueryElement;
 import org.openqa.selenium.WebElement;
 
 public class WebElementWaitCommand extends WaitCommand<WebElement> {
@@ -7,4 +10,23 @@ public class WebElementWaitCommand extends WaitCommand<WebElement> {
 		super(target);
 	}
 
+	/**
+	 * Only {@link JQueryElement} targets are evaluated by the browser, because
+	 * the checks of the browser use the semantics of jquery (e.g.
+	 * {@code :visible} and {@code text()}). Other elements are evaluated by
+	 * selenium (e.g. {@link WebElement#isDisplayed()} and the normalized
+	 * {@link WebElement#getText()}), which differs from them.
+	 */
+	@Override
+	protected Map<String, Object> getBrowserTarget() {
+		Map<String, Object> result = null;
+		if (target instanceof JQueryElement) {
+			String reference = ((JQueryElement) target).getReference();
+			if (reference != null) {
+				result = createBrowserTarget("ref", reference);
+			}
+		}
+		return result;
+	}
+
 }
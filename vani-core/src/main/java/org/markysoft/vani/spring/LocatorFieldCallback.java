@@ -18,6 +18,7 @@ import org.markysoft.vani.core.locating.VaniElementLocator;
 import org.markysoft.vani.core.locating.factory.Annotations;
 import org.markysoft.vani.core.locating.factory.ElementLocatorFactory;
 import org.markysoft.vani.core.locating.factory.LocatorBuilderFactory;
+import org.markysoft.vani.core.locating.factory.ProxyClassCache;
 import org.markysoft.vani.core.locating.locator.ByJQuery;
 import org.markysoft.vani.core.util.ElementInterceptor;
 import org.markysoft.vani.core.util.FieldTypeInfo;
@@ -33,15 +34,16 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.ReflectionUtils.FieldCallback;
 
-import net.bytebuddy.ByteBuddy;
-import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
-import net.bytebuddy.implementation.MethodDelegation;
+import net.bytebuddy.implementation.bind.annotation.Pipe;
 import net.bytebuddy.matcher.ElementMatchers;
 
 public class LocatorFieldCallback implements FieldCallback {
 	private static Log logger = LogFactory.getLog(LocatorFieldCallback.class);
 	private static final List<Class<? extends Annotation>> APPLICABLE_ANNOTATIONS = Arrays.asList(FindBy.class,
 			FindBys.class, FindAll.class);
+	/** proxy classes of located fields, which are shared by all beans */
+	private static final ProxyClassCache PROXIES = new ProxyClassCache(ElementMatchers.any(),
+			ElementInterceptor.class, Pipe.Binder.install(ElementInterceptor.Forwarder.class));
 
 	private Object bean;
 	private VaniContext vaniContext;
@@ -115,7 +117,9 @@ public class LocatorFieldCallback implements FieldCallback {
 	}
 
 	/**
-	 * method to create a proxy object for given field of specified class.
+	 * method to create a proxy object for given field of specified class. The
+	 * proxy class is only generated once per type (see
+	 * {@link ProxyClassCache}).
 	 * 
 	 * @param targetClass
 	 * @param elementLocator
@@ -128,15 +132,7 @@ public class LocatorFieldCallback implements FieldCallback {
 			throws UnresolvableLocatorException {
 		R result;
 		try {
-			//@formatter:off
-			result = (R) new ByteBuddy()
-					.subclass(targetClass)
-					.method(ElementMatchers.any())
-					.intercept(MethodDelegation.to(new ElementInterceptor(elementLocator)))
-					.make()
-					.load(getClass().getClassLoader(), ClassLoadingStrategy.Default.WRAPPER).getLoaded()
-					.newInstance();
-			//@formatter:on
+			result = PROXIES.newInstance(targetClass, new ElementInterceptor(elementLocator));
 		} catch (Exception ex) {
 			throw new UnresolvableLocatorException(
 					"cannot resolve locator for class '" + targetClass + "' and field '" + field + "': " + ex, ex);
@@ -19,6 +19,7 @@ import org.markysoft.vani.core.locating.RegionObject;
 import org.markysoft.vani.core.locating.UnableToLocateException;
 import org.markysoft.vani.core.locating.UnresolvableLocatorException;
 import org.markysoft.vani.core.locating.factory.LocatorBuilderFactory;
+import org.markysoft.vani.core.locating.factory.ProxyClassCache;
 import org.markysoft.vani.core.locating.factory.RegionFactory;
 import org.markysoft.vani.core.locating.locator.ByJQuery;
 import org.markysoft.vani.core.locating.locator.FindByJQuery;
@@ -34,12 +35,12 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
-import net.bytebuddy.ByteBuddy;
-import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
-import net.bytebuddy.implementation.MethodDelegation;
 import net.bytebuddy.matcher.ElementMatchers;
 
 public class SpringRegionFactory implements RegionFactory {
+	/** proxy classes of regions with {@link Xhr} methods */
+	private static final ProxyClassCache PROXIES = new ProxyClassCache(ElementMatchers.isAnnotatedWith(Xhr.class),
+			XhrInterceptor.class);
 	private final Log logger = LogFactory.getLog(getClass());
 	private ConfigurableListableBeanFactory configurableBeanFactory;
 	@Autowired
@@ -255,25 +256,17 @@ public class SpringRegionFactory implements RegionFactory {
 
 	/**
 	 * method to create a proxy object for given class which intercepts methods
-	 * annotated with {@link Xhr}.
+	 * annotated with {@link Xhr}. The proxy class is only generated once per
+	 * type (see {@link ProxyClassCache}).
 	 * 
 	 * @param targetClass
 	 * @return
 	 * @throws UnableToLocateException
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	protected <R> R createProxy(Class<R> targetClass, WebDriver webDriver) throws UnresolvableLocatorException {
 		R result;
 		try {
-			//@formatter:off
-			result = new ByteBuddy()
-					.subclass(targetClass)
-					.method(ElementMatchers.isAnnotatedWith(Xhr.class))
-					.intercept(MethodDelegation.to(new XhrInterceptor(vaniContext,webDriver)))
-					.make()
-					.load(getClass().getClassLoader(), ClassLoadingStrategy.Default.WRAPPER).getLoaded()
-					.newInstance();
-			//@formatter:on
+			result = PROXIES.newInstance(targetClass, new XhrInterceptor(vaniContext, webDriver));
 		} catch (Exception ex) {
 			throw new UnableToLocateException("cannot instantiate proxy for '" + targetClass + "': " + ex, ex);
 		}
@@ -0,0 +1,31 @@
+// reads the specified columns of all matched elements in one call. Each column
+// contains the name of the value, an optional selector relative to the matched
+// element and the property to read, e.g. 'text', 'val', 'width', 'offset' or
+// 'attr:href', 'prop:checked', 'css:color', 'data:id'.
+$.fn.vaniExtract = function(columns){
+	var read = function(target, property){
+		if(target.length === 0){
+			return null;
+		}
+		var value;
+		var index = property.indexOf(':');
+		if(index > 0){
+			value = target[property.substring(0, index)](property.substring(index + 1));
+		} else if(property === 'offset'){
+			var offset = target.offset();
+			value = offset ? {left: offset.left, top: offset.top} : null;
+		} else {
+			value = target[property]();
+		}
+		return value === undefined ? null : value;
+	};
+	return this.map(function(){
+		var element = $(this);
+		var row = {};
+		for(var i = 0; i < columns.length; i++){
+			var column = columns[i];
+			row[column[0]] = read(column[1] ? element.find(column[1]).first() : element, column[2]);
+		}
+		return row;
+	}).get();
+};
\ No newline at end of file
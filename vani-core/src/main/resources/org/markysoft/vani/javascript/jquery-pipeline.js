@@ -0,0 +1,16 @@
+// executes the recorded traversal steps of a JQueryPipeline and applies the
+// terminal operation to the result. Without terminal operation, the resulting
+// jquery object is returned.
+$.fn.vaniPipeline = function(steps, terminal, terminalArgs){
+	var result = this;
+	for(var i = 0; steps && i < steps.length; i++){
+		result = result[steps[i][0]].apply(result, steps[i][1]);
+	}
+	if(!terminal){
+		return result;
+	}
+	if(terminal === 'length'){
+		return result.length;
+	}
+	return result[terminal].apply(result, terminalArgs || []);
+};
\ No newline at end of file
@@ -2,27 +2,314 @@ if(!window.vani){
 	window.vani = {};
 }
 
-window.vani.xhrTracking = {
-	startedRequests: [],
-	hasRequestFor: function(url, start){
-		var regex = new RegExp(url);
-		var result = false;
-		for(i in window.vani.xhrTracking.startedRequests){
-			var xhr = window.vani.xhrTracking.startedRequests[i];
-			if(xhr.timestamp > start && regex.test(xhr.settings.url)){
-				result = true;
-				break;
+// The requests started by XMLHttpRequest (including jquery ajax) and fetch are
+// recorded in a ring buffer, so the tracking doesn't grow for the life of the
+// page. Each request gets an ascending sequence number, so the java side can
+// fetch new requests incrementally. Because the timestamps are ascending too,
+// scans can stop at the requested start. Additionally the count of requests in
+// flight is tracked and callers can wait for the completion of a request or
+// for the end of all requests without polling.
+// Jquery requests, which don't use XMLHttpRequest (jsonp and cross domain
+// scripts), are tracked by the ajaxSend and ajaxComplete events of jquery. A
+// fetch is completed when its body is read. Requests matching an idle
+// exclusion (e.g. long polling or streaming) are recorded, but they are not
+// counted as in flight.
+if(!window.vani.xhrTracking){
+	window.vani.xhrTracking = (function(){
+		var capacity = 1000;
+		var buffer = [];
+		var nextSequence = 1;
+		var oldestSequence = 1;
+		var active = 0;
+		var waiters = [];
+		var idleWaiters = [];
+		var ajaxStopBound = false;
+		var jqueryBound = false;
+		var exclusions = [];
+		var excludedJQuery = 0;
+		var patterns = {};
+		var patternCount = 0;
+		var getPattern = function(url){
+			var pattern = patterns[url];
+			if(!pattern){
+				if(patternCount >= 100){
+					patterns = {};
+					patternCount = 0;
+				}
+				pattern = patterns[url] = new RegExp(url);
+				patternCount++;
 			}
-		}
-		return result;
-	}
-};
+			return pattern;
+		};
+		var getFirstSequenceAfter = function(start){
+			var sequence = nextSequence;
+			while(sequence > oldestSequence && buffer[(sequence - 1) % capacity].timestamp > start){
+				sequence--;
+			}
+			return sequence;
+		};
+		// the waiter is notified in a new task, so the handlers of the page
+		// (e.g. jquery callbacks or chained promises) are executed before
+		var notify = function(waiter, result){
+			clearTimeout(waiter.timer);
+			waiters.splice(waiters.indexOf(waiter), 1);
+			setTimeout(function(){
+				waiter.callback(result);
+			}, 0);
+		};
+		var isExcluded = function(url){
+			for(var i = 0; i < exclusions.length; i++){
+				if(exclusions[i].test(url)){
+					return true;
+				}
+			}
+			return false;
+		};
+		var getActive = function(){
+			bindJQuery();
+			var jqueryActive = typeof jQuery !== 'undefined' && jQuery.active ? jQuery.active - excludedJQuery : 0;
+			return Math.max(active, jqueryActive);
+		};
+		var removeIdleWaiter = function(waiter){
+			clearTimeout(waiter.timer);
+			clearInterval(waiter.poll);
+			idleWaiters.splice(idleWaiters.indexOf(waiter), 1);
+		};
+		var checkIdle = function(){
+			if(idleWaiters.length > 0 && getActive() === 0){
+				var idle = idleWaiters.slice();
+				for(var i = 0; i < idle.length; i++){
+					(function(waiter){
+						removeIdleWaiter(waiter);
+						setTimeout(function(){
+							waiter.callback(Date.now() - waiter.start);
+						}, 0);
+					})(idle[i]);
+				}
+			}
+		};
+		var matches = function(waiter, request){
+			return request.sequence >= waiter.firstSequence && request.completed !== null
+					&& waiter.regex.test(request.url);
+		};
+		var tracking = {
+			record: function(url, method, type){
+				var request = {
+					sequence: nextSequence,
+					url: url,
+					method: method,
+					type: type,
+					timestamp: Date.now(),
+					completed: null,
+					excluded: isExcluded(url)
+				};
+				buffer[nextSequence % capacity] = request;
+				nextSequence++;
+				oldestSequence = Math.max(oldestSequence, nextSequence - capacity);
+				if(!request.excluded){
+					active++;
+				}
+				return request;
+			},
+			complete: function(request){
+				if(request.completed === null){
+					request.completed = Date.now();
+					if(!request.excluded){
+						active--;
+					}
+					for(var i = waiters.length - 1; i >= 0; i--){
+						if(matches(waiters[i], request)){
+							notify(waiters[i], true);
+						}
+					}
+					checkIdle();
+				}
+			},
+			// calls back with the waited time as soon as no request is in flight
+			// or with -1 when the timeout is exceeded. Requests started before
+			// the tracking was injected are observed by the ajaxStop event of
+			// jquery and a short poll.
+			awaitIdle: function(timeout, callback){
+				if(getActive() === 0){
+					callback(0);
+					return;
+				}
+				var waiter = {start: Date.now(), callback: callback};
+				idleWaiters.push(waiter);
+				if(!ajaxStopBound && typeof jQuery !== 'undefined'){
+					jQuery(document).on('ajaxStop', checkIdle);
+					ajaxStopBound = true;
+				}
+				waiter.poll = setInterval(checkIdle, 50);
+				waiter.timer = setTimeout(function(){
+					removeIdleWaiter(waiter);
+					callback(-1);
+				}, timeout);
+			},
+			// calls back with true as soon as a request matching the url, which
+			// is recorded after the provided sequence and start timestamp, is
+			// completed. If this doesn't happen before the timeout, false is
+			// provided. An unknown sequence (or 0) is handled like by
+			// getRequests, so the first request is taken from the start
+			// timestamp.
+			awaitCompletion: function(url, sinceSequence, start, timeout, callback){
+				if(sinceSequence >= nextSequence){
+					sinceSequence = 0;
+				}
+				var waiter = {
+					regex: getPattern(url),
+					firstSequence: Math.max(sinceSequence + 1, getFirstSequenceAfter(start)),
+					callback: callback
+				};
+				waiters.push(waiter);
+				for(var sequence = waiter.firstSequence; sequence < nextSequence; sequence++){
+					if(matches(waiter, buffer[sequence % capacity])){
+						notify(waiter, true);
+						return;
+					}
+				}
+				waiter.timer = setTimeout(function(){
+					notify(waiter, false);
+				}, timeout);
+			},
+			// returns the count of requests in flight. Requests started before
+			// the tracking was injected are only known by jquery.
+			getActive: getActive,
+			hasRequestFor: function(url, start){
+				var regex = getPattern(url);
+				for(var sequence = nextSequence - 1; sequence >= oldestSequence; sequence--){
+					var xhr = buffer[sequence % capacity];
+					if(xhr.timestamp <= start){
+						break;
+					}
+					if(regex.test(xhr.url)){
+						return true;
+					}
+				}
+				return false;
+			},
+			// returns the requests recorded after the provided sequence and
+			// start timestamp. If the sequence is unknown (e.g. it belongs to a
+			// previous page), only the start timestamp is used.
+			getRequests: function(sinceSequence, start){
+				if(sinceSequence >= nextSequence){
+					sinceSequence = 0;
+				}
+				var result = [];
+				var sequence = Math.max(sinceSequence + 1, getFirstSequenceAfter(start));
+				for(; sequence < nextSequence; sequence++){
+					result.push(buffer[sequence % capacity]);
+				}
+				return result;
+			},
+			getSequence: function(){
+				return nextSequence - 1;
+			},
+			setCapacity: function(value){
+				if(!(value > 0)){
+					throw 'capacity must be greater than 0: ' + value;
+				}
+				oldestSequence = Math.max(oldestSequence, nextSequence - value);
+				var newBuffer = [];
+				for(var sequence = oldestSequence; sequence < nextSequence; sequence++){
+					newBuffer[sequence % value] = buffer[sequence % capacity];
+				}
+				buffer = newBuffer;
+				capacity = value;
+			},
+			// requests matching one of the provided url patterns are not
+			// counted as in flight, e.g. long polling or streaming requests
+			setIdleExclusions: function(urls){
+				exclusions = [];
+				for(var i = 0; i < urls.length; i++){
+					exclusions.push(new RegExp(urls[i]));
+				}
+			}
+		};
+		// the transports of jquery, which don't use XMLHttpRequest, are only
+		// visible by the global ajax events. The requests of jquery matching
+		// an idle exclusion are counted, so they can be subtracted from
+		// jQuery.active.
+		var bindJQuery = function(){
+			if(!jqueryBound && typeof jQuery !== 'undefined'){
+				jqueryBound = true;
+				jQuery(document).on('ajaxSend', function(event, jqxhr, settings){
+					if(settings.crossDomain && settings.dataTypes && settings.dataTypes[0] === 'script'){
+						jqxhr.vaniRequest = tracking.record(settings.url, settings.type, 'script');
+					}
+					if(isExcluded(settings.url)){
+						jqxhr.vaniExcluded = true;
+						excludedJQuery++;
+					}
+				});
+				jQuery(document).on('ajaxComplete', function(event, jqxhr){
+					if(jqxhr.vaniRequest){
+						tracking.complete(jqxhr.vaniRequest);
+						jqxhr.vaniRequest = null;
+					}
+					if(jqxhr.vaniExcluded){
+						jqxhr.vaniExcluded = false;
+						excludedJQuery--;
+					}
+				});
+			}
+		};
+		bindJQuery();
+		return tracking;
+	})();
 
-if(typeof jQuery !== 'undefined'){
-	$(document).ajaxSend(function( event, jqxhr, settings ) {
-		var timestamp = Date.now();
-		window.vani.xhrTracking.startedRequests.push(
-				{settings: settings, timestamp: timestamp}
-		);
-	});
+	(function(tracking){
+		if(window.XMLHttpRequest){
+			var open = XMLHttpRequest.prototype.open;
+			var send = XMLHttpRequest.prototype.send;
+			XMLHttpRequest.prototype.open = function(method, url){
+				this.vaniRequest = {method: method, url: String(url)};
+				return open.apply(this, arguments);
+			};
+			XMLHttpRequest.prototype.send = function(){
+				var request = null;
+				if(this.vaniRequest){
+					request = tracking.record(this.vaniRequest.url, this.vaniRequest.method, 'xhr');
+					this.addEventListener('loadend', function(){
+						tracking.complete(request);
+					});
+				}
+				try{
+					return send.apply(this, arguments);
+				}catch(ex){
+					if(request){
+						tracking.complete(request);
+					}
+					throw ex;
+				}
+			};
+		}
+		if(window.fetch){
+			var fetch = window.fetch;
+			window.fetch = function(input, init){
+				var url = input && input.url ? input.url : String(input);
+				var method = init && init.method ? init.method : (input && input.method ? input.method : 'GET');
+				var request = tracking.record(url, method, 'fetch');
+				try{
+					return fetch.apply(this, arguments).then(function(response){
+						var done = function(){
+							tracking.complete(request);
+						};
+						try{
+							response.clone().arrayBuffer().then(done, done);
+						}catch(ex){
+							done();
+						}
+						return response;
+					}, function(error){
+						tracking.complete(request);
+						throw error;
+					});
+				}catch(ex){
+					tracking.complete(request);
+					throw ex;
+				}
+			};
+		}
+	})(window.vani.xhrTracking);
 }
\ No newline at end of file
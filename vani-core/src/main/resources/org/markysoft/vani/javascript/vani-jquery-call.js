@@ -1,14 +1,16 @@
 function(ref,functionName,arguments){
 	var target = $('html');
-	if(ref && window[ref]){
-		target = window[ref];
+	if(ref){
+		target = vani.refs.get(ref);
+		if(target === undefined){
+			throw 'reference ' + ref + ' is released or evicted';
+		}
 	}
 	var result = target[functionName].apply(target,arguments);
 	
 	if(result instanceof jQuery){
-		var resultRef = 'vani.jqueryCache.' + vani.uuid4();
-		window[resultRef] = result;
-		return resultRef;
+		return {ref: vani.refs.put(result), selector: result.selector, length: result.length,
+				generation: vani.dom.generation()};
 	}
 	return result;
 }
\ No newline at end of file
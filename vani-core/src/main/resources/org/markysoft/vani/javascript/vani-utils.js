@@ -8,4 +8,167 @@ window.vani.uuid4 = function(){
 		var r = Math.random()*16|0, v = c === 'x' ? r : (r&0x3|0x8);
 		return v.toString(16);
 	});
+};
+
+//one MutationObserver per page is shared by all observers of the document
+//(e.g. waits and the generation of the document). It is created on first
+//access and only observes the document while listeners are registered. The
+//listeners are called with the mutation records.
+if(!window.vani.mutations){
+	window.vani.mutations = (function(){
+		var listeners = [];
+		var observer = null;
+		var notify = function(records){
+			var current = listeners.slice();
+			for(var i = 0; i < current.length; i++){
+				current[i](records);
+			}
+		};
+		return {
+			//returns false, if changes of the document cannot be observed
+			add: function(listener){
+				if(!window.MutationObserver){
+					return false;
+				}
+				if(observer === null){
+					observer = new MutationObserver(notify);
+				}
+				if(listeners.length === 0){
+					observer.observe(document.documentElement, {childList: true, subtree: true, attributes: true, characterData: true});
+				}
+				listeners.push(listener);
+				return true;
+			},
+			remove: function(listener){
+				var index = listeners.indexOf(listener);
+				if(index >= 0){
+					listeners.splice(index, 1);
+					if(listeners.length === 0){
+						observer.disconnect();
+					}
+				}
+			},
+			//delivers the changes of the current task, which are not delivered
+			//yet, to the listeners
+			flush: function(){
+				if(observer !== null && listeners.length > 0){
+					var records = observer.takeRecords();
+					if(records.length > 0){
+						notify(records);
+					}
+				}
+			}
+		};
+	})();
+}
+
+//generation of the document, which is increased when nodes are added or
+//removed. It's prefixed by a random token of the document, so a generation of
+//a previous page never matches the current one. It's reported with each
+//located jquery object (see vani-jquery-call.js). The changes are only
+//observed after enable() was called, which is done if the validation of cached
+//elements is configured (vani.locator.validateCache). Else or if changes cannot
+//be observed, NULL is returned and cached elements are not validated.
+if(!window.vani.dom){
+	window.vani.dom = (function(){
+		var token = Math.random().toString(36).substr(2, 6) + ':';
+		var generation = 0;
+		var enabled = false;
+		var onMutation = function(records){
+			for(var i = 0; i < records.length; i++){
+				if(records[i].type === 'childList'){
+					generation++;
+					return;
+				}
+			}
+		};
+		return {
+			enable: function(){
+				if(!enabled){
+					enabled = window.vani.mutations.add(onMutation);
+				}
+			},
+			generation: function(){
+				if(!enabled){
+					return null;
+				}
+				window.vani.mutations.flush();
+				return token + generation;
+			}
+		};
+	})();
+}
+
+//store for objects referenced by the java side (see GlobalReferenceHolder)
+//the ids are prefixed by a random token of the document, so references of a
+//previous page don't match objects of the current one. If the limit is
+//exceeded, the least recently used objects are evicted.
+if(!window.vani.refs){
+	window.vani.refs = (function(){
+		var store = new Map();
+		var prefix = Math.random().toString(36).substr(2, 6) + '.';
+		var nextId = 0;
+		var limit = 10000;
+		var evict = function(){
+			while(store.size > limit){
+				store.delete(store.keys().next().value);
+			}
+		};
+		return {
+			put: function(value){
+				var id = prefix + (++nextId);
+				store.set(id, value);
+				evict();
+				return id;
+			},
+			get: function(id){
+				var value = store.get(id);
+				if(value !== undefined){
+					store.delete(id);
+					store.set(id, value);
+				}
+				return value;
+			},
+			release: function(ids){
+				var count = 0;
+				for(var i = 0; ids && i < ids.length; i++){
+					if(store.delete(ids[i])){
+						count++;
+					}
+				}
+				return count;
+			},
+			size: function(){
+				return store.size;
+			},
+			setLimit: function(value){
+				if(!(value > 0)){
+					throw 'reference limit must be greater than 0: ' + value;
+				}
+				limit = value;
+				evict();
+			}
+		};
+	})();
+}
+
+//calls back with true as soon as the marker of the previous document is gone
+//and the ready marker is set, or with false when the timeout is exceeded. If
+//the document is unloaded while waiting, the script is aborted and must be
+//called again in the new document.
+window.vani.awaitPageMarker = function(previousMarker, readyMarker, timeout, interval, callback){
+	var isPresent = function(value){
+		return value !== undefined && value !== null && String(value) !== '' && String(value) !== 'false';
+	};
+	var start = Date.now();
+	var check = function(){
+		if(!isPresent(window[previousMarker]) && isPresent(window[readyMarker])){
+			callback(true);
+		} else if(Date.now() - start >= timeout){
+			callback(false);
+		} else {
+			setTimeout(check, interval);
+		}
+	};
+	check();
 };
\ No newline at end of file
@@ -0,0 +1,170 @@
+if(!window.vani){
+	window.vani = {};
+}
+
+//evaluates wait conditions in the page and calls back as soon as all of them
+//are fulfilled or the timeout is exceeded. Element conditions are checked on
+//each change of the document (observed by the shared MutationObserver of
+//vani-utils.js), all conditions are also checked in the provided interval.
+//The target of a condition is either a global variable ('variable') or a
+//jquery object, which is selected by an optional reference ('ref') or element
+//('element') and an optional selector ('selector'). The checks behave like the
+//corresponding methods of JQueryElement. The result of a check is inverted, if
+//'negate' is true.
+window.vani.waitFor = function(conditions, timeout, interval, callback){
+	var getTarget = function(condition){
+		var target = $('html');
+		if(condition.ref){
+			target = vani.refs.get(condition.ref);
+			if(target === undefined){
+				throw 'reference ' + condition.ref + ' is released or evicted';
+			}
+		} else if(condition.element){
+			target = $(condition.element);
+		}
+		return condition.selector ? target.find(condition.selector) : target;
+	};
+	var evalVariable = function(condition){
+		var value = window[condition.variable];
+		if(value === undefined || value === null){
+			return false;
+		}
+		switch(condition.check){
+		case 'present':
+			return String(value) !== '' && String(value) !== 'false';
+		case 'text':
+			return String(value) === condition.value;
+		}
+		return false;
+	};
+	var evalElement = function(condition){
+		var target = getTarget(condition);
+		switch(condition.check){
+		case 'present':
+			return target.length > 0;
+		case 'displayed':
+			return target.is(':visible');
+		case 'enabled':
+			return target.is(':enabled');
+		case 'selected':
+			return target.is(':selected') || target.is(':checked');
+		case 'text':
+			return target.text() === condition.value;
+		case 'count':
+			return target.length >= condition.value;
+		case 'is':
+			return target.is(condition.value);
+		}
+		return false;
+	};
+	var evalCondition = function(condition){
+		var result = condition.variable !== undefined ? evalVariable(condition) : evalElement(condition);
+		return condition.negate ? !result : result;
+	};
+	var start = Date.now();
+	var done = false;
+	var pending = false;
+	var timer = null;
+	//mutations are collected until the next task, so a burst of changes only
+	//causes one check
+	var onMutation = function(){
+		if(!pending){
+			pending = true;
+			setTimeout(check, 0);
+		}
+	};
+	var finish = function(result){
+		done = true;
+		vani.mutations.remove(onMutation);
+		clearTimeout(timer);
+		callback(result);
+	};
+	var check = function(){
+		pending = false;
+		if(done){
+			return;
+		}
+		var result = true;
+		try{
+			for(var i = 0; i < conditions.length && result; i++){
+				result = evalCondition(conditions[i]);
+			}
+		}catch(ex){
+			finish('@JS-ERROR: ' + ex);
+			return;
+		}
+		if(result){
+			finish(true);
+		} else if(Date.now() - start >= timeout){
+			finish(false);
+		}
+	};
+	var poll = function(){
+		check();
+		if(!done){
+			timer = setTimeout(poll, interval);
+		}
+	};
+	var observed = false;
+	for(var i = 0; i < conditions.length; i++){
+		observed = observed || conditions[i].variable === undefined;
+	}
+	if(observed){
+		vani.mutations.add(onMutation);
+	}
+	poll();
+};
+
+//calls back with the waited time as soon as the page is settled or with -1
+//when the timeout is exceeded. The page is settled, when the document is
+//loaded, no tracked request is in flight, no finite animation is running and
+//the document was not changed for the provided quiet time.
+window.vani.waitForPageIdle = function(quiet, timeout, interval, callback){
+	var start = Date.now();
+	var lastMutation = start;
+	var onMutation = function(){
+		lastMutation = Date.now();
+	};
+	vani.mutations.add(onMutation);
+	var isAnimating = function(){
+		if(!document.getAnimations){
+			return false;
+		}
+		var animations = document.getAnimations();
+		for(var i = 0; i < animations.length; i++){
+			var animation = animations[i];
+			//infinite animations (e.g. spinners) never finish
+			if(animation.playState === 'running'
+					&& !(animation.effect && animation.effect.getTiming().iterations === Infinity)){
+				return true;
+			}
+		}
+		return false;
+	};
+	var isIdle = function(now){
+		return document.readyState === 'complete'
+				&& (!vani.xhrTracking || vani.xhrTracking.getActive() === 0)
+				&& now - lastMutation >= quiet
+				&& !isAnimating();
+	};
+	var check = function(){
+		var now = Date.now();
+		var result = null;
+		try{
+			if(isIdle(now)){
+				result = now - start;
+			} else if(now - start >= timeout){
+				result = -1;
+			}
+		}catch(ex){
+			result = '@JS-ERROR: ' + ex;
+		}
+		if(result === null){
+			setTimeout(check, interval);
+		} else {
+			vani.mutations.remove(onMutation);
+			callback(result);
+		}
+	};
+	check();
+};
\ No newline at end of file
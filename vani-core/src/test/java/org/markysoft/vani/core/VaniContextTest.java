@@ -23,10 +23,16 @@ import org.markysoft.vani.core.annotation.JavaScript;
 import org.markysoft.vani.core.annotation.JavaScriptDependency;
 import org.markysoft.vani.core.annotation.JsTypeHandler;
 import org.markysoft.vani.core.javascript.JQueryTypeHandler;
+import org.markysoft.vani.core.javascript.JavaScriptBatch;
+import org.markysoft.vani.core.javascript.JavaScriptFunctionRegistry;
 import org.markysoft.vani.core.javascript.JavaScriptLoader;
+import org.markysoft.vani.core.javascript.JavaScriptReferenceScope;
 import org.markysoft.vani.core.javascript.JavaScriptSource;
 import org.markysoft.vani.core.javascript.TypeHandler;
+import org.markysoft.vani.core.javascript.VaniUtils;
+import org.markysoft.vani.core.javascript.XhrTracking;
 import org.markysoft.vani.core.locating.JQueryElement;
+import org.markysoft.vani.core.locating.LookupScope;
 import org.markysoft.vani.core.locating.factory.JavaScriptProxyFactory;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -69,6 +75,10 @@ public class VaniContextTest {
 	private Object jsInterfaceProxy;
 	@Mock
 	private Object initialisedBean;
+	@Mock
+	private VaniUtils vaniUtils;
+	@Mock
+	private WebDriver webDriver;
 
 	@Captor
 	private ArgumentCaptor<WebDriver> captorDriver;
@@ -92,6 +102,8 @@ public class VaniContextTest {
 		bean.setJsLoader(jsLoader);
 		bean.setJsProxyFactory(jsProxyFactory);
 		bean.setReflections(reflections);
+		bean.setReferenceLimit(10000);
+		bean.setXhrTrackingCapacity(1000);
 	}
 
 	/**
@@ -335,8 +347,8 @@ public class VaniContextTest {
 				.thenReturn(jsSourceWithPlugin);
 		when(jsLoader.load(anyObject(), eq(JSInterfaceWithUnknownDependency.class), eq(bean))).thenReturn(jsSource);
 		when(jsLoader.load(anyObject(), eq(JSInterfaceWithUnknownJSInterface.class), eq(bean))).thenReturn(jsSource);
-		Set<JavaScriptSource<?>> expectedSources = new HashSet<>(
-				Arrays.asList(jsSource, jsSourceWithDependency, jsSourceWithPlugin));
+		Set<JavaScriptSource<?>> expectedSources = new HashSet<JavaScriptSource<?>>(
+				Arrays.<JavaScriptSource<?>>asList(jsSource, jsSourceWithDependency, jsSourceWithPlugin));
 		when(jsProxyFactory.createProxy(anyObject())).thenReturn(jsInterfaceProxy);
 
 		bean.registerJavaScripts();
@@ -370,6 +382,244 @@ public class VaniContextTest {
 		verify(reflections, times(1)).getTypesAnnotatedWith(JsTypeHandler.class);
 	}
 
+	/**
+	 * tests {@link VaniContext#registerJavaScripts()}} when the function
+	 * registry is enabled.
+	 * <p>
+	 * As result, the same {@link JavaScriptFunctionRegistry} must be assigned
+	 * to all js-sources.
+	 * </p>
+	 */
+	@Test
+	public void testRegisterJavaScriptsWithFunctionRegistry() {
+		System.out.println("testRegisterJavaScriptsWithFunctionRegistry");
+
+		Set<Class<?>> jsClasses = new HashSet<Class<?>>(Arrays.asList(JSInterface.class,
+				JSInterfaceWithDependency.class));
+		when(reflections.getTypesAnnotatedWith(JavaScript.class)).thenReturn(jsClasses);
+		when(jsLoader.load(anyObject(), eq(JSInterface.class), eq(bean))).thenReturn(jsSource);
+		when(jsLoader.load(anyObject(), eq(JSInterfaceWithDependency.class), eq(bean)))
+				.thenReturn(jsSourceWithDependency);
+		bean.setFunctionRegistryEnabled(true);
+
+		bean.registerJavaScripts();
+
+		ArgumentCaptor<JavaScriptFunctionRegistry> captorRegistry = ArgumentCaptor
+				.forClass(JavaScriptFunctionRegistry.class);
+		verify(jsSource, times(1)).setFunctionRegistry(captorRegistry.capture());
+		verify(jsSourceWithDependency, times(1)).setFunctionRegistry(captorRegistry.capture());
+		Assert.assertNotNull("registry must be assigned!", captorRegistry.getAllValues().get(0));
+		Assert.assertSame("wrong registry: ", captorRegistry.getAllValues().get(0),
+				captorRegistry.getAllValues().get(1));
+	}
+
+	/**
+	 * tests {@link VaniContext#batch(WebDriver, java.util.function.Consumer)}
+	 * when the recorder throws an exception.
+	 * <p>
+	 * As result, the exception must be passed and the batch must not be
+	 * recording anymore.
+	 * </p>
+	 */
+	@Test
+	public void testBatchWithFailingRecorder() {
+		System.out.println("testBatchWithFailingRecorder");
+
+		try {
+			bean.batch(null, b -> {
+				Assert.assertSame("batch must be recording!", b, JavaScriptBatch.getCurrent());
+				throw new IllegalStateException("failed");
+			});
+			Assert.fail("An IllegalStateException must be thrown!");
+		} catch (IllegalStateException ex) {
+			Assert.assertNull("batch must not be recording anymore!", JavaScriptBatch.getCurrent());
+		}
+	}
+
+	/**
+	 * tests {@link VaniContext#referenceScope(WebDriver, Runnable)} when
+	 * references are tracked during the action.
+	 * <p>
+	 * As result, the tracked references must be released after the action and
+	 * the scope must be closed.
+	 * </p>
+	 */
+	@Test
+	public void testReferenceScope() {
+		System.out.println("testReferenceScope");
+
+		when(appContext.getBean(VaniUtils.class)).thenReturn(vaniUtils);
+
+		bean.referenceScope(webDriver, () -> {
+			JavaScriptReferenceScope.track("ref1");
+			JavaScriptReferenceScope.track("ref2");
+		});
+
+		verify(vaniUtils, times(1)).releaseReferences(Arrays.asList("ref1", "ref2"), webDriver);
+		Assert.assertNull("scope must be closed!", JavaScriptReferenceScope.getCurrent());
+	}
+
+	/**
+	 * tests {@link VaniContext#lookupScope(Runnable)} when the action fails.
+	 * <p>
+	 * As result, the scope must be open during the action and closed
+	 * afterwards.
+	 * </p>
+	 */
+	@Test
+	public void testLookupScopeWithException() {
+		System.out.println("testLookupScopeWithException");
+
+		try {
+			bean.lookupScope(() -> {
+				Assert.assertNotNull("scope must be open!", LookupScope.getCurrent());
+				throw new IllegalStateException("failed");
+			});
+			Assert.fail("An IllegalStateException must be thrown!");
+		} catch (IllegalStateException ex) {
+			Assert.assertNull("scope must be closed!", LookupScope.getCurrent());
+		}
+	}
+
+	/**
+	 * tests {@link VaniContext#referenceScope(WebDriver, Runnable)} with
+	 * nested scopes.
+	 * <p>
+	 * As result, each scope must only release its own references and the
+	 * outer scope must be current again after the inner one is closed.
+	 * </p>
+	 */
+	@Test
+	public void testReferenceScopeNested() {
+		System.out.println("testReferenceScopeNested");
+
+		when(appContext.getBean(VaniUtils.class)).thenReturn(vaniUtils);
+
+		bean.referenceScope(webDriver, () -> {
+			JavaScriptReferenceScope outer = JavaScriptReferenceScope.getCurrent();
+			JavaScriptReferenceScope.track("outer");
+			bean.referenceScope(webDriver, () -> JavaScriptReferenceScope.track("inner"));
+			Assert.assertSame("outer scope must be current again!", outer, JavaScriptReferenceScope.getCurrent());
+		});
+
+		verify(vaniUtils, times(1)).releaseReferences(Arrays.asList("inner"), webDriver);
+		verify(vaniUtils, times(1)).releaseReferences(Arrays.asList("outer"), webDriver);
+	}
+
+	/**
+	 * tests {@link VaniContext#configureReferenceStore(JavaScriptSource)}.
+	 * <p>
+	 * As result, the configured limit must be appended to the source.
+	 * </p>
+	 */
+	@Test
+	public void testConfigureReferenceStore() {
+		System.out.println("testConfigureReferenceStore");
+
+		JavaScriptSource<VaniUtils> vaniUtilsSource = new JavaScriptSource<>(VaniUtils.class, "var a;");
+		bean.setReferenceLimit(500);
+
+		bean.configureReferenceStore(vaniUtilsSource);
+		bean.configureReferenceStore(null);
+
+		Assert.assertEquals("wrong source: ", "var a;\nwindow.vani.refs.setLimit(500);", vaniUtilsSource.getSource());
+	}
+
+	/**
+	 * tests {@link VaniContext#configureReferenceStore(JavaScriptSource)} when
+	 * the validation of cached elements is enabled.
+	 * <p>
+	 * As result, the observation of the generation of the document must be
+	 * enabled after the limit.
+	 * </p>
+	 */
+	@Test
+	public void testConfigureReferenceStoreWithCacheValidation() {
+		System.out.println("testConfigureReferenceStoreWithCacheValidation");
+
+		JavaScriptSource<VaniUtils> vaniUtilsSource = new JavaScriptSource<>(VaniUtils.class, "var a;");
+		bean.setReferenceLimit(500);
+		bean.setCacheValidationEnabled(true);
+
+		bean.configureReferenceStore(vaniUtilsSource);
+
+		Assert.assertEquals("wrong source: ", "var a;\nwindow.vani.refs.setLimit(500);\nwindow.vani.dom.enable();",
+				vaniUtilsSource.getSource());
+	}
+
+	/**
+	 * tests {@link VaniContext#configureXhrTracking(JavaScriptSource)}.
+	 * <p>
+	 * As result, the configured capacity must be appended to the source.
+	 * </p>
+	 */
+	@Test
+	public void testConfigureXhrTracking() {
+		System.out.println("testConfigureXhrTracking");
+
+		JavaScriptSource<XhrTracking> xhrTrackingSource = new JavaScriptSource<>(XhrTracking.class, "var a;");
+		bean.setXhrTrackingCapacity(50);
+
+		bean.configureXhrTracking(xhrTrackingSource);
+
+		Assert.assertEquals("wrong source: ", "var a;\nwindow.vani.xhrTracking.setCapacity(50);",
+				xhrTrackingSource.getSource());
+	}
+
+	/**
+	 * tests {@link VaniContext#configureXhrTracking(JavaScriptSource)} with
+	 * idle exclusions.
+	 * <p>
+	 * As result, the escaped url patterns must be appended to the source.
+	 * </p>
+	 */
+	@Test
+	public void testConfigureXhrTrackingWithIdleExclusions() {
+		System.out.println("testConfigureXhrTrackingWithIdleExclusions");
+
+		JavaScriptSource<XhrTracking> xhrTrackingSource = new JavaScriptSource<>(XhrTracking.class, "var a;");
+		bean.setXhrTrackingCapacity(50);
+		bean.setXhrIdleExclusions(new String[] { "/poll\\?id=1", " /it's" });
+
+		bean.configureXhrTracking(xhrTrackingSource);
+
+		Assert.assertEquals("wrong source: ", "var a;\nwindow.vani.xhrTracking.setCapacity(50);"
+				+ "\nwindow.vani.xhrTracking.setIdleExclusions(['/poll\\\\?id=1','/it\\'s']);",
+				xhrTrackingSource.getSource());
+	}
+
+	/**
+	 * tests {@link VaniContext#configureXhrTracking(JavaScriptSource)} when
+	 * the configured capacity is 0.
+	 * <p>
+	 * As result, {@link IllegalArgumentException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConfigureXhrTrackingWithInvalidCapacity() {
+		System.out.println("testConfigureXhrTrackingWithInvalidCapacity");
+
+		bean.setXhrTrackingCapacity(0);
+
+		bean.configureXhrTracking(new JavaScriptSource<>(XhrTracking.class, "var a;"));
+	}
+
+	/**
+	 * tests {@link VaniContext#configureReferenceStore(JavaScriptSource)} when
+	 * the configured limit is negative.
+	 * <p>
+	 * As result, {@link IllegalArgumentException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConfigureReferenceStoreWithInvalidLimit() {
+		System.out.println("testConfigureReferenceStoreWithInvalidLimit");
+
+		bean.setReferenceLimit(-1);
+
+		bean.configureReferenceStore(new JavaScriptSource<>(VaniUtils.class, "var a;"));
+	}
+
 	@JavaScript(name = "normalJS")
 	interface JSInterface {
 	}
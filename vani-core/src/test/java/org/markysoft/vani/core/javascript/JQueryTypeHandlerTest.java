@@ -1,11 +1,15 @@
 package org.markysoft.vani.core.javascript;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.junit.Assert;
@@ -21,6 +25,7 @@ import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
 
 @RunWith(MockitoJUnitRunner.class)
 public class JQueryTypeHandlerTest {
@@ -32,6 +37,9 @@ public class JQueryTypeHandlerTest {
 	@Mock
 	private WebDriver webDriver;
 
+	@Mock
+	private WebElement webElement;
+
 	@Captor
 	private ArgumentCaptor<Pattern> captorPattern;
 	@Captor
@@ -44,7 +52,7 @@ public class JQueryTypeHandlerTest {
 	}
 
 	/**
-	 * tests {@link JQueryTypeHandler#get(String, WebDriver)} with reference and
+	 * tests {@link JQueryTypeHandler#get(Object, WebDriver)} with reference and
 	 * webDriver.
 	 * <p>
 	 * As result, new {@link JQueryElement} instance will be returned, which
@@ -65,6 +73,104 @@ public class JQueryTypeHandlerTest {
 		Assert.assertEquals("wrong reference: ", reference, result.getReference());
 	}
 
+	/**
+	 * tests {@link JQueryTypeHandler#get(Object, WebDriver)} with descriptor
+	 * returned by the call function.
+	 * <p>
+	 * As result, new {@link JQueryElement} instance will be returned, which
+	 * have the reference, selector and length of the descriptor, without
+	 * fetching them by further calls.
+	 * </p>
+	 */
+	@Test
+	public void testGetWithDescriptor() {
+		System.out.println("testGetWithDescriptor");
+
+		Map<String, Object> descriptor = new HashMap<>();
+		descriptor.put("ref", "something");
+		descriptor.put("selector", "div.item");
+		descriptor.put("length", 5L);
+
+		JQueryElement result = bean.get(descriptor, webDriver);
+
+		verify(jquery, times(0)).objectAttribute(anyObject(), anyObject(), anyObject());
+		Assert.assertEquals("wrong reference: ", "something", result.getReference());
+		Assert.assertEquals("wrong selector: ", "div.item", result.getSelector());
+		Assert.assertEquals("wrong length: ", 5L, result.getLength());
+		Assert.assertEquals("wrong webDriver: ", webDriver, result.getWebDriver());
+	}
+
+	/**
+	 * tests {@link JQueryTypeHandler#get(Object, WebDriver)} with descriptor
+	 * containing the generation of the document.
+	 * <p>
+	 * As result, the generation must be stored as latest known generation of
+	 * the driver and a missing generation must not replace it.
+	 * </p>
+	 */
+	@Test
+	public void testGetWithGeneration() {
+		System.out.println("testGetWithGeneration");
+
+		Map<String, Object> descriptor = new HashMap<>();
+		descriptor.put("ref", "something");
+		descriptor.put("generation", "a:3");
+
+		bean.get(descriptor, webDriver);
+		descriptor.remove("generation");
+		bean.get(descriptor, webDriver);
+
+		Assert.assertEquals("wrong generation: ", "a:3", DomGeneration.get(webDriver));
+	}
+
+	/**
+	 * tests {@link JQueryTypeHandler#get(Object, WebDriver)} when a
+	 * {@link JavaScriptReferenceScope} is open.
+	 * <p>
+	 * As result, the reference of the created element must be tracked by the
+	 * scope.
+	 * </p>
+	 */
+	@Test
+	public void testGetWithReferenceScope() {
+		System.out.println("testGetWithReferenceScope");
+
+		Map<String, Object> descriptor = new HashMap<>();
+		descriptor.put("ref", "something");
+		JavaScriptReferenceScope scope = new JavaScriptReferenceScope();
+		scope.open();
+		try {
+			bean.get(descriptor, webDriver);
+		} finally {
+			scope.close();
+		}
+
+		Assert.assertEquals("wrong references: ", Arrays.asList("something"), scope.getReferences());
+	}
+
+	/**
+	 * tests {@link JQueryElement#JQueryElement(JQuery, WebDriver, WebElement)}
+	 * when the element is created from a {@link WebElement}.
+	 * <p>
+	 * As result, the selector and length of the found jquery object must be
+	 * used, without fetching them by further calls.
+	 * </p>
+	 */
+	@Test
+	public void testCreateElementFromWebElement() {
+		System.out.println("testCreateElementFromWebElement");
+
+		when(jquery.find(any(), any(WebElement.class)))
+				.thenReturn(new JQueryElement(jquery, webDriver, "something", "div", 1L));
+
+		JQueryElement result = new JQueryElement(jquery, webDriver, webElement);
+
+		verify(jquery, times(0)).objectAttribute(anyObject(), anyObject(), anyObject());
+		Assert.assertEquals("wrong reference: ", "something", result.getReference());
+		Assert.assertEquals("wrong selector: ", "div", result.getSelector());
+		Assert.assertEquals("wrong length: ", 1L, result.getLength());
+	}
+
 	/**
 	 * tests {@link JQueryTypeHandler#getTargetType()}.
 	 * <p>
@@ -0,0 +1,269 @@
+package org.markysoft.vani.core.javascript;
+
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.JavascriptExecutor;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JavaScriptBatchTest {
+	private static final String INJECTION_GUARD = "if(!window['vani.injected'] || !window['vani.injected']['secretJS']){return ['@JS-NOT-INJECTED'].concat([false]);}";
+	private static final String CALL = "try{%s}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+	private JavaScriptBatch bean;
+	private VaniJavaScriptExecutor executor;
+	private String showSecretCall;
+	private String sumCall;
+
+	@Mock
+	private JavascriptExecutor jsExecutor;
+	@Mock
+	private JavaScriptSource<?> jsSource;
+	@Mock
+	private JavaScriptFunction jsFunction;
+	@Mock
+	private JavaScriptFunction jsFunction2;
+
+	@Captor
+	private ArgumentCaptor<String> captorScript;
+
+	@Before
+	public void setUp() {
+		bean = new JavaScriptBatch(jsExecutor);
+		executor = new VaniJavaScriptExecutor(jsExecutor, jsSource);
+		when(jsSource.getName()).thenReturn("secretJS");
+		when(jsFunction.value()).thenReturn("return arguments[0];");
+		when(jsFunction2.value()).thenReturn("return arguments[0] + arguments[1];");
+		showSecretCall = executor.getInvocationSource("showSecret", jsFunction);
+		sumCall = executor.getInvocationSource("sum", jsFunction2);
+	}
+
+	@After
+	public void tearDown() {
+		bean.stop();
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#call(java.util.function.Supplier)} when the
+	 * supplier doesn't call a js-interface method.
+	 * <p>
+	 * As result, {@link JavaScriptException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = JavaScriptException.class)
+	public void testCallWithoutInvocation() {
+		System.out.println("testCallWithoutInvocation");
+
+		bean.call(() -> "hello");
+	}
+
+	/**
+	 * tests
+	 * {@link JavaScriptBatch#record(VaniJavaScriptExecutor, String, String, Object[], Function, Class)}
+	 * when it is not called within
+	 * {@link JavaScriptBatch#call(java.util.function.Supplier)}.
+	 * <p>
+	 * As result, {@link JavaScriptException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = JavaScriptException.class)
+	public void testRecordWithoutCall() {
+		System.out.println("testRecordWithoutCall");
+
+		bean.record(executor, "showSecret", "return 1;", new Object[] {}, r -> r, String.class);
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#start()} when there is already a recording
+	 * batch.
+	 * <p>
+	 * As result, {@link JavaScriptException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = JavaScriptException.class)
+	public void testStartNested() {
+		System.out.println("testStartNested");
+
+		bean.start();
+		new JavaScriptBatch(jsExecutor).start();
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#execute()} with two recorded calls.
+	 * <p>
+	 * As result, both calls must be sent in one script and the futures must be
+	 * completed with the converted results.
+	 * </p>
+	 */
+	@Test
+	public void testExecute() throws Exception {
+		System.out.println("testExecute");
+
+		String expectedScript = "var vaniBatchArgs = arguments;return [(function(){" + INJECTION_GUARD
+				+ String.format(CALL, "return arguments[0];") + "}).apply(null,vaniBatchArgs[0]),(function(){"
+				+ INJECTION_GUARD + String.format(CALL, "return arguments[0] + arguments[1];")
+				+ "}).apply(null,vaniBatchArgs[1])];";
+		when(jsExecutor.executeScript(anyString(), anyObject(), anyObject())).thenReturn(Arrays.asList("hello", 5L));
+
+		CompletableFuture<Object> first = bean.call(() -> bean.record(executor, "showSecret", showSecretCall,
+				new Object[] { "hello" }, r -> "converted " + r, String.class));
+		CompletableFuture<Object> second = bean
+				.call(() -> bean.record(executor, "sum", sumCall, new Object[] { 2L, 3L }, r -> r, long.class));
+		bean.execute();
+
+		verify(jsExecutor, times(1)).executeScript(captorScript.capture(), anyObject(), anyObject());
+		Assert.assertEquals("wrong script: ", expectedScript, captorScript.getValue());
+		Assert.assertEquals("wrong result: ", "converted hello", first.get());
+		Assert.assertEquals("wrong result: ", 5L, second.get());
+		Assert.assertEquals("recorded calls must be cleared: ", 0, bean.size());
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#execute()} when the js-interface is not
+	 * injected yet.
+	 * <p>
+	 * As result, the calls must be sent again in a second script and only the
+	 * first one must inject the source of the js-interface.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteWithoutInjectionToken() throws Exception {
+		System.out.println("testExecuteWithoutInjectionToken");
+
+		List<Object> notInjected = Arrays.asList("@JS-NOT-INJECTED", false);
+		when(jsSource.getSource()).thenReturn("source code of the js-interface;");
+		when(jsExecutor.executeScript(anyString(), anyObject(), anyObject()))
+				.thenReturn(Arrays.asList(notInjected, notInjected), Arrays.asList("hello", 5L));
+
+		CompletableFuture<Object> first = bean.call(() -> bean.record(executor, "showSecret", showSecretCall,
+				new Object[] { "hello" }, r -> r, String.class));
+		CompletableFuture<Object> second = bean
+				.call(() -> bean.record(executor, "sum", sumCall, new Object[] { 2L, 3L }, r -> r, long.class));
+		bean.execute();
+
+		verify(jsExecutor, times(2)).executeScript(captorScript.capture(), anyObject(), anyObject());
+		String injectingScript = captorScript.getAllValues().get(1);
+		Assert.assertEquals("source must be injected once: " + injectingScript, 2,
+				injectingScript.split("source code of the js-interface;").length);
+		Assert.assertFalse("guard must not be sent again: " + injectingScript,
+				injectingScript.contains(INJECTION_GUARD));
+		Assert.assertEquals("wrong result: ", "hello", first.get());
+		Assert.assertEquals("wrong result: ", 5L, second.get());
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#execute()} when two js-interfaces with a
+	 * shared dependency are not injected yet.
+	 * <p>
+	 * As result, the shared dependency must be injected once before the
+	 * sources of both js-interfaces.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteWithSharedDependency() throws Exception {
+		System.out.println("testExecuteWithSharedDependency");
+
+		JavaScriptSource<?> dependency = createSource("jquery", "jquery code;");
+		JavaScriptSource<?> firstSource = createSource("first", "first code;");
+		firstSource.addDependency(dependency);
+		JavaScriptSource<?> secondSource = createSource("second", "second code;");
+		secondSource.addDependency(dependency);
+		VaniJavaScriptExecutor firstExecutor = new VaniJavaScriptExecutor(jsExecutor, firstSource);
+		VaniJavaScriptExecutor secondExecutor = new VaniJavaScriptExecutor(jsExecutor, secondSource);
+		List<Object> notInjected = Arrays.asList("@JS-NOT-INJECTED", false, false);
+		when(jsExecutor.executeScript(anyString(), anyObject(), anyObject()))
+				.thenReturn(Arrays.asList(notInjected, notInjected), Arrays.asList("hello", 5L));
+
+		CompletableFuture<Object> first = bean.call(() -> bean.record(firstExecutor, "showSecret", showSecretCall,
+				new Object[] { "hello" }, r -> r, String.class));
+		CompletableFuture<Object> second = bean.call(
+				() -> bean.record(secondExecutor, "sum", sumCall, new Object[] { 2L, 3L }, r -> r, long.class));
+		bean.execute();
+
+		verify(jsExecutor, times(2)).executeScript(captorScript.capture(), anyObject(), anyObject());
+		String injectingScript = captorScript.getAllValues().get(1);
+		Assert.assertEquals("dependency must be injected once: " + injectingScript, 2,
+				injectingScript.split("jquery code;").length);
+		Assert.assertTrue("wrong injection order: " + injectingScript,
+				injectingScript.indexOf("jquery code;") < injectingScript.indexOf("first code;")
+						&& injectingScript.indexOf("first code;") < injectingScript.indexOf("second code;"));
+		Assert.assertTrue("injection token must be set: " + injectingScript,
+				injectingScript.contains("window['vani.injected']['second'] = true;"));
+		Assert.assertEquals("wrong result: ", "hello", first.get());
+		Assert.assertEquals("wrong result: ", 5L, second.get());
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#execute()} when a call returns a js-error.
+	 * <p>
+	 * As result, only the future of the failed call must be completed
+	 * exceptionally.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteWithJsError() throws Exception {
+		System.out.println("testExecuteWithJsError");
+
+		when(jsExecutor.executeScript(anyString(), anyObject(), anyObject()))
+				.thenReturn(Arrays.asList("@JS-ERROR: failed", 5L));
+
+		CompletableFuture<Object> first = bean.call(() -> bean.record(executor, "showSecret", showSecretCall,
+				new Object[] { "hello" }, r -> r, String.class));
+		CompletableFuture<Object> second = bean
+				.call(() -> bean.record(executor, "sum", sumCall, new Object[] { 2L, 3L }, r -> r, long.class));
+		bean.execute();
+
+		Assert.assertTrue("future must be completed exceptionally!", first.isCompletedExceptionally());
+		try {
+			first.get();
+			Assert.fail("An ExecutionException must be thrown!");
+		} catch (ExecutionException ex) {
+			Assert.assertTrue("wrong cause: " + ex.getCause(), ex.getCause() instanceof JavaScriptException);
+		}
+		Assert.assertEquals("wrong result: ", 5L, second.get());
+	}
+
+	/**
+	 * tests {@link JavaScriptBatch#getDefaultValue(Class)} with different
+	 * types.
+	 * <p>
+	 * As result, {@code NULL} must be returned for objects and void, else the
+	 * default value of the primitive type.
+	 * </p>
+	 */
+	@Test
+	public void testGetDefaultValue() {
+		System.out.println("testGetDefaultValue");
+
+		Assert.assertNull("wrong result: ", JavaScriptBatch.getDefaultValue(String.class));
+		Assert.assertNull("wrong result: ", JavaScriptBatch.getDefaultValue(void.class));
+		Assert.assertEquals("wrong result: ", false, JavaScriptBatch.getDefaultValue(boolean.class));
+		Assert.assertEquals("wrong result: ", 0, JavaScriptBatch.getDefaultValue(int.class));
+		Assert.assertEquals("wrong result: ", 0d, JavaScriptBatch.getDefaultValue(double.class));
+	}
+
+	private JavaScriptSource<?> createSource(String name, String source) {
+		JavaScriptSource<?> result = new JavaScriptSource<>();
+		result.setName(name);
+		result.setSource(source);
+		return result;
+	}
+}
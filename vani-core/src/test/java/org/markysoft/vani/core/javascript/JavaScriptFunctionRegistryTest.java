@@ -0,0 +1,104 @@
+package org.markysoft.vani.core.javascript;
+
+import static org.mockito.Mockito.when;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JavaScriptFunctionRegistryTest {
+	private static final String UUID_FUNCTION = "try{return window.vani.uuid4.apply(null,arguments);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+	private JavaScriptFunctionRegistry bean;
+
+	@Mock
+	private JavaScriptSource jsSource;
+	@Mock
+	private JavaScriptSource jsSource2;
+
+	@Before
+	public void setUp() {
+		bean = new JavaScriptFunctionRegistry();
+	}
+
+	/**
+	 * tests {@link JavaScriptFunctionRegistry#register(JavaScriptSource)} with
+	 * jsSource without js-interface.
+	 * <p>
+	 * As result, the module of the source must be empty.
+	 * </p>
+	 */
+	@Test
+	public void testRegisterWithoutJsInterface() {
+		System.out.println("testRegisterWithoutJsInterface");
+
+		bean.register(jsSource);
+
+		Assert.assertEquals("wrong module: ", "", bean.getModule(jsSource));
+	}
+
+	/**
+	 * tests {@link JavaScriptFunctionRegistry#register(JavaScriptSource)} with
+	 * jsSource of {@link VaniUtils}.
+	 * <p>
+	 * As result, the module must declare all functions of the js-interface and
+	 * the call source of a registered function must be replaced by the stub.
+	 * </p>
+	 */
+	@Test
+	public void testRegister() {
+		System.out.println("testRegister");
+
+		when(jsSource.getJsInterface()).thenReturn(VaniUtils.class);
+
+		bean.register(jsSource);
+
+		String module = bean.getModule(jsSource);
+		String stub = bean.getCallSource(UUID_FUNCTION);
+		Assert.assertTrue("wrong stub: " + stub, stub.matches("return window\\.vani\\.fn\\.call\\([1-6],arguments\\);"));
+		String id = stub.substring(stub.indexOf('(') + 1, stub.indexOf(','));
+		Assert.assertTrue("function is not declared: " + module,
+				module.contains("window.vani.fn[" + id + "] = function(){" + UUID_FUNCTION + "};"));
+		Assert.assertEquals("wrong count of declared functions: ", 6, module.split("function\\(\\)\\{").length - 1);
+	}
+
+	/**
+	 * tests {@link JavaScriptFunctionRegistry#register(JavaScriptSource)} with
+	 * two jsSources declaring same functions.
+	 * <p>
+	 * As result, the functions must be registered only once, so both modules
+	 * must be equal.
+	 * </p>
+	 */
+	@Test
+	public void testRegisterWithSameFunctions() {
+		System.out.println("testRegisterWithSameFunctions");
+
+		when(jsSource.getJsInterface()).thenReturn(VaniUtils.class);
+		when(jsSource2.getJsInterface()).thenReturn(VaniUtils.class);
+
+		bean.register(jsSource);
+		bean.register(jsSource2);
+
+		Assert.assertEquals("wrong module: ", bean.getModule(jsSource), bean.getModule(jsSource2));
+	}
+
+	/**
+	 * tests {@link JavaScriptFunctionRegistry#getCallSource(String)} with
+	 * source of function, which is not registered.
+	 * <p>
+	 * As result, the provided source must be returned.
+	 * </p>
+	 */
+	@Test
+	public void testGetCallSourceForUnknownFunction() {
+		System.out.println("testGetCallSourceForUnknownFunction");
+
+		String result = bean.getCallSource(UUID_FUNCTION);
+
+		Assert.assertEquals("wrong result: ", UUID_FUNCTION, result);
+	}
+}
@@ -0,0 +1,317 @@
+package org.markysoft.vani.core.javascript;
+
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.annotation.DetectionScript;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JavaScriptInjectionPlanTest {
+	private static final String INJECTION_MARK = "window['vani.injected'] = window['vani.injected'] || {};window['vani.injected']['%s'] = true;";
+
+	@Mock
+	private JavaScriptSource jsSource;
+	@Mock
+	private JavaScriptSource jsDependency;
+	@Mock
+	private JavaScriptSource jsDependency2;
+	@Mock
+	private JavaScriptSource jsPlugin;
+	@Mock
+	private JavaScriptSource jsPlugin2;
+	@Mock
+	private DetectionScript detectionScript;
+	@Mock
+	private JavaScriptFunctionRegistry functionRegistry;
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#create(JavaScriptSource)} when
+	 * {@code NULL} as {@code jsSource} is provided.
+	 * <p>
+	 * As result, the plan must neither contain sources nor source code.
+	 * </p>
+	 */
+	@Test
+	public void testCreateWithoutJsSource() {
+		System.out.println("testCreateWithoutJsSource");
+
+		JavaScriptInjectionPlan result = JavaScriptInjectionPlan.create(null);
+
+		Assert.assertTrue("sources must be empty!", result.getSources().isEmpty());
+		Assert.assertEquals("wrong bundle: ", "", result.getBundle());
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#create(JavaScriptSource)} with
+	 * jsSource without dependency and plugin.
+	 * <p>
+	 * As result, the bundle must contain the source code of the jsInterface
+	 * followed by its injection token.
+	 * </p>
+	 */
+	@Test
+	public void testCreateWithoutDependencyAndPlugin() {
+		System.out.println("testCreateWithoutDependencyAndPlugin");
+
+		String sourceCode = "source code of the js-interface;";
+		when(jsSource.getName()).thenReturn("secretJS");
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList());
+		when(jsSource.getPlugins()).thenReturn(Arrays.asList());
+		when(jsSource.getSource()).thenReturn(sourceCode);
+
+		JavaScriptInjectionPlan result = JavaScriptInjectionPlan.create(jsSource);
+
+		Assert.assertEquals("wrong sources: ", Arrays.asList(jsSource), result.getSources());
+		Assert.assertEquals("wrong bundle: ", sourceCode + "\n" + String.format(INJECTION_MARK, "secretJS"),
+				result.getBundle());
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#create(JavaScriptSource)} with
+	 * jsSource with dependency and plugin.
+	 * <p>
+	 * As result, the sources must be ordered as dependency, jsInterface and
+	 * plugin.
+	 * </p>
+	 */
+	@Test
+	public void testCreate() {
+		System.out.println("testCreate");
+
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsSource.getPlugins()).thenReturn(Arrays.asList(jsPlugin));
+
+		JavaScriptInjectionPlan result = JavaScriptInjectionPlan.create(jsSource);
+
+		Assert.assertEquals("wrong sources: ", Arrays.asList(jsDependency, jsSource, jsPlugin), result.getSources());
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#create(JavaScriptSource)} with
+	 * jsSource with dependencies and plugin. There is also a dependency with
+	 * own dependency and plugin.
+	 * <p>
+	 * As result, the dependencies and plugins of the dependency must be placed
+	 * before the jsInterface and the shared dependency must be contained only
+	 * once.
+	 * </p>
+	 */
+	@Test
+	public void testCreateWithDependenciesWithPlugins() {
+		System.out.println("testCreateWithDependenciesWithPlugins");
+
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency, jsDependency2));
+		when(jsSource.getPlugins()).thenReturn(Arrays.asList(jsPlugin));
+		when(jsDependency2.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsDependency2.getPlugins()).thenReturn(Arrays.asList(jsPlugin2));
+
+		JavaScriptInjectionPlan result = JavaScriptInjectionPlan.create(jsSource);
+
+		Assert.assertEquals("wrong sources: ",
+				Arrays.asList(jsDependency, jsDependency2, jsPlugin2, jsSource, jsPlugin), result.getSources());
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#create(JavaScriptSource)} with
+	 * jsSource, whose dependency depends on the jsSource.
+	 * <p>
+	 * As result, {@link JavaScriptException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = JavaScriptException.class)
+	public void testCreateWithCyclicDependency() {
+		System.out.println("testCreateWithCyclicDependency");
+
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsDependency.getDependencies()).thenReturn(Arrays.asList(jsSource));
+
+		JavaScriptInjectionPlan.create(jsSource);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getBundle(BitSet)} when only some
+	 * sources must be injected.
+	 * <p>
+	 * As result, only the source code of the marked sources must be contained,
+	 * but the injection tokens must be set for all sources. The bundle must be
+	 * cached for the combination.
+	 * </p>
+	 */
+	@Test
+	public void testGetBundleWithPartialInjections() {
+		System.out.println("testGetBundleWithPartialInjections");
+
+		String sourceCode = "source code of the js-interface;";
+		String sourceCodeDependency = "source code of a dependency of the js-interface;";
+		when(jsSource.getName()).thenReturn("secretJS");
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsSource.getSource()).thenReturn(sourceCode);
+		when(jsDependency.getName()).thenReturn("dependencyJS");
+		when(jsDependency.getSource()).thenReturn(sourceCodeDependency);
+		JavaScriptInjectionPlan plan = JavaScriptInjectionPlan.create(jsSource);
+		String marks = String.format(INJECTION_MARK, "dependencyJS") + String.format(INJECTION_MARK, "secretJS");
+		BitSet injections = new BitSet();
+		injections.set(1);
+
+		String result = plan.getBundle(injections);
+
+		Assert.assertEquals("wrong bundle: ", sourceCode + "\n" + marks, result);
+		Assert.assertSame("bundle must be cached!", result, plan.getBundle(injections));
+		Assert.assertEquals("wrong marks: ", marks, plan.getBundle(new BitSet()));
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getBundle(BitSet)} when the sources
+	 * are registered by a {@link JavaScriptFunctionRegistry} and no source must
+	 * be injected.
+	 * <p>
+	 * As result, the bundle must contain the function module of all sources
+	 * followed by the injection tokens.
+	 * </p>
+	 */
+	@Test
+	public void testGetBundleWithFunctionRegistry() {
+		System.out.println("testGetBundleWithFunctionRegistry");
+
+		String module = "window.vani.fn[1] = function(){return 1;};";
+		String moduleDependency = "window.vani.fn[2] = function(){return 2;};";
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsSource.getFunctionRegistry()).thenReturn(functionRegistry);
+		when(jsDependency.getFunctionRegistry()).thenReturn(functionRegistry);
+		when(functionRegistry.getModule(jsSource)).thenReturn(module);
+		when(functionRegistry.getModule(jsDependency)).thenReturn(moduleDependency);
+		JavaScriptInjectionPlan plan = JavaScriptInjectionPlan.create(jsSource);
+
+		String result = plan.getBundle(new BitSet());
+
+		Assert.assertEquals("wrong bundle: ",
+				JavaScriptFunctionRegistry.MODULE_INIT + moduleDependency + module + plan.getMarks(), result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getBundle(BitSet)} when all sources
+	 * must be injected.
+	 * <p>
+	 * As result, the precomputed bundle must be returned.
+	 * </p>
+	 */
+	@Test
+	public void testGetBundleWithAllInjections() {
+		System.out.println("testGetBundleWithAllInjections");
+
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		JavaScriptInjectionPlan plan = JavaScriptInjectionPlan.create(jsSource);
+		BitSet injections = new BitSet();
+		injections.set(0, 2);
+
+		String result = plan.getBundle(injections);
+
+		Assert.assertSame("wrong bundle: ", plan.getBundle(), result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getDetectionExpression(JavaScriptSource)}
+	 * when source doesn't declare a detection script.
+	 * <p>
+	 * As result, {@code false} must be returned, because the source must
+	 * always be injected.
+	 * </p>
+	 */
+	@Test
+	public void testGetDetectionExpressionWithoutDetectionScript() {
+		System.out.println("testGetDetectionExpressionWithoutDetectionScript");
+
+		String result = JavaScriptInjectionPlan.getDetectionExpression(jsSource);
+
+		Assert.assertEquals("wrong result: ", "false", result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getDetectionExpression(JavaScriptSource)}
+	 * when source has empty detection script.
+	 * <p>
+	 * As result, {@code false} must be returned.
+	 * </p>
+	 */
+	@Test
+	public void testGetDetectionExpressionWithEmptyDetectionScript() {
+		System.out.println("testGetDetectionExpressionWithEmptyDetectionScript");
+
+		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
+		when(detectionScript.value()).thenReturn("");
+
+		String result = JavaScriptInjectionPlan.getDetectionExpression(jsSource);
+
+		Assert.assertEquals("wrong result: ", "false", result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getDetectionExpression(JavaScriptSource)}
+	 * when source has detection script with auto return.
+	 * <p>
+	 * As result, the script must be wrapped by {@code return}-statement.
+	 * </p>
+	 */
+	@Test
+	public void testGetDetectionExpression() {
+		System.out.println("testGetDetectionExpression");
+
+		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
+		when(detectionScript.value()).thenReturn("window.vani !== undefined");
+		when(detectionScript.autoReturn()).thenReturn(true);
+
+		String result = JavaScriptInjectionPlan.getDetectionExpression(jsSource);
+
+		Assert.assertEquals("wrong result: ", "(function(){return window.vani !== undefined;})()", result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getDetectionExpression(JavaScriptSource)}
+	 * when source has detection script without auto return.
+	 * <p>
+	 * As result, the script provided by annotation must be used as function
+	 * body.
+	 * </p>
+	 */
+	@Test
+	public void testGetDetectionExpressionAutoReturnFalse() {
+		System.out.println("testGetDetectionExpressionAutoReturnFalse");
+
+		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
+		when(detectionScript.value()).thenReturn("return window.vani !== undefined;");
+
+		String result = JavaScriptInjectionPlan.getDetectionExpression(jsSource);
+
+		Assert.assertEquals("wrong result: ", "(function(){return window.vani !== undefined;})()", result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInjectionPlan#getDetectionProbe()} with jsSource
+	 * with dependency, which declares a detection script.
+	 * <p>
+	 * As result, the probe must contain the detection expressions of all
+	 * sources in injection order.
+	 * </p>
+	 */
+	@Test
+	public void testGetDetectionProbe() {
+		System.out.println("testGetDetectionProbe");
+
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsDependency.getDetectionScriptAnnotation()).thenReturn(detectionScript);
+		when(detectionScript.value()).thenReturn("typeof jQuery !== 'undefined'");
+		when(detectionScript.autoReturn()).thenReturn(true);
+
+		JavaScriptInjectionPlan plan = JavaScriptInjectionPlan.create(jsSource);
+
+		Assert.assertEquals("wrong probe: ", "[(function(){return typeof jQuery !== 'undefined';})(),false]",
+				plan.getDetectionProbe());
+	}
+}
@@ -2,14 +2,12 @@ package org.markysoft.vani.core.javascript;
 
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.anyString;
-import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,6 +25,8 @@ import org.openqa.selenium.JavascriptExecutor;
 
 @RunWith(MockitoJUnitRunner.class)
 public class VaniJavaScriptExecutorTest {
+	private static final String INJECTION_GUARD = "if(!window['vani.injected'] || !window['vani.injected']['secretJS']){return ['@JS-NOT-INJECTED'].concat([false]);}";
+	private static final String INJECTION_MARK = "window['vani.injected'] = window['vani.injected'] || {};window['vani.injected']['secretJS'] = true;";
 	private VaniJavaScriptExecutor bean;
 
 	@Mock
@@ -50,278 +50,116 @@ public class VaniJavaScriptExecutorTest {
 	private JavaScriptCallFunction jsCallFunction;
 	@Mock
 	private JavaScriptFunction jsFunction;
+	@Mock
+	private JavaScriptFunctionRegistry functionRegistry;
 
 	@Before
 	public void setUp() {
 		bean = new VaniJavaScriptExecutor(jsExecutor, jsSource);
-
-	}
-
-	/**
-	 * tests {@link VaniJavaScriptExecutor#mustInject(JavaScriptSource)} when
-	 * source doesn't declare a detection script.
-	 * <p>
-	 * As result, true must be returned and no detection script should be
-	 * executed.
-	 * </p>
-	 */
-	@Test
-	public void testMustInjectWithoutDectectionScript() {
-		System.out.println("testMustInjectWithoutDectectionScript");
-
-		boolean result = bean.mustInject(jsSource);
-
-		verify(jsExecutor, times(0)).executeScript(anyObject(), anyObject());
-		Assert.assertTrue("wrong result: ", result);
-	}
-
-	/**
-	 * tests {@link VaniJavaScriptExecutor#mustInject(JavaScriptSource)} when
-	 * source has empty detection script.
-	 * <p>
-	 * As result, true must be returned and no detection script should be
-	 * executed.
-	 * </p>
-	 */
-	@Test
-	public void testMustInjectWithEmptyDectectionScript() {
-		System.out.println("testMustInjectWithEmptyDectectionScript");
-
-		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
-		when(detectionScript.value()).thenReturn("");
-
-		boolean result = bean.mustInject(jsSource);
-
-		verify(jsExecutor, times(0)).executeScript(anyObject(), anyObject());
-		Assert.assertTrue("wrong result: ", result);
-	}
-
-	/**
-	 * tests {@link VaniJavaScriptExecutor#mustInject(JavaScriptSource)} when
-	 * source has detection script and it returns true.
-	 * <p>
-	 * As result, false must be returned, because detection script returns true
-	 * so script must not be injected.
-	 * </p>
-	 */
-	@Test
-	public void testMustInjectWithDectectionScriptFalse() {
-		System.out.println("testMustInjectWithDectectionScriptFalse");
-
-		String expectedScript = "return window.vani !== undefined;";
-		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
-		when(detectionScript.value()).thenReturn("window.vani !== undefined");
-		when(detectionScript.autoReturn()).thenReturn(true);
-		when(jsExecutor.executeScript(anyString())).thenReturn(true);
-
-		boolean result = bean.mustInject(jsSource);
-
-		verify(jsExecutor, times(1)).executeScript(eq(expectedScript));
-		Assert.assertFalse("wrong result! ", result);
-	}
-
-	/**
-	 * tests {@link VaniJavaScriptExecutor#mustInject(JavaScriptSource)} when
-	 * source has detection script and it returns false.
-	 * <p>
-	 * As result, true must be returned, because detection script returns false
-	 * so script must be injected.
-	 * </p>
-	 */
-	@Test
-	public void testMustInjectWithDectectionScript() {
-		System.out.println("testMustInjectWithDectectionScript");
-
-		String expectedScript = "return window.vani !== undefined;";
-		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
-		when(detectionScript.autoReturn()).thenReturn(true);
-		when(detectionScript.value()).thenReturn("window.vani !== undefined");
-		when(jsExecutor.executeScript(anyString())).thenReturn(false);
-
-		boolean result = bean.mustInject(jsSource);
-
-		verify(jsExecutor, times(1)).executeScript(eq(expectedScript));
-		Assert.assertTrue("wrong result: ", result);
+		when(jsSource.getName()).thenReturn("secretJS");
 	}
 
 	/**
-	 * tests {@link VaniJavaScriptExecutor#mustInject(JavaScriptSource)} when
-	 * source has detection script without auto return.
+	 * tests {@link VaniJavaScriptExecutor#getDetections(Object)} with result
+	 * of a guarded script, whose source is already injected.
 	 * <p>
-	 * As result, true must be returned and the scirpt provided by annotation
-	 * must be the same as the executed one.
+	 * As result, {@code NULL} must be returned.
 	 * </p>
 	 */
 	@Test
-	public void testMustInjectWithDectectionScriptAutoReturnFalse() {
-		System.out.println("testMustInjectWithDectectionScriptAutoReturnFalse");
+	public void testGetDetectionsWithInjectedSource() {
+		System.out.println("testGetDetectionsWithInjectedSource");
 
-		String expectedScript = "return window.vani !== undefined;";
-		when(jsSource.getDetectionScriptAnnotation()).thenReturn(detectionScript);
-		when(detectionScript.value()).thenReturn(expectedScript);
-		when(jsExecutor.executeScript(anyString())).thenReturn(false);
-
-		boolean result = bean.mustInject(jsSource);
-
-		verify(jsExecutor, times(1)).executeScript(eq(expectedScript));
-		Assert.assertTrue("wrong result: ", result);
+		Assert.assertNull("wrong result: ", bean.getDetections(Arrays.asList("hello", true)));
+		Assert.assertNull("wrong result: ", bean.getDetections("@JS-NOT-INJECTED"));
+		Assert.assertNull("wrong result: ", bean.getDetections(null));
 	}
 
 	/**
-	 * tests
-	 * {@link VaniJavaScriptExecutor#appendSource(StringBuilder, JavaScriptSource, Set)}
-	 * when {@code NULL} as {@code jsSource} is provided.
-	 * <p>
-	 * As result, provided {@code stringBuilder} and {@code processingSource}
-	 * must be empty.
-	 * </p>
-	 */
-	@Test
-	public void testAppendSourceWithoutJsSource() {
-		System.out.println("testAppendSourceWithoutJsSource");
-
-		StringBuilder builder = new StringBuilder();
-		Set<JavaScriptSource<?>> processingSources = new HashSet<>();
-
-		bean.appendSource(builder, null, processingSources);
-
-		Assert.assertEquals("wrong source: ", "", builder.toString());
-		Assert.assertTrue("processing sources must be empty!", processingSources.isEmpty());
-	}
-
-	/**
-	 * tests
-	 * {@link VaniJavaScriptExecutor#appendSource(StringBuilder, JavaScriptSource, Set)}
-	 * when {@code NULL} as {@code jsSource} is provided.
+	 * tests {@link VaniJavaScriptExecutor#getDetections(Object)} with result
+	 * of a guarded script, whose source is not injected yet.
 	 * <p>
-	 * As result, provided {@code stringBuilder} and {@code processingSource}
-	 * must be empty.
+	 * As result, the results of the detection probe must be returned.
 	 * </p>
 	 */
 	@Test
-	public void testAppendSourceWithProcessedJsSource() {
-		System.out.println("testAppendSourceWithProcessedJsSource");
+	public void testGetDetections() {
+		System.out.println("testGetDetections");
 
-		StringBuilder builder = new StringBuilder();
-		Set<JavaScriptSource<?>> processingSources = new HashSet<>();
-		processingSources.add(jsSource);
+		List<?> result = bean.getDetections(Arrays.asList("@JS-NOT-INJECTED", true, false));
 
-		bean.appendSource(builder, jsSource, processingSources);
-
-		Assert.assertEquals("wrong source: ", "", builder.toString());
-		Assert.assertEquals("wrong count of processing sources: ", 1, processingSources.size());
-		verify(jsSource, times(0)).getDependencies();
+		Assert.assertEquals("wrong result: ", Arrays.asList(true, false), result);
 	}
 
 	/**
-	 * tests
-	 * {@link VaniJavaScriptExecutor#appendSource(StringBuilder, JavaScriptSource, Set)}
-	 * with jsSource with dependency and plugin.
+	 * tests {@link VaniJavaScriptExecutor#prepareSource(String, List)} with jsSource
+	 * with dependencies and plugin. There is also a dependency with own
+	 * dependency and plugins, whose detection script reports them as
+	 * available.
 	 * <p>
-	 * As result, provided {@code stringBuilder} must contains source code of
-	 * dependency, jsInterface and plugin.
+	 * As result, only the source code of the sources, which are not available,
+	 * must be returned. The injection tokens must be set for all sources.
 	 * </p>
 	 */
 	@Test
-	public void testAppendSource() {
-		System.out.println("testAppendSource");
+	public void testPrepareSourceWithDependenciesWithPlugins() {
+		System.out.println("testPrepareSourceWithDependenciesWithPlugins");
 
 		String sourceCode = "source code of the js-interface;";
 		String sourceCodeDependency = "source code of a dependency of the js-interface;";
 		String sourceCodePlugin = "source code of a plugin for the js-interface;";
-		String expectedSource = sourceCodeDependency + "\n" + sourceCode + "\n" + sourceCodePlugin + "\n";
-		StringBuilder builder = new StringBuilder();
-		Set<JavaScriptSource<?>> processingSources = new HashSet<>();
-		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		String sourceCodePlugin3 = "source code of a plugin for the dependency of js-interface;";
+		String expectedSource = sourceCodeDependency + "\n" + sourceCodePlugin3 + "\n" + sourceCode + "\n"
+				+ sourceCodePlugin + "\n";
+		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency, jsDependency2));
 		when(jsSource.getPlugins()).thenReturn(Arrays.asList(jsPlugin));
 		when(jsSource.getSource()).thenReturn(sourceCode);
 		when(jsPlugin.getSource()).thenReturn(sourceCodePlugin);
+		when(jsPlugin2.getDetectionScriptAnnotation()).thenReturn(detectionScript);
+		when(jsPlugin3.getSource()).thenReturn(sourceCodePlugin3);
 		when(jsDependency.getSource()).thenReturn(sourceCodeDependency);
+		when(jsDependency2.getDependencies()).thenReturn(Arrays.asList(jsDependency));
+		when(jsDependency2.getDetectionScriptAnnotation()).thenReturn(detectionScript);
+		when(jsDependency2.getPlugins()).thenReturn(Arrays.asList(jsPlugin3, jsPlugin2));
+		when(detectionScript.value()).thenReturn("window.vani !== undefined");
 
-		bean.appendSource(builder, jsSource, processingSources);
+		String result = bean.prepareSource("", Arrays.asList(false, true, false, true, false, false));
 
-		Assert.assertEquals("wrong source: ", expectedSource, builder.toString());
-		Assert.assertEquals("wrong count of processing sources: ", 3, processingSources.size());
+		Assert.assertTrue("wrong source: " + result, result.startsWith(expectedSource));
+		Assert.assertTrue("injection token is missing: " + result, result.contains(INJECTION_MARK));
 		verify(jsSource, times(1)).getDependencies();
+		verify(jsDependency2, times(1)).getDependencies();
+		verify(jsExecutor, times(0)).executeScript(anyString());
 	}
 
 	/**
-	 * tests
-	 * {@link VaniJavaScriptExecutor#appendSource(StringBuilder, JavaScriptSource, Set)}
-	 * with jsSource without dependency and plugin.
+	 * tests {@link VaniJavaScriptExecutor#prepareSource(String, List)} when the
+	 * {@link JavaScriptInjectionPlan} is already assigned to the jsSource.
 	 * <p>
-	 * As result, provided {@code stringBuilder} must contains source code of
-	 * jsInterface.
+	 * As result, the assigned plan must be used and the dependency graph must
+	 * not be walked again.
 	 * </p>
 	 */
 	@Test
-	public void testAppendSourceWithoutDependencyAndPlugin() {
-		System.out.println("testAppendSourceWithoutDependencyAndPlugin");
+	public void testPrepareSourceWithInjectionPlan() {
+		System.out.println("testPrepareSourceWithInjectionPlan");
 
 		String sourceCode = "source code of the js-interface;";
-		String expectedSource = sourceCode + "\n";
-		StringBuilder builder = new StringBuilder();
-		Set<JavaScriptSource<?>> processingSources = new HashSet<>();
 		when(jsSource.getDependencies()).thenReturn(Arrays.asList());
 		when(jsSource.getPlugins()).thenReturn(Arrays.asList());
 		when(jsSource.getSource()).thenReturn(sourceCode);
+		JavaScriptInjectionPlan plan = JavaScriptInjectionPlan.create(jsSource);
+		when(jsSource.getInjectionPlan()).thenReturn(plan);
 
-		bean.appendSource(builder, jsSource, processingSources);
+		String result = bean.prepareSource("showSecret();", Arrays.asList(false));
 
-		Assert.assertEquals("wrong source: ", expectedSource, builder.toString());
-		Assert.assertEquals("wrong count of processing sources: ", 1, processingSources.size());
+		Assert.assertEquals("wrong source: ", sourceCode + "\n" + INJECTION_MARK + "showSecret();", result);
 		verify(jsSource, times(1)).getDependencies();
-		verify(jsSource, times(1)).getPlugins();
+		verify(jsSource, times(0)).setInjectionPlan(anyObject());
 	}
 
 	/**
-	 * tests
-	 * {@link VaniJavaScriptExecutor#appendSource(StringBuilder, JavaScriptSource, Set)}
-	 * with jsSource with dependencies and plugin. There is also a dependency
-	 * with own dependency and plugins.
-	 * <p>
-	 * As result, provided {@code stringBuilder} must contains source code of
-	 * dependency inclusive injecting dependencies and plugins, jsInterface and
-	 * plugin.
-	 * </p>
-	 */
-	@Test
-	public void testAppendSourceWithDependenciesWithPlugins() {
-		System.out.println("testAppendSourceWithDependenciesWithPlugins");
-
-		String sourceCode = "source code of the js-interface;";
-		String sourceCodeDependency = "source code of a dependency of the js-interface;";
-		String sourceCodePlugin = "source code of a plugin for the js-interface;";
-		String sourceCodePlugin3 = "source code of a plugin for the dependency of js-interface;";
-		String expectedSource = sourceCodeDependency + "\n" + sourceCodePlugin3 + "\n" + sourceCode + "\n"
-				+ sourceCodePlugin + "\n";
-		StringBuilder builder = new StringBuilder();
-		Set<JavaScriptSource<?>> processingSources = new HashSet<>();
-		when(jsSource.getDependencies()).thenReturn(Arrays.asList(jsDependency, jsDependency2));
-		when(jsSource.getPlugins()).thenReturn(Arrays.asList(jsPlugin));
-		when(jsSource.getSource()).thenReturn(sourceCode);
-		when(jsPlugin.getSource()).thenReturn(sourceCodePlugin);
-		when(jsPlugin2.getDetectionScriptAnnotation()).thenReturn(detectionScript);
-		when(jsPlugin3.getSource()).thenReturn(sourceCodePlugin3);
-		when(jsDependency.getSource()).thenReturn(sourceCodeDependency);
-		when(jsDependency2.getDependencies()).thenReturn(Arrays.asList(jsDependency));
-		when(jsDependency2.getDetectionScriptAnnotation()).thenReturn(detectionScript);
-		when(jsDependency2.getPlugins()).thenReturn(Arrays.asList(jsPlugin3, jsPlugin2));
-		when(detectionScript.value()).thenReturn("window.vani !== undefined");
-		when(jsExecutor.executeScript(anyString())).thenReturn(true);
-
-		bean.appendSource(builder, jsSource, processingSources);
-
-		Assert.assertEquals("wrong source: ", expectedSource, builder.toString());
-		Assert.assertEquals("wrong count of processing sources: ", 6, processingSources.size());
-		verify(jsSource, times(1)).getDependencies();
-		verify(jsDependency2, times(1)).getDependencies();
-		verify(jsDependency2, times(0)).getSource();
-		verify(jsPlugin2, times(0)).getSource();
-	}
-
-	/**
-	 * tests {@link VaniJavaScriptExecutor#prepareSource(String)} with provided
+	 * tests {@link VaniJavaScriptExecutor#prepareSource(String, List)} with provided
 	 * function code is an empty literal.
 	 * <p>
 	 * As result, only the source code of the interface should be returned.
@@ -332,18 +170,19 @@ public class VaniJavaScriptExecutorTest {
 		System.out.println("testPrepareSourceWithEmptyFunctionCode");
 
 		String sourceCode = "source code of the js-interface;";
-		String expectedSource = sourceCode + "\n";
+		String expectedSource = sourceCode + "\n" + INJECTION_MARK;
+		when(jsSource.getName()).thenReturn("secretJS");
 		when(jsSource.getDependencies()).thenReturn(Arrays.asList());
 		when(jsSource.getPlugins()).thenReturn(Arrays.asList());
 		when(jsSource.getSource()).thenReturn(sourceCode);
 
-		String result = bean.prepareSource("");
+		String result = bean.prepareSource("", Arrays.asList(false));
 
 		Assert.assertEquals("wrong source: ", expectedSource, result);
 	}
 
 	/**
-	 * tests {@link VaniJavaScriptExecutor#prepareSource(String)} with provided
+	 * tests {@link VaniJavaScriptExecutor#prepareSource(String, List)} with provided
 	 * function code is not an empty literal.
 	 * <p>
 	 * As result, the source code of the interface and provided function code
@@ -355,12 +194,13 @@ public class VaniJavaScriptExecutorTest {
 		System.out.println("testPrepareSource");
 
 		String sourceCode = "source code of the js-interface;";
-		String expectedSource = sourceCode + "\n";
+		String expectedSource = sourceCode + "\n" + INJECTION_MARK;
+		when(jsSource.getName()).thenReturn("secretJS");
 		when(jsSource.getDependencies()).thenReturn(Arrays.asList());
 		when(jsSource.getPlugins()).thenReturn(Arrays.asList());
 		when(jsSource.getSource()).thenReturn(sourceCode);
 
-		String result = bean.prepareSource("showSecret();");
+		String result = bean.prepareSource("showSecret();", Arrays.asList(false));
 
 		Assert.assertEquals("wrong source: ", expectedSource + "showSecret();", result);
 	}
@@ -552,7 +392,7 @@ public class VaniJavaScriptExecutorTest {
 		System.out.println("testExecuteWithoutValueAndName");
 
 		Object[] args = new Object[] { "hello world!" };
-		String expected = "\ntry{return showSecret.apply(null,arguments);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+		String expected = INJECTION_GUARD + "try{return showSecret.apply(null,arguments);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
 		when(jsExecutor.executeScript(anyString(), anyObject())).thenReturn(true);
 		when(jsSource.getSource()).thenReturn("");
 
@@ -561,7 +401,6 @@ public class VaniJavaScriptExecutorTest {
 		Assert.assertTrue("wrong js return value!", (Boolean) result);
 		verify(jsExecutor, times(1)).executeScript(expected, args);
 		verify(jsSource, times(1)).getJsCallFunction();
-		verify(jsSource, times(1)).getDependencies();
 	}
 
 	/**
@@ -577,7 +416,7 @@ public class VaniJavaScriptExecutorTest {
 		System.out.println("testExecuteWithName");
 
 		Object[] args = new Object[] { "hello world!" };
-		String expected = "\ntry{return window.vani.showSecret.apply(null,arguments);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+		String expected = INJECTION_GUARD + "try{return window.vani.showSecret.apply(null,arguments);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
 		when(jsExecutor.executeScript(anyString(), anyObject())).thenReturn(true);
 		when(jsSource.getSource()).thenReturn("");
 		when(jsFunction.name()).thenReturn("window.vani.showSecret");
@@ -587,7 +426,6 @@ public class VaniJavaScriptExecutorTest {
 		Assert.assertTrue("wrong js return value!", (Boolean) result);
 		verify(jsExecutor, times(1)).executeScript(expected, args);
 		verify(jsSource, times(1)).getJsCallFunction();
-		verify(jsSource, times(1)).getDependencies();
 	}
 
 	/**
@@ -603,7 +441,7 @@ public class VaniJavaScriptExecutorTest {
 		System.out.println("testExecuteWithValue");
 
 		Object[] args = new Object[] { "hello world!" };
-		String expected = "\ntry{alert(arguments[0]);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+		String expected = INJECTION_GUARD + "try{alert(arguments[0]);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
 		when(jsExecutor.executeScript(anyString(), anyObject())).thenReturn(true);
 		when(jsSource.getSource()).thenReturn("");
 		when(jsFunction.value()).thenReturn("alert(arguments[0]);");
@@ -613,7 +451,88 @@ public class VaniJavaScriptExecutorTest {
 		Assert.assertTrue("wrong js return value!", (Boolean) result);
 		verify(jsExecutor, times(1)).executeScript(expected, args);
 		verify(jsSource, times(0)).getJsCallFunction();
-		verify(jsSource, times(1)).getDependencies();
+	}
+
+	/**
+	 * tests
+	 * {@link VaniJavaScriptExecutor#execute(String, JavaScriptFunction, Object...)}
+	 * when the jsSource is registered by a {@link JavaScriptFunctionRegistry}.
+	 * <p>
+	 * As result, only the stub calling the registered function must be sent.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteWithFunctionRegistry() {
+		System.out.println("testExecuteWithFunctionRegistry");
+
+		Object[] args = new Object[] { "hello world!" };
+		String call = "try{alert(arguments[0]);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+		String stub = "return window.vani.fn.call(7,arguments);";
+		when(jsExecutor.executeScript(anyString(), anyObject())).thenReturn(true);
+		when(jsSource.getFunctionRegistry()).thenReturn(functionRegistry);
+		when(functionRegistry.getCallSource(call)).thenReturn(stub);
+		when(jsFunction.value()).thenReturn("alert(arguments[0]);");
+
+		Object result = bean.execute("showSecret", jsFunction, args);
+
+		Assert.assertTrue("wrong js return value!", (Boolean) result);
+		verify(jsExecutor, times(1)).executeScript(INJECTION_GUARD + stub, args);
+	}
+
+	/**
+	 * tests
+	 * {@link VaniJavaScriptExecutor#execute(String, JavaScriptFunction, Object...)}
+	 * when the injection token is missing in the document.
+	 * <p>
+	 * As result, the call must be sent only once again with the source of the
+	 * js-interface and the injection token.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteWithoutInjectionToken() {
+		System.out.println("testExecuteWithoutInjectionToken");
+
+		Object[] args = new Object[] { "hello world!" };
+		String call = "try{alert(arguments[0]);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}";
+		when(jsExecutor.executeScript(anyString(), anyObject())).thenReturn(Arrays.asList("@JS-NOT-INJECTED", false), true);
+		when(jsSource.getSource()).thenReturn("source code of the js-interface;");
+		when(jsFunction.value()).thenReturn("alert(arguments[0]);");
+
+		Object result = bean.execute("showSecret", jsFunction, args);
+
+		Assert.assertTrue("wrong js return value!", (Boolean) result);
+		verify(jsExecutor, times(1)).executeScript(INJECTION_GUARD + call, args);
+		verify(jsExecutor, times(1)).executeScript("source code of the js-interface;\n" + INJECTION_MARK + call, args);
+		verify(jsExecutor, times(2)).executeScript(anyString(), anyObject());
+	}
+
+	/**
+	 * tests
+	 * {@link VaniJavaScriptExecutor#executeAsyncCall(String, String, Object...)}
+	 * with an asynchronous {@link JavaScriptFunction}.
+	 * <p>
+	 * As result, the call must be sent asynchronously and a js-error must be
+	 * reported by the callback.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteAsyncCall() {
+		System.out.println("testExecuteAsyncCall");
+
+		Object[] args = new Object[] { "hello world!" };
+		String asyncGuard = "if(!window['vani.injected'] || !window['vani.injected']['secretJS']){arguments[arguments.length - 1](['@JS-NOT-INJECTED'].concat([false]));return;}";
+		String call = "try{return window.vani.showSecret.apply(null,arguments);}catch(ex){console.log('Failed to execute injected script: '+ex);arguments[arguments.length - 1]('@JS-ERROR: '+ex);}";
+		when(jsExecutor.executeAsyncScript(anyString(), anyObject())).thenReturn(true);
+		when(jsFunction.name()).thenReturn("window.vani.showSecret");
+		when(jsFunction.async()).thenReturn(true);
+
+		String callSource = bean.getInvocationSource("showSecret", jsFunction);
+		Object result = bean.executeAsyncCall("showSecret", callSource, args);
+
+		Assert.assertEquals("wrong call source: ", call, callSource);
+		Assert.assertTrue("wrong js return value!", (Boolean) result);
+		verify(jsExecutor, times(1)).executeAsyncScript(asyncGuard + call, args);
+		verify(jsExecutor, times(0)).executeScript(anyString(), anyObject());
 	}
 
 	/**
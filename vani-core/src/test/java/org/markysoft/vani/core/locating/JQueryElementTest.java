@@ -0,0 +1,128 @@
+package org.markysoft.vani.core.locating;
+
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.javascript.JQuery;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JQueryElementTest {
+	private JQueryElement bean;
+
+	@Mock
+	private JQuery jquery;
+	@Mock
+	private WebDriver webDriver;
+
+	@Before
+	public void setUp() {
+		bean = new JQueryElement(jquery, webDriver, "ref", "tr", 2L);
+	}
+
+	/**
+	 * tests {@link JQueryElement#extract(String...)}.
+	 * <p>
+	 * As result, all properties must be read by one call and the properties
+	 * must be used as column names.
+	 * </p>
+	 */
+	@Test
+	public void testExtract() {
+		System.out.println("testExtract");
+
+		List<Map<String, Object>> rows = Arrays.asList(row("text", "a"), row("text", "b"));
+		when(jquery.extract(bean, JQueryProjection.of("text", "attr:href").getColumns(), webDriver))
+				.thenReturn(rows);
+
+		List<Map<String, Object>> result = bean.extract("text", "attr:href");
+
+		Assert.assertEquals("wrong result: ", rows, result);
+		verify(jquery, times(1)).extract(anyObject(), anyObject(), anyObject());
+	}
+
+	/**
+	 * tests {@link JQueryElement#extract(JQueryProjection, java.util.function.Function)}.
+	 * <p>
+	 * As result, each row must be converted by the provided mapper.
+	 * </p>
+	 */
+	@Test
+	public void testExtractWithMapper() {
+		System.out.println("testExtractWithMapper");
+
+		JQueryProjection projection = new JQueryProjection().column("name", "td.name", "text");
+		when(jquery.extract(bean, projection.getColumns(), webDriver))
+				.thenReturn(Arrays.asList(row("name", "a"), row("name", "b")));
+
+		List<String> result = bean.extract(projection, r -> (String) r.get("name"));
+
+		Assert.assertEquals("wrong result: ", Arrays.asList("a", "b"), result);
+	}
+
+	/**
+	 * tests {@link JQueryElement#getRect()}.
+	 * <p>
+	 * As result, offset, width and height of first element must be read by
+	 * one call.
+	 * </p>
+	 */
+	@Test
+	public void testGetRect() {
+		System.out.println("testGetRect");
+
+		Map<String, Object> values = row("offset", row("left", 10.5, "top", 20L));
+		values.put("width", 100L);
+		values.put("height", 50.2);
+		when(jquery.pipeline(eq(bean), anyObject(), eq("vaniExtract"), anyObject(), eq(webDriver)))
+				.thenReturn(Arrays.asList(values));
+
+		Rectangle result = bean.getRect();
+
+		verify(jquery, times(1)).pipeline(eq(bean), eq(bean.query().first().getSteps()), eq("vaniExtract"),
+				anyObject(), eq(webDriver));
+		Assert.assertEquals("wrong location: ", new Point(10, 20), result.getPoint());
+		Assert.assertEquals("wrong size: ", new Dimension(100, 50), result.getDimension());
+	}
+
+	/**
+	 * tests {@link JQueryElement#getSize()} and
+	 * {@link JQueryElement#getLocation()} when there are no wrapped elements.
+	 * <p>
+	 * As result, empty dimension and {@code NULL} as location must be
+	 * returned.
+	 * </p>
+	 */
+	@Test
+	public void testGetSizeWithoutElements() {
+		System.out.println("testGetSizeWithoutElements");
+
+		Assert.assertEquals("wrong size: ", new Dimension(0, 0), bean.getSize());
+		Assert.assertNull("wrong location: ", bean.getLocation());
+	}
+
+	private static Map<String, Object> row(Object... keyValues) {
+		Map<String, Object> result = new HashMap<>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			result.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return result;
+	}
+}
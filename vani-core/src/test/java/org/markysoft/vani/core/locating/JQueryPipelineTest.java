@@ -0,0 +1,150 @@
+package org.markysoft.vani.core.locating;
+
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.javascript.JQuery;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JQueryPipelineTest {
+	private JQueryPipeline bean;
+	private JQueryElement root;
+
+	@Mock
+	private JQuery jquery;
+	@Mock
+	private WebDriver webDriver;
+	@Mock
+	private WebElement webElement;
+
+	@Captor
+	private ArgumentCaptor<List<List<Object>>> captorSteps;
+
+	@Before
+	public void setUp() {
+		root = new JQueryElement(jquery, webDriver, "ref", "table", 1L);
+		bean = root.query();
+	}
+
+	/**
+	 * tests the traversal steps of {@link JQueryPipeline}.
+	 * <p>
+	 * As result, nothing must be sent to the browser and the steps must be
+	 * recorded in calling order.
+	 * </p>
+	 */
+	@Test
+	public void testSteps() {
+		System.out.println("testSteps");
+
+		JQueryPipeline result = bean.find("tr").last().find("td").filter(".a").eq(-1).first().prev("td");
+
+		Assert.assertEquals("wrong steps: ",
+				Arrays.asList(Arrays.asList("find", Arrays.asList("tr")), Arrays.asList("last", Arrays.asList()),
+						Arrays.asList("find", Arrays.asList("td")), Arrays.asList("filter", Arrays.asList(".a")),
+						Arrays.asList("eq", Arrays.asList(-1)), Arrays.asList("first", Arrays.asList()),
+						Arrays.asList("prev", Arrays.asList("td"))),
+				result.getSteps());
+		Assert.assertTrue("pipeline must be immutable!", bean.getSteps().isEmpty());
+		Assert.assertEquals("wrong string: ",
+				"JQueryPipeline[ref.find[tr].last[].find[td].filter[.a].eq[-1].first[].prev[td]]", result.toString());
+		verify(jquery, times(0)).pipeline(anyObject(), anyObject(), anyString(), anyObject(), anyObject());
+	}
+
+	/**
+	 * tests {@link JQueryPipeline#text()}.
+	 * <p>
+	 * As result, the steps must be sent with the terminal operation in one
+	 * call.
+	 * </p>
+	 */
+	@Test
+	public void testText() {
+		System.out.println("testText");
+
+		when(jquery.pipeline(eq(root), anyObject(), eq("text"), anyObject(), eq(webDriver))).thenReturn("cell");
+
+		String result = bean.find("tr").last().find("td").text();
+
+		verify(jquery, times(1)).pipeline(eq(root), captorSteps.capture(), eq("text"),
+				eq(Collections.emptyList()), eq(webDriver));
+		Assert.assertEquals("wrong result: ", "cell", result);
+		Assert.assertEquals("wrong count of steps: ", 3, captorSteps.getValue().size());
+	}
+
+	/**
+	 * tests {@link JQueryPipeline#length()} and {@link JQueryPipeline#is(String)}
+	 * when the script returns {@code NULL}.
+	 * <p>
+	 * As result, the default values must be returned.
+	 * </p>
+	 */
+	@Test
+	public void testTerminalWithoutResult() {
+		System.out.println("testTerminalWithoutResult");
+
+		Assert.assertEquals("wrong length: ", 0, bean.find("tr").length());
+		Assert.assertFalse("wrong is: ", bean.is(":visible"));
+	}
+
+	/**
+	 * tests {@link JQueryPipeline#extract(JQueryProjection)}.
+	 * <p>
+	 * As result, the columns of the projection must be sent as argument of the
+	 * terminal operation.
+	 * </p>
+	 */
+	@Test
+	public void testExtract() {
+		System.out.println("testExtract");
+
+		JQueryProjection projection = new JQueryProjection().column("name", "td", "text");
+		Map<String, Object> row = new HashMap<>();
+		row.put("name", "cell");
+		when(jquery.pipeline(eq(root), anyObject(), eq("vaniExtract"),
+				eq(Arrays.asList(projection.getColumns())), eq(webDriver))).thenReturn(Arrays.asList(row));
+
+		List<Map<String, Object>> result = bean.find("tr").extract(projection);
+
+		Assert.assertEquals("wrong result: ", Arrays.asList(row), result);
+		Assert.assertTrue("wrong result: ", bean.find("ul").extract(JQueryProjection.of("text")).isEmpty());
+	}
+
+	/**
+	 * tests {@link JQueryPipeline#click()}.
+	 * <p>
+	 * As result, the first matched element must be clicked by the driver.
+	 * </p>
+	 */
+	@Test
+	public void testClick() {
+		System.out.println("testClick");
+
+		when(jquery.pipeline(eq(root), anyObject(), eq("get"), eq(Arrays.asList(0)), eq(webDriver)))
+				.thenReturn(webElement);
+
+		bean.find("a").click();
+
+		verify(webElement, times(1)).click();
+	}
+}
@@ -2,6 +2,7 @@ package org.markysoft.vani.core.locating;
 
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -12,11 +13,14 @@ import java.util.function.Predicate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.javascript.JavaScriptException;
 import org.markysoft.vani.core.javascript.VaniUtils;
 import org.markysoft.vani.core.wait.WaitOperatorBuilder;
 import org.markysoft.vani.core.wait.WaitUtil;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -24,6 +28,8 @@ public class PageMarkerHandlerTest {
 	private static final String DEFAULT_MARKER_NAME = "pageMarker";
 	private PageMarkerHandler handler;
 
+	@Mock
+	private VaniContext vaniContext;
 	@Mock
 	private VaniUtils vaniUtils;
 	@Mock
@@ -37,6 +43,7 @@ public class PageMarkerHandlerTest {
 	@Before
 	public void setUp() throws Exception {
 		handler = new PageMarkerHandler();
+		handler.setVaniContext(vaniContext);
 		handler.setWaitUtil(waitUtil);
 		handler.setVaniUtils(vaniUtils);
 		handler.setDefaultName(DEFAULT_MARKER_NAME);
@@ -119,4 +126,46 @@ public class PageMarkerHandlerTest {
 		verify(waitUtil, times(1)).variable("test");
 	}
 
+	/**
+	 * tests {@link PageMarkerHandler#waitUntilMarkerIsPresent} when the browser
+	 * engine is enabled and the previous document is unloaded during the
+	 * first call.
+	 * <p>
+	 * As result, the markers must be checked by asynchronous calls in the page
+	 * until the page is ready and nothing must be polled by java.
+	 * </p>
+	 */
+	@Test
+	public void testWaitUntilMarkerIsPresentInBrowser() {
+		System.out.println("testWaitUntilMarkerIsPresentInBrowser");
+
+		when(vaniContext.isBrowserWaitEnabled()).thenReturn(true);
+		when(waitUtil.prepareAsyncWait(eq(webDriver), anyLong())).thenReturn(webDriver);
+		when(vaniUtils.awaitPageMarker(eq(PageMarkerHandler.VANI_PAGE_MARKER_NAME), eq(DEFAULT_MARKER_NAME),
+				anyLong(), anyLong(), eq(webDriver))).thenThrow(new JavaScriptException("document unloaded"))
+						.thenReturn(true);
+
+		handler.waitUntilMarkerIsPresent(null, 5000, webDriver);
+
+		verify(vaniUtils, times(2)).awaitPageMarker(eq(PageMarkerHandler.VANI_PAGE_MARKER_NAME),
+				eq(DEFAULT_MARKER_NAME), anyLong(), eq(PageMarkerHandler.MARKER_INTERVAL), eq(webDriver));
+		verify(waitUtil, times(0)).variable(anyString());
+	}
+
+	/**
+	 * tests {@link PageMarkerHandler#waitUntilMarkerIsPresent} when the browser
+	 * reports that the page marker is not set in time.
+	 * <p>
+	 * As result, {@link TimeoutException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = TimeoutException.class)
+	public void testWaitUntilMarkerIsPresentInBrowserWithTimeout() {
+		System.out.println("testWaitUntilMarkerIsPresentInBrowserWithTimeout");
+
+		when(vaniContext.isBrowserWaitEnabled()).thenReturn(true);
+		when(waitUtil.prepareAsyncWait(eq(webDriver), anyLong())).thenReturn(webDriver);
+
+		handler.waitUntilMarkerIsPresent("test", 345, webDriver);
+	}
 }
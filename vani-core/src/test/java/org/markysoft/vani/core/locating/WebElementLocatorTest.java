@@ -18,6 +18,7 @@ import org.junit.runner.RunWith;
 import org.markysoft.vani.core.VaniContext;
 import org.markysoft.vani.core.annotation.AjaxWait;
 import org.markysoft.vani.core.annotation.ContentWait;
+import org.markysoft.vani.core.javascript.DomGeneration;
 import org.markysoft.vani.core.locating.RegionObject;
 import org.markysoft.vani.core.locating.WebElementLocator;
 import org.markysoft.vani.core.util.FieldTypeInfo;
@@ -198,6 +199,77 @@ public class WebElementLocatorTest {
 		Assert.assertEquals("wrong cached element: ", null, bean.cachedElement);
 	}
 
+	/**
+	 * tests {@link WebElementLocator#findElement()} when caching is disabled
+	 * and a {@link LookupScope} is open.
+	 * <p>
+	 * As result, {@code by} must only be executed once within the scope and
+	 * again after the scope was invalidated by a navigation.
+	 * </p>
+	 */
+	@Test
+	public void testFindElementWithLookupScope() {
+		System.out.println("testFindElementWithLookupScope");
+
+		initBean(false);
+		when(searchContext.findElement(by)).thenReturn(element, element2);
+		LookupScope scope = new LookupScope();
+		scope.open();
+		try {
+			WebElement result = bean.findElement();
+			WebElement result2 = bean.findElement();
+			LookupScope.invalidateCurrent();
+			WebElement result3 = bean.findElement();
+
+			Assert.assertEquals("wrong result: ", element, result);
+			Assert.assertEquals("wrong result: ", element, result2);
+			Assert.assertEquals("wrong result after navigation: ", element2, result3);
+			verify(searchContext, times(2)).findElement(by);
+			Assert.assertEquals("wrong cached element: ", null, bean.cachedElement);
+		} finally {
+			scope.close();
+		}
+		Assert.assertNull("scope must be closed!", LookupScope.getCurrent());
+	}
+
+	/**
+	 * tests {@link WebElementLocator#findElements()} when caching is disabled,
+	 * cache validation is enabled and a {@link LookupScope} is open.
+	 * <p>
+	 * As result, the list must be reused within the scope without validating
+	 * it and must be located again after the scope was invalidated by a
+	 * navigation.
+	 * </p>
+	 */
+	@Test
+	public void testFindElementsWithLookupScope() {
+		System.out.println("testFindElementsWithLookupScope");
+
+		initBean(webDriver, false);
+		when(vaniContext.isCacheValidationEnabled()).thenReturn(true);
+		DomGeneration.update(webDriver, "a:0");
+		List<WebElement> elements = Arrays.asList(element);
+		List<WebElement> elements2 = Arrays.asList(element2);
+		when(webDriver.findElements(by)).thenReturn(elements, elements2);
+		LookupScope scope = new LookupScope();
+		scope.open();
+		try {
+			List<WebElement> result = bean.findElements();
+			DomGeneration.update(webDriver, "a:1");
+			List<WebElement> result2 = bean.findElements();
+			LookupScope.invalidateCurrent();
+			List<WebElement> result3 = bean.findElements();
+
+			Assert.assertEquals("wrong result: ", elements, result);
+			Assert.assertEquals("wrong result: ", elements, result2);
+			Assert.assertEquals("wrong result after navigation: ", elements2, result3);
+			verify(webDriver, times(2)).findElements(by);
+			Assert.assertEquals("wrong count of scoped lists: ", 1, scope.size());
+		} finally {
+			scope.close();
+		}
+	}
+
 	/**
 	 * tests {@link WebElementLocator#findElement()} when cached element is
 	 * available.
@@ -252,6 +324,58 @@ public class WebElementLocatorTest {
 		Assert.assertNotEquals("wrong cached element: ", cachedElement, bean.cachedElement);
 	}
 
+	/**
+	 * tests {@link WebElementLocator#findElement()} when cache validation is
+	 * enabled and the generation of the document reported by jquery changes
+	 * after the second access.
+	 * <p>
+	 * As result, {@code by} must be executed at first and third access and
+	 * the reported generation must be remembered for the relocated element.
+	 * </p>
+	 */
+	@Test
+	public void testFindElementWithCacheValidation() {
+		System.out.println("testFindElementWithCacheValidation");
+
+		initBean(webDriver, true);
+		when(vaniContext.isCacheValidationEnabled()).thenReturn(true);
+		DomGeneration.update(webDriver, "a:0");
+		when(webDriver.findElement(by)).thenReturn(element, element2);
+
+		Assert.assertEquals("wrong result at first access: ", element, bean.findElement());
+		Assert.assertEquals("wrong result at second access: ", element, bean.findElement());
+		DomGeneration.update(webDriver, "a:1");
+		Assert.assertEquals("wrong result at third access: ", element2, bean.findElement());
+		Assert.assertEquals("wrong result at fourth access: ", element2, bean.findElement());
+
+		verify(webDriver, times(2)).findElement(by);
+		Assert.assertEquals("wrong cached generation: ", "a:1", bean.cacheGeneration);
+	}
+
+	/**
+	 * tests {@link WebElementLocator#findElement()} when cache validation is
+	 * enabled, but no generation of the document is reported.
+	 * <p>
+	 * As result, the cached element must be returned without validation until
+	 * the generation is reset by a navigation.
+	 * </p>
+	 */
+	@Test
+	public void testFindElementWithCacheValidationWithoutGeneration() {
+		System.out.println("testFindElementWithCacheValidationWithoutGeneration");
+
+		initBean(webDriver, true);
+		when(vaniContext.isCacheValidationEnabled()).thenReturn(true);
+		when(webDriver.findElement(by)).thenReturn(element, element2);
+
+		Assert.assertEquals("wrong result at first access: ", element, bean.findElement());
+		Assert.assertEquals("wrong result at second access: ", element, bean.findElement());
+		DomGeneration.reset(webDriver);
+		Assert.assertEquals("wrong result after navigation: ", element2, bean.findElement());
+
+		verify(webDriver, times(2)).findElement(by);
+	}
+
 	/**
 	 * tests {@link WebElementLocator#getWebDriver()} when {@code searchContext}
 	 * is not supported.
@@ -383,6 +507,40 @@ public class WebElementLocatorTest {
 		verify(waitUtil, times(0)).ajaxJQuery(anyLong(), anyObject());
 	}
 
+	/**
+	 * tests {@link WebElementLocator#executeContentWait()} when
+	 * {@link ContentWait} is configured and the field is accessed twice.
+	 * <p>
+	 * As result, {@link ContentWait} must be executed twice, but its selector
+	 * and condition must only be resolved once.
+	 * </p>
+	 */
+	@Test
+	public void testExecuteContentWaitTwice() {
+		System.out.println("testExecuteContentWaitTwice");
+
+		initBean(webDriver, false);
+		String selector = "${content.jq.progressBar}";
+		String condition = "${content.jq.condition.progressBar}";
+		when(fieldTypeInfo.getContentWait()).thenReturn(contentWait);
+		when(contentWait.timeout()).thenReturn(5000);
+		when(contentWait.pollingTime()).thenReturn(1000);
+		when(contentWait.value()).thenReturn(selector);
+		when(contentWait.condition()).thenReturn(condition);
+		when(vaniContext.resolveExpression(selector)).thenReturn("#loading");
+		when(vaniContext.resolveExpression(condition)).thenReturn("hasMatches()");
+		when(waitUtil.element("#loading", webDriver)).thenReturn(waitBuilder);
+		when(waitBuilder.spel("hasMatches()")).thenReturn(waitBuilder);
+
+		bean.executeContentWait();
+		bean.executeContentWait();
+
+		verify(fieldTypeInfo, times(1)).getContentWait();
+		verify(vaniContext, times(1)).resolveExpression(selector);
+		verify(vaniContext, times(1)).resolveExpression(condition);
+		verify(waitBuilder, times(2)).until(5000L, 1000L, webDriver);
+	}
+
 	protected void initBean(boolean shouldBeCached) {
 		initBean(searchContext, shouldBeCached);
 	}
@@ -0,0 +1,83 @@
+package org.markysoft.vani.core.locating.factory;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.VaniContext;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AnnotationProxyFactoryTest {
+	private AnnotationProxyFactory bean;
+
+	@Mock
+	private VaniContext vaniContext;
+
+	@FindBy(css = "${content.css}")
+	private Object contentField;
+	@FindBy(css = "${content.css}")
+	private Object contentField2;
+	@FindBys({ @FindBy(id = "${content.id}"), @FindBy(css = ".item") })
+	private Object itemsField;
+
+	@Before
+	public void setUp() {
+		bean = new AnnotationProxyFactory();
+		bean.vaniContext = vaniContext;
+		when(vaniContext.resolveExpression("${content.css}")).thenReturn("#content");
+		when(vaniContext.resolveExpression("${content.id}")).thenReturn("list");
+		when(vaniContext.resolveExpression(".item")).thenReturn(".item");
+	}
+
+	/**
+	 * tests {@link AnnotationProxyFactory#createSnapshot(java.lang.annotation.Annotation)}
+	 * for two fields with the same {@link FindBy} annotation.
+	 * <p>
+	 * As result, the placeholders must be resolved once and both fields must
+	 * get the same snapshot.
+	 * </p>
+	 */
+	@Test
+	public void testCreateSnapshot() throws Exception {
+		System.out.println("testCreateSnapshot");
+
+		FindBy findBy = getClass().getDeclaredField("contentField").getAnnotation(FindBy.class);
+		FindBy findBy2 = getClass().getDeclaredField("contentField2").getAnnotation(FindBy.class);
+
+		FindBy result = bean.createSnapshot(findBy);
+
+		Assert.assertEquals("wrong css: ", "#content", result.css());
+		Assert.assertEquals("wrong id: ", "", result.id());
+		Assert.assertSame("wrong result: ", result, bean.createSnapshot(findBy2));
+		verify(vaniContext, times(1)).resolveExpression("${content.css}");
+	}
+
+	/**
+	 * tests {@link AnnotationProxyFactory#createSnapshot(java.lang.annotation.Annotation)}
+	 * for {@link FindBys}.
+	 * <p>
+	 * As result, the nested annotations must be resolved and returned as typed
+	 * array.
+	 * </p>
+	 */
+	@Test
+	public void testCreateSnapshotWithNestedAnnotations() throws Exception {
+		System.out.println("testCreateSnapshotWithNestedAnnotations");
+
+		FindBys findBys = getClass().getDeclaredField("itemsField").getAnnotation(FindBys.class);
+
+		FindBy[] result = bean.createSnapshot(findBys).value();
+
+		Assert.assertEquals("wrong count: ", 2, result.length);
+		Assert.assertEquals("wrong id: ", "list", result[0].id());
+		Assert.assertEquals("wrong css: ", ".item", result[1].css());
+	}
+}
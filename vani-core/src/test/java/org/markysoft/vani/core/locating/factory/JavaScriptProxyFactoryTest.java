@@ -1,11 +1,18 @@
 package org.markysoft.vani.core.locating.factory;
 
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Assert;
 import org.junit.Before;
@@ -13,9 +20,16 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.markysoft.vani.core.VaniContext;
 import org.markysoft.vani.core.annotation.ManualJavaScriptInterface;
+import org.markysoft.vani.core.javascript.JQuery;
+import org.markysoft.vani.core.javascript.JQueryTypeHandler;
+import org.markysoft.vani.core.javascript.JavaScriptSource;
+import org.markysoft.vani.core.javascript.TypeHandler;
+import org.markysoft.vani.core.locating.JQueryElement;
 import org.markysoft.vani.core.locating.factory.JavaScriptProxyFactory;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
 import org.reflections.Reflections;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -28,6 +42,12 @@ public class JavaScriptProxyFactoryTest {
 	@Mock
 	private Reflections reflections;
 
+	@Mock
+	private JavaScriptSource<JQuery> jQuerySource;
+
+	@Mock
+	private TestWebDriver webDriver;
+
 	@Before
 	public void setUp() {
 		bean = new JavaScriptProxyFactory();
@@ -109,6 +129,40 @@ public class JavaScriptProxyFactoryTest {
 		Assert.assertEquals("wrong result on idx '0'", expected, result.get(0));
 	}
 
+	/**
+	 * tests {@link JavaScriptProxyFactory#createProxy(JavaScriptSource)} for
+	 * {@link JQuery} when {@link JQueryElement#val(String)} is called and the
+	 * call function returns the descriptor of the jquery object, like the
+	 * setter of jquery does.
+	 * <p>
+	 * As result, the descriptor must be accepted by the proxy and the value
+	 * must be passed to the script.
+	 * </p>
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	@Test
+	public void testCreateProxyWithJQueryValSetter() {
+		System.out.println("testCreateProxyWithJQueryValSetter");
+
+		when(jQuerySource.getJsInterface()).thenReturn(JQuery.class);
+		JQuery jQuery = bean.createProxy(jQuerySource);
+		JQueryTypeHandler typeHandler = new JQueryTypeHandler();
+		typeHandler.setjQuery(jQuery);
+		when(vaniContext.getTypeHandlerFor(JQueryElement.class)).thenReturn((TypeHandler) typeHandler);
+		Map<String, Object> descriptor = new HashMap<>();
+		descriptor.put("ref", "abc.2");
+		descriptor.put("selector", "input");
+		descriptor.put("length", 1L);
+		when(webDriver.executeScript(anyString(), anyVararg())).thenReturn(descriptor);
+
+		new JQueryElement(jQuery, webDriver, "abc.1", "input", 1L).val("hello");
+
+		verify(webDriver, times(1)).executeScript(anyString(), eq("hello"));
+	}
+
+	interface TestWebDriver extends WebDriver, JavascriptExecutor {
+	}
+
 	interface JsInterfaceWithoutSuperInterfaces {
 	}
 
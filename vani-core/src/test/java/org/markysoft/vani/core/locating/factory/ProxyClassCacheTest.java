@@ -0,0 +1,132 @@
+package org.markysoft.vani.core.locating.factory;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.locating.UnableToLocateException;
+import org.markysoft.vani.core.locating.VaniElementLocator;
+import org.markysoft.vani.core.util.ElementInterceptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import net.bytebuddy.implementation.bind.annotation.Pipe;
+import net.bytebuddy.matcher.ElementMatchers;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ProxyClassCacheTest {
+	private ProxyClassCache bean;
+
+	@Mock
+	private VaniElementLocator<WebElement> locator;
+	@Mock
+	private VaniElementLocator<WebElement> locator2;
+	@Mock
+	private WebElement webElement;
+	@Mock
+	private WebElement webElement2;
+
+	@Before
+	public void setUp() {
+		bean = new ProxyClassCache(ElementMatchers.any(), ElementInterceptor.class,
+				Pipe.Binder.install(ElementInterceptor.Forwarder.class));
+	}
+
+	/**
+	 * tests {@link ProxyClassCache#newInstance(Class, Object)} when two
+	 * proxies of same type are created with different interceptors.
+	 * <p>
+	 * As result, both proxies must share the generated class, but each one
+	 * must delegate to its own interceptor.
+	 * </p>
+	 */
+	@Test
+	public void testNewInstanceTwice() throws Exception {
+		System.out.println("testNewInstanceTwice");
+
+		when(locator.findElement()).thenReturn(webElement);
+		when(locator2.findElement()).thenReturn(webElement2);
+		when(webElement.getText()).thenReturn("first");
+		when(webElement2.getText()).thenReturn("second");
+
+		WebElement result = bean.newInstance(WebElement.class, new ElementInterceptor(locator));
+		WebElement result2 = bean.newInstance(WebElement.class, new ElementInterceptor(locator2));
+
+		Assert.assertSame("wrong proxy class: ", result.getClass(), result2.getClass());
+		Assert.assertEquals("wrong size: ", 1, bean.size());
+		Assert.assertEquals("wrong text: ", "first", result.getText());
+		Assert.assertEquals("wrong text: ", "second", result2.getText());
+	}
+
+	/**
+	 * tests the forwarding of a call with arguments by a proxy of
+	 * {@link WebElement}.
+	 * <p>
+	 * As result, the arguments must be forwarded to the located element.
+	 * </p>
+	 */
+	@Test
+	public void testForwardWithArguments() throws Exception {
+		System.out.println("testForwardWithArguments");
+
+		when(locator.findElement()).thenReturn(webElement);
+		WebElement result = bean.newInstance(WebElement.class, new ElementInterceptor(locator));
+
+		result.sendKeys("vani", "test");
+
+		verify(webElement, times(1)).sendKeys("vani", "test");
+	}
+
+	/**
+	 * tests the forwarding of a call by a proxy of {@link List}.
+	 * <p>
+	 * As result, the call must be forwarded to the located elements.
+	 * </p>
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testForwardToList() throws Exception {
+		System.out.println("testForwardToList");
+
+		when(locator.findElements()).thenReturn(Arrays.asList(webElement, webElement2));
+		List<WebElement> result = bean.newInstance(List.class, new ElementInterceptor(locator));
+
+		Assert.assertEquals("wrong size: ", 2, result.size());
+		Assert.assertSame("wrong element: ", webElement2, result.get(1));
+	}
+
+	/**
+	 * tests the forwarding of a call by a proxy of {@link WebElement}, when
+	 * the located element throws an exception.
+	 * <p>
+	 * As result, the exception must be wrapped by an
+	 * {@link UnableToLocateException}.
+	 * </p>
+	 */
+	@Test
+	public void testForwardWithException() throws Exception {
+		System.out.println("testForwardWithException");
+
+		StaleElementReferenceException cause = new StaleElementReferenceException("detached");
+		when(locator.findElement()).thenReturn(webElement);
+		doThrow(cause).when(webElement).click();
+		WebElement result = bean.newInstance(WebElement.class, new ElementInterceptor(locator));
+
+		try {
+			result.click();
+			Assert.fail("exception expected");
+		} catch (UnableToLocateException ex) {
+			Assert.assertSame("wrong cause: ", cause, ex.getCause());
+		}
+	}
+}
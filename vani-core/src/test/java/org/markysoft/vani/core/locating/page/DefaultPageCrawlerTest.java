@@ -327,6 +327,35 @@ public class DefaultPageCrawlerTest {
 		verify(pageHandler2, times(1)).handle(url, webDriver);
 	}
 
+	/**
+	 * tests {@link DefaultPageCrawler#handle(String)} when two page handlers
+	 * are available and the wait for the settled page is enabled.
+	 * <p>
+	 * As result, {@code webDriver} must open given url, it must be waited for
+	 * the settled page instead of fixed waits and second pageHandler has to be
+	 * called.
+	 * </p>
+	 */
+	@Test
+	public void testHandleWithPageIdle() {
+		System.out.println("testHandleWithPageIdle");
+
+		String url = "http://www.something.com/c/500.html";
+		bean.pageLoadAjaxSeconds = 5;
+		bean.pageLoadWaitSeconds = 3;
+		bean.pageIdleSeconds = 10;
+		bean.pageHandlers = Arrays.asList(pageHandler, pageHandler2);
+		when(pageHandler2.isApplicable(url)).thenReturn(true);
+
+		bean.handle(url);
+
+		verify(webDriver, times(1)).get(url);
+		verify(waitUtil, times(1)).pageIdle(10000, webDriver);
+		verify(waitUtil, times(0)).waitTime(anyLong());
+		verify(waitUtil, times(0)).ajaxJQuery(anyLong(), eq(webDriver));
+		verify(pageHandler2, times(1)).handle(url, webDriver);
+	}
+
 	/**
 	 * tests {@link DefaultPageCrawler#handle(String)} when 3 applicable urls
 	 * are available, but one is duplicated.
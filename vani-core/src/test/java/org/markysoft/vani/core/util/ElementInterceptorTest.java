@@ -73,7 +73,7 @@ public class ElementInterceptorTest {
 		Object result = bean.resolvePlaceholders("${placeholder}");
 
 		verify(vaniContext, times(1)).resolveExpression("${placeholder}");
-		verify(annotationProxyFactory, times(0)).createProxy(anyObject());
+		verify(annotationProxyFactory, times(0)).createSnapshot(anyObject());
 		Assert.assertEquals("wrong result", "secret", result);
 	}
 
@@ -95,7 +95,7 @@ public class ElementInterceptorTest {
 		Object result = bean.resolvePlaceholders(new String[] { "${placeholder}", "${placeholder2}", "third" });
 
 		verify(vaniContext, times(3)).resolveExpression(anyString());
-		verify(annotationProxyFactory, times(0)).createProxy(anyObject());
+		verify(annotationProxyFactory, times(0)).createSnapshot(anyObject());
 		Assert.assertArrayEquals("wrong result", new String[] { "my ", "secret.", "third" }, (Object[]) result);
 	}
 
@@ -110,12 +110,12 @@ public class ElementInterceptorTest {
 	public void testResolvePlaceholdersWithAnnotation() {
 		System.out.println("testResolvePlaceholdersWithAnnotation");
 
-		when(annotationProxyFactory.createProxy(findBy)).thenReturn(wrappedFindBy);
+		when(annotationProxyFactory.createSnapshot(findBy)).thenReturn(wrappedFindBy);
 
 		Object result = bean.resolvePlaceholders(findBy);
 
 		verify(vaniContext, times(0)).resolveExpression(anyString());
-		verify(annotationProxyFactory, times(1)).createProxy(findBy);
+		verify(annotationProxyFactory, times(1)).createSnapshot(findBy);
 		Assert.assertEquals("wrong result", wrappedFindBy, result);
 	}
 
@@ -0,0 +1,405 @@
+package org.markysoft.vani.core.util;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.annotation.GlobalReference;
+import org.markysoft.vani.core.annotation.JavaScriptFunction;
+import org.markysoft.vani.core.annotation.JsFunctionArguments;
+import org.markysoft.vani.core.annotation.JsFunctionName;
+import org.markysoft.vani.core.javascript.GlobalReferenceHolder;
+import org.markysoft.vani.core.javascript.JQueryTypeHandler;
+import org.markysoft.vani.core.javascript.JavaScriptCallFunction;
+import org.markysoft.vani.core.javascript.JavaScriptSource;
+import org.markysoft.vani.core.locating.JQueryElement;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JavaScriptInvocationTest {
+	@Mock
+	private JavaScriptSource<?> jsSource;
+	@Mock
+	private VaniContext vaniContext;
+	@Mock
+	private JavaScriptFunction jsFunctionAnnotation;
+	@Mock
+	private JavaScriptCallFunction jsCallFunction;
+	@Mock
+	protected JQueryElement $element;
+	@Mock
+	protected JQueryTypeHandler $typeHandler;
+	@Mock
+	private WebDriver webDriver;
+	@Mock
+	private TestWebDriver testWebDriver;
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when
+	 * {@code NULL} is used as parameter.
+	 * <p>
+	 * As result, {@code NULL} must be returned, because no arguments were
+	 * specified
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsWithoutArguments() throws Exception {
+		System.out.println("testGetArgumentsWithoutArguments");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod");
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Object[] result = bean.getArguments(null);
+
+		Assert.assertNull("wrong result", result);
+		Assert.assertNull("wrong executor", bean.getExecutor(null));
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when the method
+	 * has neither driver nor reference parameters.
+	 * <p>
+	 * As result, provided arguments must be returned.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsWithoutDriverAndReference() throws Exception {
+		System.out.println("testGetArgumentsWithoutDriverAndReference");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, Integer.class);
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+		Object[] args = new Object[] { "fire", 5248 };
+
+		Object[] result = bean.getArguments(args);
+
+		Assert.assertArrayEquals("wrong result: ", args, result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when the method
+	 * has driver and reference parameters.
+	 * <p>
+	 * As result, the returned array must only contain the payload arguments
+	 * and the driver and reference must be provided by their slots.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArguments() throws Exception {
+		System.out.println("testGetArguments");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, WebDriver.class,
+				Integer.class, JQueryElement.class);
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+		Object[] args = new Object[] { "fire", testWebDriver, 55, $element };
+
+		Object[] result = bean.getArguments(args);
+
+		Assert.assertArrayEquals("wrong result", new Object[] { "fire", 55 }, result);
+		Assert.assertEquals("wrong executor: ", testWebDriver, bean.getExecutor(args));
+		Assert.assertEquals("wrong reference: ", $element, bean.getReference(args));
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getExecutor(Object[])} when
+	 * {@code NULL} is provided as driver.
+	 * <p>
+	 * As result, {@code NULL} must be returned and the driver must not be
+	 * provided to the javascript function.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetExecutorWithNull() throws Exception {
+		System.out.println("testGetExecutorWithNull");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, WebDriver.class,
+				Integer.class, JQueryElement.class);
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+		Object[] args = new Object[] { "fire", null, 55, null };
+
+		Assert.assertNull("wrong executor: ", bean.getExecutor(args));
+		Assert.assertArrayEquals("wrong result", new Object[] { "fire", 55 }, bean.getArguments(args));
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when the
+	 * provided {@link WebDriver} doesn't implement {@link JavascriptExecutor}.
+	 * <p>
+	 * As result, no executor must be returned and the driver must be provided
+	 * like any other argument.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsWithDriverNotExecutor() throws Exception {
+		System.out.println("testGetArgumentsWithDriverNotExecutor");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, WebDriver.class,
+				Integer.class, JQueryElement.class);
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+		Object[] args = new Object[] { "fire", webDriver, 55, $element };
+
+		Object[] result = bean.getArguments(args);
+
+		Assert.assertArrayEquals("wrong result", new Object[] { "fire", webDriver, 55 }, result);
+		Assert.assertNull("wrong executor: ", bean.getExecutor(args));
+		Assert.assertEquals("wrong reference: ", $element, bean.getReference(args));
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when the
+	 * parameters are declared as {@link Object}.
+	 * <p>
+	 * As result, driver and reference must be filtered by the types of the
+	 * arguments.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsWithRuntimeTypes() throws Exception {
+		System.out.println("testGetArgumentsWithRuntimeTypes");
+
+		Method jsMethod = getClass().getDeclaredMethod("objectMethod", Object.class, Object.class, Object.class,
+				Object.class);
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+		Object[] args = new Object[] { "fire", testWebDriver, null, $element };
+
+		Object[] result = bean.getArguments(args);
+
+		Assert.assertArrayEquals("wrong result", new Object[] { "fire", null }, result);
+		Assert.assertEquals("wrong executor: ", testWebDriver, bean.getExecutor(args));
+		Assert.assertEquals("wrong reference: ", $element, bean.getReference(args));
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when call
+	 * function has no arguments.
+	 * <p>
+	 * As result,empty array must be returned.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsForCustomCallFuncWithoutArgs() throws Exception {
+		System.out.println("testGetArgumentsForCustomCallFuncWithoutArgs");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, Integer.class);
+		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
+		when(jsCallFunction.getCallMethod()).thenReturn(getClass().getDeclaredMethod("javaScriptMethod"));
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Object[] result = bean.getArguments(new Object[] { "something", 55 });
+
+		Assert.assertArrayEquals("wrong result", new Object[] {}, result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when call
+	 * function has arguments.
+	 * <p>
+	 * As result,array must contains global reference string, calling js
+	 * function and provided arguments array.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsForCustomCallFuncWithArgs() throws Exception {
+		System.out.println("testGetArgumentsForCustomCallFuncWithArgs");
+
+		String referenceValue = "645-4546548-645465";
+		Method jsMethod = getClass().getDeclaredMethod("referenceMethod", GlobalReferenceHolder.class, String.class,
+				Integer.class);
+		when(jsFunctionAnnotation.name()).thenReturn("fire");
+		when($element.getReference()).thenReturn(referenceValue);
+		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
+		when(jsCallFunction.getCallMethod()).thenReturn(getClass().getDeclaredMethod("callFunction", String.class,
+				String.class, Object[].class));
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Object[] result = bean.getArguments(new Object[] { $element, "something", 55 });
+
+		Assert.assertArrayEquals("wrong result",
+				new Object[] { referenceValue, "fire", new Object[] { "something", 55 } }, result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when call
+	 * function has no annotated parameters.
+	 * <p>
+	 * As result,array must be empty, because vani is not able to resolve the
+	 * required parameters without annotation.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsForCustomCallFuncWithoutAnnotatedArgs() throws Exception {
+		System.out.println("testGetArgumentsForCustomCallFuncWithoutAnnotatedArgs");
+
+		Method jsMethod = getClass().getDeclaredMethod("referenceMethod", GlobalReferenceHolder.class, String.class,
+				Integer.class);
+		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
+		when(jsCallFunction.getCallMethod()).thenReturn(getClass().getDeclaredMethod(
+				"callFunctionWithoutAnnotatedParams", String.class, String.class, Integer.class));
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Object[] result = bean.getArguments(new Object[] { $element, "something", 55 });
+
+		Assert.assertArrayEquals("wrong result", new Object[] {}, result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when call
+	 * function has annotated parameters, but the reference is {@code NULL} and
+	 * {@link JavaScriptFunction} declares no name.
+	 * <p>
+	 * As result, array must contains {@code NULL} as global reference string,
+	 * js method name and provided arguments array.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsForCustomCallFuncWithoutFunctionNameValueAndReference() throws Exception {
+		System.out.println("testGetArgumentsForCustomCallFuncWithoutFunctionNameValueAndReference");
+
+		Method jsMethod = getClass().getDeclaredMethod("referenceMethod", GlobalReferenceHolder.class, String.class,
+				Integer.class);
+		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
+		when(jsCallFunction.getCallMethod()).thenReturn(getClass().getDeclaredMethod("callFunction", String.class,
+				String.class, Object[].class));
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Object[] result = bean.getArguments(new Object[] { null, "something", 55 });
+
+		Assert.assertArrayEquals("wrong result",
+				new Object[] { null, "referenceMethod", new Object[] { "something", 55 } }, result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getArguments(Object[])} when call
+	 * function has annotated parameters, but the reference is {@code NULL} and
+	 * {@link JavaScriptFunction} declares value instead of name.
+	 * <p>
+	 * As result, array must contains {@code NULL} as global reference string
+	 * and as js method name and provided arguments array.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetArgumentsForCustomCallFuncWithFunctionSouce() throws Exception {
+		System.out.println("testGetArgumentsForCustomCallFuncWithFunctionSouce");
+
+		Method jsMethod = getClass().getDeclaredMethod("referenceMethod", GlobalReferenceHolder.class, String.class,
+				Integer.class);
+		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
+		when(jsCallFunction.getCallMethod()).thenReturn(getClass().getDeclaredMethod("callFunction", String.class,
+				String.class, Object[].class));
+		when(jsFunctionAnnotation.value()).thenReturn("alert('haha :P');");
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Object[] result = bean.getArguments(new Object[] { null, "something", 55 });
+
+		verify(jsFunctionAnnotation, times(0)).name();
+		Assert.assertArrayEquals("wrong result", new Object[] { null, null, new Object[] { "something", 55 } },
+				result);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getTypeHandler(VaniContext)} when it
+	 * is called twice.
+	 * <p>
+	 * As result, the handler must be resolved only once.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testGetTypeHandler() throws Exception {
+		System.out.println("testGetTypeHandler");
+
+		Method jsMethod = getClass().getDeclaredMethod("elementMethod");
+		when(vaniContext.getTypeHandlerFor((Class) JQueryElement.class)).thenReturn($typeHandler);
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		bean.getTypeHandler(vaniContext);
+		Object result = bean.getTypeHandler(vaniContext);
+
+		Assert.assertEquals("wrong result: ", $typeHandler, result);
+		verify(vaniContext, times(1)).getTypeHandlerFor(JQueryElement.class);
+	}
+
+	/**
+	 * tests {@link JavaScriptInvocation#getCallSource()} with
+	 * {@link JavaScriptFunction} declaring a value.
+	 * <p>
+	 * As result, the call source must be rendered when the invocation is
+	 * created.
+	 * </p>
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void testGetCallSource() throws Exception {
+		System.out.println("testGetCallSource");
+
+		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod");
+		when(jsFunctionAnnotation.value()).thenReturn("alert(arguments[0]);");
+		JavaScriptInvocation bean = new JavaScriptInvocation(jsMethod, jsFunctionAnnotation, jsSource);
+
+		Assert.assertEquals("wrong result: ",
+				"try{alert(arguments[0]);}catch(ex){console.log('Failed to execute injected script: '+ex);return '@JS-ERROR: '+ex;}",
+				bean.getCallSource());
+	}
+
+	protected void javaScriptMethod() {
+	}
+
+	protected void javaScriptMethod(String param, Integer param2) {
+	}
+
+	protected void javaScriptMethod(String param, WebDriver webDriver, Integer param2, JQueryElement jqElement) {
+	}
+
+	protected void objectMethod(Object param, Object param2, Object param3, Object param4) {
+	}
+
+	protected void referenceMethod(GlobalReferenceHolder reference, String param, Integer param2) {
+	}
+
+	protected JQueryElement elementMethod() {
+		return null;
+	}
+
+	protected void callFunction(@GlobalReference String reference, @JsFunctionName String functionName,
+			@JsFunctionArguments Object[] functionArgs) {
+	}
+
+	protected void callFunctionWithoutAnnotatedParams(String param1, String param2, Integer param3) {
+	}
+
+	interface TestWebDriver extends WebDriver, JavascriptExecutor {
+	}
+}
@@ -1,13 +1,14 @@
 package org.markysoft.vani.core.util;
 
-import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -16,13 +17,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.markysoft.vani.core.VaniContext;
-import org.markysoft.vani.core.annotation.GlobalReference;
 import org.markysoft.vani.core.annotation.JavaScriptFunction;
-import org.markysoft.vani.core.annotation.JsFunctionArguments;
-import org.markysoft.vani.core.annotation.JsFunctionName;
-import org.markysoft.vani.core.javascript.GlobalReferenceHolder;
 import org.markysoft.vani.core.javascript.JQueryTypeHandler;
-import org.markysoft.vani.core.javascript.JavaScriptCallFunction;
 import org.markysoft.vani.core.javascript.JavaScriptSource;
 import org.markysoft.vani.core.javascript.TypeHandler;
 import org.markysoft.vani.core.javascript.VaniJavaScriptExecutor;
@@ -55,11 +51,9 @@ public class JavaScriptMethodInterceptorTest {
 	@Mock
 	private ApplicationContext appContext;
 	@Mock
-	private JavaScriptFunction jsFunctionAnnotation;
-	@Mock
-	private JavaScriptCallFunction jsCallFunction;
-	@Mock
 	private TestWebDriver testWebDriver;
+	@Mock
+	private JavaScriptInvocation invocation;
 
 	@Before
 	public void setUp() {
@@ -71,7 +65,7 @@ public class JavaScriptMethodInterceptorTest {
 
 	/**
 	 * tests
-	 * {@link JavaScriptMethodInterceptor#handleResult(Object, Class, WebDriver)}
+	 * {@link JavaScriptMethodInterceptor#handleResult(Object, JavaScriptInvocation, WebDriver)}
 	 * when no {@link TypeHandler} is available for provided return-type.
 	 * <p>
 	 * As result, provided value must be returned, because no
@@ -84,15 +78,15 @@ public class JavaScriptMethodInterceptorTest {
 
 		String resultParam = "fire";
 
-		String result = bean.handleResult(resultParam, String.class, webDriver);
+		Object result = bean.handleResult(resultParam, invocation, webDriver);
 
-		verify(vaniContext, times(1)).getTypeHandlerFor(String.class);
+		verify(invocation, times(1)).getTypeHandler(vaniContext);
 		Assert.assertEquals("wrong result: ", resultParam, result);
 	}
 
 	/**
 	 * tests
-	 * {@link JavaScriptMethodInterceptor#handleResult(Object, Class, WebDriver)}
+	 * {@link JavaScriptMethodInterceptor#handleResult(Object, JavaScriptInvocation, WebDriver)}
 	 * when {@link TypeHandler} is available for provided return-type.
 	 * <p>
 	 * As result, converted value must be returned, because a
@@ -106,12 +100,11 @@ public class JavaScriptMethodInterceptorTest {
 
 		TypeHandler typeHandler = $typeHandler;
 		String resultParam = "fire";
-		when(vaniContext.getTypeHandlerFor(anyObject())).thenReturn(typeHandler);
 		when($typeHandler.get(resultParam, webDriver)).thenReturn($element);
+		when(invocation.getTypeHandler(vaniContext)).thenReturn(typeHandler);
 
-		JQueryElement result = bean.handleResult(resultParam, JQueryElement.class, webDriver);
+		Object result = bean.handleResult(resultParam, invocation, webDriver);
 
-		verify(vaniContext, times(1)).getTypeHandlerFor(JQueryElement.class);
 		Assert.assertEquals("wrong result: ", $element, result);
 	}
 
@@ -156,260 +149,57 @@ public class JavaScriptMethodInterceptorTest {
 
 	/**
 	 * tests
-	 * {@link JavaScriptMethodInterceptor#filterArguments(Method, Object[], java.util.Map, Class...)}
-	 * when {@code NULL} is used as parameter.
-	 * <p>
-	 * As result, {@code NULL} must be returned, because no arguments were
-	 * specified
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testFilterArgumentsWithoutArguments() throws Exception {
-		System.out.println("testFilterArgumentsWithoutArguments");
-
-		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod");
-
-		Object result = bean.filterArguments(jsMethod, null, new HashMap<>(), WebDriver.class);
-
-		Assert.assertEquals("wrong result", null, result);
-	}
-
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#filterArguments(Method, Object[], java.util.Map, Class...)}
-	 * when arguments are specified but no filters are available.
-	 * <p>
-	 * As result, provided arguments must be returned, because no filters were
-	 * specified
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testFilterArgumentsWithoutFilters() throws Exception {
-		System.out.println("testFilterArgumentsWithoutFilters");
-
-		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, WebDriver.class,
-				Integer.class);
-		Object[] args = new Object[] { "fire", webDriver, 5248 };
-
-		Object[] result = bean.filterArguments(jsMethod, args, new HashMap<>());
-
-		Assert.assertArrayEquals("wrong result: ", args, result);
-	}
-
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#filterArguments(Method, Object[], java.util.Map, Class...)}
-	 * when arguments and filters are available.
-	 * <p>
-	 * As result,result must only contains not filter applicable entries and the
-	 * provided map should contains the filtered instances.
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testFilterArguments() throws Exception {
-		System.out.println("testFilterArguments");
-
-		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod", String.class, WebDriver.class, Integer.class,
-				JQueryElement.class);
-		Object[] args = new Object[] { "fire", webDriver, 55, $element };
-		Map<Class<?>, Object> filteredEntries = new HashMap<>();
-		Object[] result = bean.filterArguments(jsMethod, args, filteredEntries, WebDriver.class,
-				GlobalReferenceHolder.class);
-
-		Assert.assertArrayEquals("wrong result", new Object[] { "fire", 55 }, result);
-
-		Assert.assertEquals("wrong filtered webDriver: ", webDriver, filteredEntries.get(WebDriver.class));
-		Assert.assertEquals("wrong filtered globalReference: ", $element,
-				filteredEntries.get(GlobalReferenceHolder.class));
-	}
-
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#prepareArgumentsForCustomCallFunc(Object[], Map, String, JavaScriptFunction)}
-	 * when current jsSource has no call function.
-	 * <p>
-	 * As result,provided arguments must be returned, because there is no call
-	 * function available.
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testPrepareArgumentsForCustomCallFuncWithoutCall() throws Exception {
-		System.out.println("testPrepareArgumentsForCustomCallFuncWithoutCall");
-
-		Object[] arguments = new Object[] { "something", "fire" };
-		Map<Class<?>, Object> filteredArguments = new HashMap<>();
-		String jsMethodName = "";
-
-		Object[] result = bean.prepareArgumentsForCustomCallFunc(arguments, filteredArguments, jsMethodName,
-				jsFunctionAnnotation);
-
-		Assert.assertArrayEquals("wrong result", arguments, result);
-	}
-
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#prepareArgumentsForCustomCallFunc(Object[], Map, String, JavaScriptFunction)}
-	 * when call function has no arguments.
-	 * <p>
-	 * As result,empty array must be returned.
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testPrepareArgumentsForCustomCallFuncWithoutArgs() throws Exception {
-		System.out.println("testPrepareArgumentsForCustomCallFuncWithoutArgs");
-
-		Object[] arguments = new Object[] { "something", "fire" };
-		Map<Class<?>, Object> filteredArguments = new HashMap<>();
-		String jsMethodName = "javaScriptMethod";
-		Method jsMethod = getClass().getDeclaredMethod("javaScriptMethod");
-		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
-		when(jsCallFunction.getCallMethod()).thenReturn(jsMethod);
-
-		Object[] result = bean.prepareArgumentsForCustomCallFunc(arguments, filteredArguments, jsMethodName,
-				jsFunctionAnnotation);
-
-		Assert.assertArrayEquals("wrong result", new Object[] {}, result);
-	}
-
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#prepareArgumentsForCustomCallFunc(Object[], Map, String, JavaScriptFunction)}
-	 * when call function has arguments.
+	 * {@link JavaScriptMethodInterceptor#createInvocations(JavaScriptSource)}
+	 * with js-interface declaring bound and manual methods.
 	 * <p>
-	 * As result,array must contains global reference string, calling js
-	 * function and provided arguments array.
+	 * As result, only the methods annotated with {@link JavaScriptFunction}
+	 * must have an invocation.
 	 * </p>
 	 * 
 	 * @throws Exception
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Test
-	public void testPrepareArgumentsForCustomCallFuncWithArgs() throws Exception {
-		System.out.println("testPrepareArgumentsForCustomCallFuncWithArgs");
-
-		Object[] arguments = new Object[] { "something", 55 };
-		Map<Class<?>, Object> filteredArguments = new HashMap<>();
-		filteredArguments.put(GlobalReferenceHolder.class, $element);
-		String jsFunctionName = "fire";
-		when(jsFunctionAnnotation.name()).thenReturn(jsFunctionName);
-		String referenceValue = "645-4546548-645465";
-		when($element.getReference()).thenReturn(referenceValue);
-		String jsMethodName = "callFunction";
-		Method jsMethod = getClass().getDeclaredMethod("callFunction", String.class, String.class, Object[].class);
-		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
-		when(jsCallFunction.getCallMethod()).thenReturn(jsMethod);
-
-		Object[] result = bean.prepareArgumentsForCustomCallFunc(arguments, filteredArguments, jsMethodName,
-				jsFunctionAnnotation);
-
-		Assert.assertArrayEquals("wrong result", new Object[] { referenceValue, jsFunctionName, arguments }, result);
-	}
+	public void testCreateInvocations() throws Exception {
+		System.out.println("testCreateInvocations");
 
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#prepareArgumentsForCustomCallFunc(Object[], Map, String, JavaScriptFunction)}
-	 * when call function has no annotated parameters.
-	 * <p>
-	 * As result,array must be empty, because vani is not able to resolve the
-	 * required parameters without annotation.
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testPrepareArgumentsForCustomCallFuncWithoutAnnotatedArgs() throws Exception {
-		System.out.println("testPrepareArgumentsForCustomCallFuncWithoutAnnotatedArgs");
-
-		Object[] arguments = new Object[] { "something", 55 };
-		Map<Class<?>, Object> filteredArguments = new HashMap<>();
-		filteredArguments.put(GlobalReferenceHolder.class, $element);
-		String jsFunctionName = "fire";
-		when(jsFunctionAnnotation.name()).thenReturn(jsFunctionName);
-		String referenceValue = "645-4546548-645465";
-		when($element.getReference()).thenReturn(referenceValue);
-		String jsMethodName = "callFunction";
-		Method jsMethod = getClass().getDeclaredMethod("callFunctionWithoutAnnotatedParams", String.class, String.class,
-				Integer.class);
-		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
-		when(jsCallFunction.getCallMethod()).thenReturn(jsMethod);
+		JavaScriptSource source = jsSource;
+		when(source.getJsInterface()).thenReturn(JsInterface.class);
 
-		Object[] result = bean.prepareArgumentsForCustomCallFunc(arguments, filteredArguments, jsMethodName,
-				jsFunctionAnnotation);
+		Map<Method, JavaScriptInvocation> result = bean.createInvocations(jsSource);
 
-		Assert.assertArrayEquals("wrong result", new Object[] {}, result);
+		Assert.assertEquals("wrong count of invocations: ", 1, result.size());
+		Assert.assertEquals("wrong method: ", "fire",
+				result.get(JsInterface.class.getMethod("fire", String.class)).getMethodName());
 	}
 
 	/**
 	 * tests
-	 * {@link JavaScriptMethodInterceptor#prepareArgumentsForCustomCallFunc(Object[], Map, String, JavaScriptFunction)}
-	 * when call function has annotated parameters, but filtered
-	 * {@link GlobalReferenceHolder} is {@code NULL} and
-	 * {@link JavaScriptFunction} declares no name.
+	 * {@link JavaScriptMethodInterceptor#intercept(Object[], Method, Class)}
+	 * when the provided {@link WebDriver} doesn't implement
+	 * {@link JavascriptExecutor}.
 	 * <p>
-	 * As result, array must contains {@code NULL} as global reference string,
-	 * js method name and provided arguments array.
+	 * As result, the script must be executed by the driver of the context and
+	 * the provided driver must be passed like any other argument.
 	 * </p>
 	 * 
 	 * @throws Exception
 	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
 	@Test
-	public void testPrepareArgumentsForCustomCallFuncWithoutFunctionNameValueAndReference() throws Exception {
-		System.out.println("testPrepareArgumentsForCustomCallFuncWithoutFunctionNameValueAndReference");
-
-		Object[] arguments = new Object[] { "something", 55 };
-		Map<Class<?>, Object> filteredArguments = new HashMap<>();
-		filteredArguments.put(GlobalReferenceHolder.class, null);
-		String jsMethodName = "fire";
-		Method jsMethod = getClass().getDeclaredMethod("callFunction", String.class, String.class, Object[].class);
-		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
-		when(jsCallFunction.getCallMethod()).thenReturn(jsMethod);
+	public void testInterceptWithDriverNotExecutor() throws Exception {
+		System.out.println("testInterceptWithDriverNotExecutor");
 
-		Object[] result = bean.prepareArgumentsForCustomCallFunc(arguments, filteredArguments, jsMethodName,
-				jsFunctionAnnotation);
+		JavaScriptSource source = jsSource;
+		when(source.getJsInterface()).thenReturn(DriverJsInterface.class);
+		when(testWebDriver.executeScript(anyString(), anyVararg())).thenReturn("fired");
+		bean = new JavaScriptMethodInterceptor(jsSource, vaniContext, manualJSInterfaceImplemenations);
+		Method jsMethod = DriverJsInterface.class.getMethod("fire", String.class, WebDriver.class);
 
-		Assert.assertArrayEquals("wrong result", new Object[] { null, jsMethodName, arguments }, result);
-	}
+		Object result = bean.intercept(new Object[] { "hello", webDriver }, jsMethod, DriverJsInterface.class);
 
-	/**
-	 * tests
-	 * {@link JavaScriptMethodInterceptor#prepareArgumentsForCustomCallFunc(Object[], Map, String, JavaScriptFunction)}
-	 * when call function has annotated parameters, but filtered
-	 * {@link GlobalReferenceHolder} is {@code NULL} and
-	 * {@link JavaScriptFunction} declares value instead of name.
-	 * <p>
-	 * As result, array must contains {@code NULL} as global reference string
-	 * and as js method name and provided arguments array.
-	 * </p>
-	 * 
-	 * @throws Exception
-	 */
-	@Test
-	public void testPrepareArgumentsForCustomCallFuncWithFunctionSouce() throws Exception {
-		System.out.println("testPrepareArgumentsForCustomCallFuncWithFunctionSouce");
-
-		Object[] arguments = new Object[] { "something", 55 };
-		Map<Class<?>, Object> filteredArguments = new HashMap<>();
-		filteredArguments.put(GlobalReferenceHolder.class, null);
-		String jsMethodName = "fire";
-		Method jsMethod = getClass().getDeclaredMethod("callFunction", String.class, String.class, Object[].class);
-		when(jsSource.getJsCallFunction()).thenReturn(jsCallFunction);
-		when(jsCallFunction.getCallMethod()).thenReturn(jsMethod);
-		when(jsFunctionAnnotation.value()).thenReturn("alert('haha :P');");
-
-		Object[] result = bean.prepareArgumentsForCustomCallFunc(arguments, filteredArguments, jsMethodName,
-				jsFunctionAnnotation);
-
-		verify(jsFunctionAnnotation, times(0)).name();
-		Assert.assertArrayEquals("wrong result", new Object[] { null, null, arguments }, result);
+		verify(testWebDriver, times(1)).executeScript(anyString(), eq("hello"), eq(webDriver));
+		Assert.assertEquals("wrong result: ", "fired", result);
 	}
 
 	/**
@@ -462,20 +252,19 @@ public class JavaScriptMethodInterceptorTest {
 		Assert.assertTrue("wrong result: ", (Boolean) result);
 	}
 
-	protected void javaScriptMethod() {
-	}
-
 	protected void javaScriptMethod(String param, WebDriver webDriver, Integer param2) {
 	}
 
-	protected void javaScriptMethod(String param, WebDriver webDriver, Integer param2, JQueryElement jqElement) {
-	}
+	interface JsInterface {
+		@JavaScriptFunction
+		String fire(String param);
 
-	protected void callFunction(@GlobalReference String reference, @JsFunctionName String functionName,
-			@JsFunctionArguments Object[] functionArgs) {
+		String manual();
 	}
 
-	protected void callFunctionWithoutAnnotatedParams(String param1, String param2, Integer param3) {
+	interface DriverJsInterface {
+		@JavaScriptFunction
+		String fire(String param, WebDriver webDriver);
 	}
 
 	interface TestWebDriver extends WebDriver, JavascriptExecutor {
@@ -132,7 +132,8 @@ public class XhrInterceptorTest {
 	 * returns {@code 0} and {@link Xhr#disabledByReturn()} is false.
 	 * <p>
 	 * As result, {@code 0} must be returned and waiting should be executed,
-	 * because {@link Xhr#disabledByReturn()} is false.
+	 * because {@link Xhr#disabledByReturn()} is false. No sequence must be
+	 * fetched before the call, so the wait must filter by start time only.
 	 * </p>
 	 */
 	@Test
@@ -147,7 +148,9 @@ public class XhrInterceptorTest {
 		Object result = bean.intercept(method, zuper);
 
 		verify(vaniContext, times(1)).resolveExpression(expectedUrl);
-		verify(waitUtil, times(1)).ajaxJQuery(eq(expectedUrl), anyLong(), eq((long) 30 * 1000), eq(webDriver));
+		verify(waitUtil, times(0)).getAjaxSequence(webDriver);
+		verify(waitUtil, times(1)).ajaxCompleted(eq(expectedUrl), eq(0L), anyLong(), eq((long) 30 * 1000),
+				eq(webDriver));
 		Assert.assertEquals("wrong result: ", 0, result);
 	}
 
@@ -170,7 +173,8 @@ public class XhrInterceptorTest {
 		Object result = bean.intercept(method, zuper);
 
 		verify(vaniContext, times(1)).resolveExpression(expectedUrl);
-		verify(waitUtil, times(1)).ajaxJQuery(eq(expectedUrl), anyLong(), eq((long) 30 * 1000), eq(webDriver));
+		verify(waitUtil, times(1)).ajaxCompleted(eq(expectedUrl), anyLong(), anyLong(), eq((long) 30 * 1000),
+				eq(webDriver));
 		Assert.assertEquals("wrong result: ", 1250, result);
 	}
 
@@ -0,0 +1,118 @@
+package org.markysoft.vani.core.wait;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.javascript.XhrTracking;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.WebDriver;
+import org.springframework.context.ApplicationContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AjaxWaitCommandTest {
+	@Mock
+	private VaniContext vaniContext;
+	@Mock
+	private ApplicationContext appContext;
+	@Mock
+	private XhrTracking xhrTracking;
+	@Mock
+	private WebDriver webDriver;
+
+	@Before
+	public void setUp() {
+		when(vaniContext.getAppContext()).thenReturn(appContext);
+		when(appContext.getBean(XhrTracking.class)).thenReturn(xhrTracking);
+	}
+
+	/**
+	 * tests {@link AjaxWaitCommand#eval()} with several evaluations.
+	 * <p>
+	 * As result, each evaluation must only fetch the requests after the last
+	 * known sequence and the command must stay fulfilled after a matching
+	 * request was found.
+	 * </p>
+	 */
+	@Test
+	public void testEval() {
+		System.out.println("testEval");
+
+		when(xhrTracking.getRequests(0, 1000, webDriver)).thenReturn(Arrays.asList(request(1, "/other")));
+		when(xhrTracking.getRequests(1, 1000, webDriver)).thenReturn(Collections.emptyList(),
+				Arrays.asList(request(2, "/api/items?page=2"), request(3, "/other")));
+		AjaxWaitCommand bean = new AjaxWaitCommand(vaniContext, "api/items", 1000, webDriver);
+
+		Assert.assertFalse("wrong result of first eval: ", bean.eval());
+		Assert.assertFalse("wrong result of second eval: ", bean.eval());
+		Assert.assertTrue("wrong result of third eval: ", bean.eval());
+		Assert.assertTrue("wrong result of fourth eval: ", bean.eval());
+
+		Assert.assertEquals("wrong last sequence: ", 3, bean.lastSequence);
+		verify(xhrTracking, times(3)).getRequests(anyLong(), anyLong(), anyObject());
+		verify(xhrTracking, times(0)).hasRequestFor(anyString(), anyLong(), anyObject());
+	}
+
+	/**
+	 * tests {@link AjaxWaitCommand#eval()} when the command waits for
+	 * completed requests.
+	 * <p>
+	 * As result, a matching request in flight must be fetched again until it
+	 * is completed.
+	 * </p>
+	 */
+	@Test
+	public void testEvalCompleted() {
+		System.out.println("testEvalCompleted");
+
+		Map<String, Object> completedRequest = request(2, "/api/items");
+		completedRequest.put("completed", 1500L);
+		when(xhrTracking.getRequests(0, 1000, webDriver))
+				.thenReturn(Arrays.asList(request(1, "/other"), request(2, "/api/items"), request(3, "/other")));
+		when(xhrTracking.getRequests(1, 1000, webDriver)).thenReturn(Arrays.asList(completedRequest));
+		AjaxWaitCommand bean = new AjaxWaitCommand(vaniContext, "api/items", 1000, true, webDriver);
+
+		Assert.assertFalse("wrong result of first eval: ", bean.eval());
+		Assert.assertEquals("wrong last sequence: ", 1, bean.lastSequence);
+		Assert.assertTrue("wrong result of second eval: ", bean.eval());
+	}
+
+	/**
+	 * tests {@link AjaxWaitCommand#eval()} with url pattern, which is not
+	 * supported by java.
+	 * <p>
+	 * As result, the pattern must be evaluated by the browser.
+	 * </p>
+	 */
+	@Test
+	public void testEvalWithUnsupportedPattern() {
+		System.out.println("testEvalWithUnsupportedPattern");
+
+		when(xhrTracking.hasRequestFor("api/(items", 1000, webDriver)).thenReturn(true);
+		AjaxWaitCommand bean = new AjaxWaitCommand(vaniContext, "api/(items", 1000, webDriver);
+
+		Assert.assertTrue("wrong result: ", bean.eval());
+		verify(xhrTracking, times(0)).getRequests(anyLong(), anyLong(), anyObject());
+	}
+
+	private static Map<String, Object> request(long sequence, String url) {
+		Map<String, Object> result = new HashMap<>();
+		result.put("sequence", sequence);
+		result.put("url", url);
+		return result;
+	}
+}
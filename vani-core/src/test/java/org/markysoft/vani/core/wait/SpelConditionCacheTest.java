@@ -0,0 +1,73 @@
+package org.markysoft.vani.core.wait;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.expression.Expression;
+
+public class SpelConditionCacheTest {
+	private SpelConditionCache bean;
+
+	@Before
+	public void setUp() {
+		bean = new SpelConditionCache(2);
+	}
+
+	/**
+	 * tests {@link SpelConditionCache#get(String)} when the same condition is
+	 * requested twice.
+	 * <p>
+	 * As result, the same parsed expression must be returned.
+	 * </p>
+	 */
+	@Test
+	public void testGetTwice() {
+		System.out.println("testGetTwice");
+
+		Expression result = bean.get("isEmpty()");
+
+		Assert.assertSame("wrong result: ", result, bean.get("isEmpty()"));
+		Assert.assertEquals("wrong size: ", 1, bean.size());
+	}
+
+	/**
+	 * tests {@link SpelConditionCache#get(String)} when more conditions are
+	 * requested than the cache can hold.
+	 * <p>
+	 * As result, the least recently used expression must be removed.
+	 * </p>
+	 */
+	@Test
+	public void testGetWithFullCache() {
+		System.out.println("testGetWithFullCache");
+
+		Expression first = bean.get("isEmpty()");
+		Expression second = bean.get("length() > 2");
+		bean.get("isEmpty()");
+		bean.get("length() > 5");
+
+		Assert.assertEquals("wrong size: ", 2, bean.size());
+		Assert.assertSame("wrong result: ", first, bean.get("isEmpty()"));
+		Assert.assertNotSame("wrong result: ", second, bean.get("length() > 2"));
+	}
+
+	/**
+	 * tests the evaluation of a cached expression, which is evaluated often
+	 * enough to be compiled, also with a different type of target.
+	 * <p>
+	 * As result, the expression must return the correct value for each
+	 * evaluation.
+	 * </p>
+	 */
+	@Test
+	public void testEvaluateCompiled() {
+		System.out.println("testEvaluateCompiled");
+
+		Expression expression = bean.get("length() > 2");
+		for (int i = 0; i < 200; i++) {
+			Assert.assertTrue("wrong result: ", expression.getValue("abc", Boolean.class));
+			Assert.assertFalse("wrong result: ", expression.getValue("a", Boolean.class));
+		}
+		Assert.assertTrue("wrong result: ", expression.getValue(new StringBuilder("abc"), Boolean.class));
+	}
+}
@@ -0,0 +1,359 @@
+package org.markysoft.vani.core.wait;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.condition.Is;
+import org.markysoft.vani.core.javascript.GlobalReferenceHolder;
+import org.markysoft.vani.core.javascript.JQuery;
+import org.markysoft.vani.core.javascript.JavaScriptException;
+import org.markysoft.vani.core.javascript.VaniUtils;
+import org.markysoft.vani.core.javascript.WaitEngine;
+import org.markysoft.vani.core.locating.JQueryElement;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.springframework.context.ApplicationContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WaitBuilderTest {
+	private WaitBuilder bean;
+
+	@Mock
+	private VaniContext vaniContext;
+	@Mock
+	private ApplicationContext appContext;
+	@Mock
+	private WaitEngine waitEngine;
+	@Mock
+	private VaniUtils vaniUtils;
+	@Mock
+	private JQuery jquery;
+	@Mock(answer = Answers.RETURNS_DEEP_STUBS)
+	private WebDriver webDriver;
+	@Mock
+	private WebElement webElement;
+	@Mock
+	private JQueryElement $element;
+	@Mock
+	private RemoteWebElement remoteElement;
+
+	@Captor
+	private ArgumentCaptor<List<Map<String, Object>>> captorConditions;
+
+	@Before
+	public void setUp() {
+		when(vaniContext.getAppContext()).thenReturn(appContext);
+		when(vaniContext.isBrowserWaitEnabled()).thenReturn(true);
+		when(appContext.getBean(WaitEngine.class)).thenReturn(waitEngine);
+		when(appContext.getBean(VaniUtils.class)).thenReturn(vaniUtils);
+		when(appContext.getBean(JQuery.class)).thenReturn(jquery);
+		bean = new WaitBuilder(vaniContext);
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} when all
+	 * conditions can be evaluated by the browser.
+	 * <p>
+	 * As result, all conditions must be sent in one call to the
+	 * {@link WaitEngine} and nothing must be polled by java.
+	 * </p>
+	 */
+	@Test
+	public void testUntilInBrowser() {
+		System.out.println("testUntilInBrowser");
+
+		when(waitEngine.waitFor(anyObject(), eq(2000L), eq(50L), eq(webDriver))).thenReturn(true);
+
+		boolean result = bean.element("#result").displayed().and().variable("status").hasText("done").until(2000, 500,
+				webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		verify(waitEngine, times(1)).waitFor(captorConditions.capture(), eq(2000L), eq(50L), eq(webDriver));
+		Map<String, Object> element = new HashMap<>();
+		element.put("selector", "#result");
+		element.put("check", "displayed");
+		Map<String, Object> variable = new HashMap<>();
+		variable.put("variable", "status");
+		variable.put("check", "text");
+		variable.put("value", "done");
+		Assert.assertEquals("wrong conditions: ", element, captorConditions.getValue().get(0));
+		Assert.assertEquals("wrong conditions: ", variable, captorConditions.getValue().get(1));
+		verify(vaniUtils, times(0)).get(anyObject(), anyObject());
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} with the default
+	 * condition of {@link org.markysoft.vani.core.annotation.ContentWait}.
+	 * <p>
+	 * As result, the spel condition {@code hasMatches()} must be evaluated by
+	 * the browser as check 'present' of the selector.
+	 * </p>
+	 */
+	@Test
+	public void testUntilInBrowserWithHasMatches() {
+		System.out.println("testUntilInBrowserWithHasMatches");
+
+		when(waitEngine.waitFor(anyObject(), eq(10000L), eq(50L), eq(webDriver))).thenReturn(true);
+
+		boolean result = bean.element("#items li", webDriver).spel("hasMatches()").until(10000, 1000, webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		verify(waitEngine, times(1)).waitFor(captorConditions.capture(), eq(10000L), eq(50L), eq(webDriver));
+		Map<String, Object> expected = new HashMap<>();
+		expected.put("selector", "#items li");
+		expected.put("check", "present");
+		Assert.assertEquals("wrong conditions: ", expected, captorConditions.getValue().get(0));
+		verify(jquery, times(0)).find((GlobalReferenceHolder) anyObject(), anyString(), anyObject());
+		Assert.assertNull("wrong browser condition: ",
+				((WaitBuilder) new WaitBuilder(vaniContext).element("#items li", webDriver).spel("size() > 1"))
+						.getBrowserConditions());
+	}
+
+	/**
+	 * tests {@link WaitBuilder#getBrowserConditions()} with a selenium element
+	 * and a {@link JQueryElement} as target.
+	 * <p>
+	 * As result, only the jquery element must be evaluated by the browser,
+	 * because selenium evaluates the checks of other elements differently.
+	 * </p>
+	 */
+	@Test
+	public void testGetBrowserConditionsWithElementTargets() {
+		System.out.println("testGetBrowserConditionsWithElementTargets");
+
+		when($element.getReference()).thenReturn("abc.1");
+
+		Assert.assertNull("wrong browser condition: ",
+				((WaitBuilder) new WaitBuilder(vaniContext).element(remoteElement).is(Is.DISPLAYED))
+						.getBrowserConditions());
+		List<Map<String, Object>> result = ((WaitBuilder) new WaitBuilder(vaniContext).element($element)
+				.is(Is.DISPLAYED)).getBrowserConditions();
+		Assert.assertNotNull("browser condition must not be NULL!", result);
+		Assert.assertEquals("wrong reference: ", "abc.1", result.get(0).get("ref"));
+		Assert.assertEquals("wrong check: ", "displayed", result.get(0).get("check"));
+	}
+
+	/**
+	 * tests {@link WaitBuilder#spel(String)} with the spel conditions
+	 * supported by the browser.
+	 * <p>
+	 * As result, the conditions must be translated to browser checks and
+	 * negations must be marked.
+	 * </p>
+	 */
+	@Test
+	public void testSpelWithBrowserChecks() {
+		System.out.println("testSpelWithBrowserChecks");
+
+		Assert.assertEquals("wrong condition: ", createCondition("present", null, true),
+				getBrowserCondition("!hasMatches()"));
+		Assert.assertEquals("wrong condition: ", createCondition("displayed", null, true),
+				getBrowserCondition("isDisplayed() == false"));
+		Assert.assertEquals("wrong condition: ", createCondition("enabled", null, false),
+				getBrowserCondition(" isEnabled() "));
+		Assert.assertEquals("wrong condition: ", createCondition("is", ".active", true),
+				getBrowserCondition("not is('.active')"));
+		Assert.assertEquals("wrong condition: ", createCondition("text", "done", false),
+				getBrowserCondition("text() == 'done'"));
+		Assert.assertEquals("wrong condition: ", createCondition("count", 3, false),
+				getBrowserCondition("getLength() > 2"));
+		Assert.assertEquals("wrong condition: ", createCondition("present", null, false),
+				getBrowserCondition("!!hasMatches()"));
+		Assert.assertNull("wrong condition: ", getBrowserCondition("getLength() < 2"));
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} when the browser
+	 * reports that the conditions are not fulfilled in time.
+	 * <p>
+	 * As result, {@link TimeoutException} must be thrown like by polling.
+	 * </p>
+	 */
+	@Test(expected = TimeoutException.class)
+	public void testUntilInBrowserWithTimeout() {
+		System.out.println("testUntilInBrowserWithTimeout");
+
+		when(waitEngine.waitFor(anyObject(), anyLong(), anyLong(), eq(webDriver))).thenReturn(false);
+
+		bean.variable("status").present().until(100, 10, webDriver);
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} with a custom
+	 * predicate.
+	 * <p>
+	 * As result, the condition must be polled by java and the
+	 * {@link WaitEngine} must not be called.
+	 * </p>
+	 */
+	@Test
+	public void testUntilWithJavaPredicate() {
+		System.out.println("testUntilWithJavaPredicate");
+
+		when(webElement.getAttribute("class")).thenReturn("active");
+		Predicate<WebElement> active = e -> "active".equals(e.getAttribute("class"));
+
+		boolean result = bean.element(webElement).is(active).until(1000, 10, webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		verify(waitEngine, times(0)).waitFor(anyObject(), anyLong(), anyLong(), anyObject());
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} when the script of
+	 * the {@link WaitEngine} fails.
+	 * <p>
+	 * As result, the conditions must be polled by java.
+	 * </p>
+	 */
+	@Test
+	public void testUntilInBrowserWithFailure() {
+		System.out.println("testUntilInBrowserWithFailure");
+
+		when(waitEngine.waitFor(anyObject(), anyLong(), anyLong(), eq(webDriver)))
+				.thenThrow(new JavaScriptException("page unloaded"));
+		when(vaniUtils.get("status", null)).thenReturn(null, "done");
+
+		boolean result = bean.variable("status").hasText("done").until(1000, 10, webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		verify(vaniUtils, times(2)).get("status", null);
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} with the predicate
+	 * {@link Is#ENABLED} and {@link WaitOperatorBuilder#not()}.
+	 * <p>
+	 * As result, the condition must be polled by java, because negated
+	 * conditions are not evaluated by the browser.
+	 * </p>
+	 */
+	@Test
+	public void testUntilWithNot() {
+		System.out.println("testUntilWithNot");
+
+		when(jquery.find((GlobalReferenceHolder) null, "#submit")).thenReturn($element);
+		when($element.isEnabled()).thenReturn(false);
+
+		Assert.assertNotNull("wrong browser condition: ",
+				((WaitBuilder) bean.element("#submit").is(Is.ENABLED)).getBrowserConditions());
+		boolean result = bean.not().until(1000, 10, webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		Assert.assertNull("wrong browser condition: ", bean.getBrowserConditions());
+		verify(waitEngine, times(0)).waitFor(anyObject(), anyLong(), anyLong(), anyObject());
+		verify($element, times(1)).isEnabled();
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} with two
+	 * conditions combined by {@link WaitConditionTargetBuilder#or()}.
+	 * <p>
+	 * As result, the conditions must be polled by java, the cheaper variable
+	 * condition must be evaluated first and the element must not be located,
+	 * because the variable condition is already fulfilled.
+	 * </p>
+	 */
+	@Test
+	public void testUntilWithOr() {
+		System.out.println("testUntilWithOr");
+
+		when(vaniUtils.get("status", null)).thenReturn("done");
+
+		boolean result = bean.element("#result").displayed().or().variable("status").hasText("done").until(1000, 10,
+				webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		verify(waitEngine, times(0)).waitFor(anyObject(), anyLong(), anyLong(), anyObject());
+		verify(jquery, times(0)).find((GlobalReferenceHolder) null, "#result");
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} with two
+	 * conditions combined by {@link WaitConditionTargetBuilder#and()}, which
+	 * must be polled by java.
+	 * <p>
+	 * As result, the element must only be located after the cheaper variable
+	 * condition is fulfilled.
+	 * </p>
+	 */
+	@Test
+	public void testUntilWithAnd() {
+		System.out.println("testUntilWithAnd");
+
+		when(jquery.find((GlobalReferenceHolder) null, "#result")).thenReturn($element);
+		when($element.isDisplayed()).thenReturn(true);
+		when(vaniUtils.get("status", null)).thenReturn(null, null, "done");
+		Predicate<WebElement> displayed = e -> e.isDisplayed();
+
+		boolean result = bean.element("#result").is(displayed).and().variable("status").hasText("done").until(1000,
+				10, webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		verify(vaniUtils, times(3)).get("status", null);
+		verify($element, times(1)).isDisplayed();
+	}
+
+	/**
+	 * tests {@link WaitBuilder#until(long, long, WebDriver)} with a condition,
+	 * which is fulfilled shortly after the start, and a long period.
+	 * <p>
+	 * As result, the wait must return before the first period is over,
+	 * because the time between the first checks is shorter.
+	 * </p>
+	 */
+	@Test
+	public void testUntilWithBackoff() {
+		System.out.println("testUntilWithBackoff");
+
+		long start = System.currentTimeMillis();
+		Predicate<WebDriver> ready = d -> System.currentTimeMillis() - start >= 100;
+
+		boolean result = bean.webDriver(webDriver).is(ready).until(10000, 2000, webDriver);
+
+		Assert.assertTrue("wrong result: ", result);
+		long waited = System.currentTimeMillis() - start;
+		Assert.assertTrue("waited too long: " + waited, waited < 1000);
+	}
+
+	private Map<String, Object> getBrowserCondition(String condition) {
+		List<Map<String, Object>> result = ((WaitBuilder) new WaitBuilder(vaniContext).element("#items", webDriver)
+				.spel(condition)).getBrowserConditions();
+		return result != null ? result.get(0) : null;
+	}
+
+	private Map<String, Object> createCondition(String check, Object value, boolean negate) {
+		Map<String, Object> result = new HashMap<>();
+		result.put("selector", "#items");
+		result.put("check", check);
+		if (value != null) {
+			result.put("value", value);
+		}
+		if (negate) {
+			result.put("negate", true);
+		}
+		return result;
+	}
+}
@@ -0,0 +1,204 @@
+package org.markysoft.vani.core.wait;
+
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.markysoft.vani.core.VaniContext;
+import org.markysoft.vani.core.javascript.JavaScriptException;
+import org.markysoft.vani.core.javascript.WaitEngine;
+import org.markysoft.vani.core.javascript.XhrTracking;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.springframework.context.ApplicationContext;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WaitUtilTest {
+	private WaitUtil bean;
+
+	@Mock
+	private VaniContext vaniContext;
+	@Mock
+	private ApplicationContext appContext;
+	@Mock
+	private XhrTracking xhrTracking;
+	@Mock
+	private WaitEngine waitEngine;
+	@Mock(answer = Answers.RETURNS_DEEP_STUBS)
+	private WebDriver webDriver;
+
+	@Before
+	public void setUp() {
+		when(vaniContext.getAppContext()).thenReturn(appContext);
+		when(vaniContext.isBrowserWaitEnabled()).thenReturn(true);
+		when(appContext.getBean(XhrTracking.class)).thenReturn(xhrTracking);
+		bean = new WaitUtil();
+		bean.vaniContext = vaniContext;
+	}
+
+	/**
+	 * tests {@link WaitUtil#ajaxJQuery(long, WebDriver)} when the page
+	 * reports that it is idle.
+	 * <p>
+	 * As result, the waited time reported by the page must be returned and the
+	 * count of active requests must not be polled.
+	 * </p>
+	 */
+	@Test
+	public void testAjaxJQueryInBrowser() {
+		System.out.println("testAjaxJQueryInBrowser");
+
+		when(xhrTracking.awaitIdle(5000, webDriver)).thenReturn(230L);
+
+		long result = bean.ajaxJQuery(5000, webDriver);
+
+		Assert.assertEquals("wrong result: ", 230, result);
+		verify(xhrTracking, times(0)).getActiveRequests(anyObject());
+	}
+
+	/**
+	 * tests {@link WaitUtil#ajaxJQuery(long, WebDriver)} when the asynchronous
+	 * script fails.
+	 * <p>
+	 * As result, the count of active requests must be polled until no request
+	 * is in flight.
+	 * </p>
+	 */
+	@Test
+	public void testAjaxJQueryWithFallback() {
+		System.out.println("testAjaxJQueryWithFallback");
+
+		when(xhrTracking.awaitIdle(anyLong(), eq(webDriver))).thenThrow(new JavaScriptException("page unloaded"));
+		when(xhrTracking.getActiveRequests(webDriver)).thenReturn(1L, 0L);
+
+		long result = bean.ajaxJQuery(5000, webDriver);
+
+		Assert.assertTrue("wrong result: " + result, result >= 0);
+		verify(xhrTracking, times(2)).getActiveRequests(webDriver);
+	}
+
+	/**
+	 * tests {@link WaitUtil#pageIdle(long, WebDriver)} when the page reports
+	 * that it is settled.
+	 * <p>
+	 * As result, the configured quiet time must be provided and the waited time
+	 * reported by the page must be returned.
+	 * </p>
+	 */
+	@Test
+	public void testPageIdleInBrowser() {
+		System.out.println("testPageIdleInBrowser");
+
+		when(vaniContext.getPageIdleQuietMillis()).thenReturn(300L);
+		when(appContext.getBean(WaitEngine.class)).thenReturn(waitEngine);
+		when(waitEngine.waitForPageIdle(300, 10000, WaitBuilder.BROWSER_INTERVAL, webDriver)).thenReturn(820L);
+
+		long result = bean.pageIdle(10000, webDriver);
+
+		Assert.assertEquals("wrong result: ", 820, result);
+		verify(webDriver.manage().timeouts(), times(1)).setScriptTimeout(15000, TimeUnit.MILLISECONDS);
+		verify(xhrTracking, times(0)).awaitIdle(anyLong(), anyObject());
+	}
+
+	/**
+	 * tests {@link WaitUtil#pageIdle(long, WebDriver)} when the browser wait
+	 * engine is disabled.
+	 * <p>
+	 * As result, it must only be waited for finishing ajax requests.
+	 * </p>
+	 */
+	@Test
+	public void testPageIdleWithoutBrowserEngine() {
+		System.out.println("testPageIdleWithoutBrowserEngine");
+
+		when(vaniContext.isBrowserWaitEnabled()).thenReturn(false);
+		when(xhrTracking.getActiveRequests(webDriver)).thenReturn(0L);
+
+		long result = bean.pageIdle(10000, webDriver);
+
+		Assert.assertTrue("wrong result: " + result, result >= 0);
+		verify(appContext, times(0)).getBean(WaitEngine.class);
+		verify(xhrTracking, times(1)).getActiveRequests(webDriver);
+	}
+
+	/**
+	 * tests {@link WaitUtil#ajaxCompleted(String, long, long, long, WebDriver)}
+	 * when the page reports the completion.
+	 * <p>
+	 * As result, the wait must be done by one asynchronous call with a script
+	 * timeout greater than the wait timeout and without polling.
+	 * </p>
+	 */
+	@Test
+	public void testAjaxCompletedInBrowser() {
+		System.out.println("testAjaxCompletedInBrowser");
+
+		when(xhrTracking.awaitCompletion("api/items", 17, 1000, 30000, webDriver)).thenReturn(true);
+
+		bean.ajaxCompleted("api/items", 17, 1000, 30000, webDriver);
+
+		verify(xhrTracking, times(1)).awaitCompletion("api/items", 17, 1000, 30000, webDriver);
+		verify(webDriver.manage().timeouts(), times(1)).setScriptTimeout(35000, TimeUnit.MILLISECONDS);
+		verify(xhrTracking, times(0)).getRequests(anyLong(), anyLong(), anyObject());
+	}
+
+	/**
+	 * tests {@link WaitUtil#ajaxCompleted(String, long, long, long, WebDriver)}
+	 * when no matching request is completed in time.
+	 * <p>
+	 * As result, {@link TimeoutException} must be thrown.
+	 * </p>
+	 */
+	@Test(expected = TimeoutException.class)
+	public void testAjaxCompletedInBrowserWithTimeout() {
+		System.out.println("testAjaxCompletedInBrowserWithTimeout");
+
+		when(xhrTracking.awaitCompletion(anyString(), anyLong(), anyLong(), anyLong(), eq(webDriver)))
+				.thenReturn(false);
+
+		bean.ajaxCompleted("api/items", 17, 1000, 100, webDriver);
+	}
+
+	/**
+	 * tests {@link WaitUtil#ajaxCompleted(String, long, long, long, WebDriver)}
+	 * when the tracking was not available before the action and when the
+	 * asynchronous script fails.
+	 * <p>
+	 * As result, the requests must be polled by java.
+	 * </p>
+	 */
+	@Test
+	public void testAjaxCompletedWithFallback() {
+		System.out.println("testAjaxCompletedWithFallback");
+
+		Map<String, Object> request = new HashMap<>();
+		request.put("sequence", 1L);
+		request.put("url", "/api/items");
+		request.put("completed", 1500L);
+		when(xhrTracking.getRequests(0, 1000, webDriver)).thenReturn(Arrays.asList(request));
+		when(xhrTracking.awaitCompletion(anyString(), anyLong(), anyLong(), anyLong(), eq(webDriver)))
+				.thenThrow(new JavaScriptException("page unloaded"));
+
+		bean.ajaxCompleted("api/items", -1, 1000, 1000, webDriver);
+		bean.ajaxCompleted("api/items", 17, 1000, 1000, webDriver);
+
+		verify(xhrTracking, times(1)).awaitCompletion(anyString(), anyLong(), anyLong(), anyLong(), eq(webDriver));
+		verify(xhrTracking, times(2)).getRequests(0, 1000, webDriver);
+	}
+}